@@ -0,0 +1,244 @@
+package geometry_objects;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import geometry_objects.points.Point;
+
+/**
+ * An interning pool for points and segments shared across figures: figures
+ * built on the same coordinates (grids, templates) hold one Point / Segment
+ * object per distinct value instead of one each.
+ *
+ * Points and segments are immutable, so an interned object may be handed to
+ * any number of figures and threads. Values are weakly referenced: once no
+ * figure holds a value it is collected and its entry is dropped on a later
+ * call.
+ *
+ * A point's identity here includes its name (unlike Point.equals): points at
+ * the same coordinates with different names are different values. Likewise
+ * a segment is its two named endpoints, in order.
+ *
+ * Use global() for a process-wide pool or construct a pool per workload; pass
+ * it to PointDatabase, InputFacade.toGeometryRepresentation or
+ * PreprocessorOptions.pool.
+ */
+public class GeometryPool
+{
+	private static final GeometryPool GLOBAL = new GeometryPool();
+
+	/**
+	 * @return the process-wide pool
+	 */
+	public static GeometryPool global() { return GLOBAL; }
+
+	protected final ConcurrentHashMap<Object, Entry> _points = new ConcurrentHashMap<Object, Entry>();
+	protected final ConcurrentHashMap<Object, Entry> _segments = new ConcurrentHashMap<Object, Entry>();
+	protected final ReferenceQueue<Object> _collected = new ReferenceQueue<Object>();
+
+	protected final LongAdder _pointRequests = new LongAdder();
+	protected final LongAdder _pointHits = new LongAdder();
+	protected final LongAdder _segmentRequests = new LongAdder();
+	protected final LongAdder _segmentHits = new LongAdder();
+
+	/**
+	 * @param pt -- a point (named or not)
+	 * @return the pooled point with pt's name and coordinates (pt itself if it is the first)
+	 */
+	public Point intern(Point pt)
+	{
+		if (pt == null) return null;
+
+		_pointRequests.increment();
+
+		Point pooled = lookup(_points, new PointKey(pt), pt);
+		if (pooled != pt) _pointHits.increment();
+
+		return pooled;
+	}
+
+	/**
+	 * The endpoints of a pooled segment are pooled points.
+	 *
+	 * @param segment -- a segment
+	 * @return the pooled segment with the same (named) endpoints, in the same order
+	 */
+	public Segment intern(Segment segment)
+	{
+		if (segment == null) return null;
+
+		_segmentRequests.increment();
+
+		SegmentKey key = new SegmentKey(segment);
+		Segment pooled = get(_segments, key);
+		if (pooled != null) {
+			_segmentHits.increment();
+			return pooled;
+		}
+
+		Point p1 = intern(segment.getPoint1());
+		Point p2 = intern(segment.getPoint2());
+		Segment candidate = p1 == segment.getPoint1() && p2 == segment.getPoint2() ? segment
+				                                                                    : new Segment(p1, p2, segment.getLine());
+
+		pooled = lookup(_segments, key, candidate);
+		if (pooled != candidate) _segmentHits.increment();
+
+		return pooled;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T get(ConcurrentHashMap<Object, Entry> map, Object key)
+	{
+		Entry entry = map.get(key);
+
+		return entry == null ? null : (T) entry.get();
+	}
+
+	/**
+	 * @return the live pooled value for key; value if there is none (value is then pooled)
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T lookup(ConcurrentHashMap<Object, Entry> map, Object key, T value)
+	{
+		expunge();
+
+		Entry created = new Entry(map, key, value, _collected);
+		while (true) {
+			Entry entry = map.putIfAbsent(key, created);
+			if (entry == null) return value;
+
+			Object pooled = entry.get();
+			if (pooled != null) return (T) pooled;
+
+			// collected, not yet expunged: take its place
+			if (map.replace(key, entry, created)) return value;
+		}
+	}
+
+	/**
+	 * Drop the entries whose values have been collected.
+	 */
+	public void expunge()
+	{
+		for (Object ref; (ref = _collected.poll()) != null; ) {
+			Entry entry = (Entry) ref;
+			entry._map.remove(entry._key, entry);
+		}
+	}
+
+	/**
+	 * @return the number of live pooled points (after dropping collected ones)
+	 */
+	public int pointCount()
+	{
+		expunge();
+		return _points.size();
+	}
+
+	/**
+	 * @return the number of live pooled segments (after dropping collected ones)
+	 */
+	public int segmentCount()
+	{
+		expunge();
+		return _segments.size();
+	}
+
+	public long getPointRequests() { return _pointRequests.sum(); }
+	public long getPointHits() { return _pointHits.sum(); }
+	public long getSegmentRequests() { return _segmentRequests.sum(); }
+	public long getSegmentHits() { return _segmentHits.sum(); }
+
+	/**
+	 * @return the fraction of intern requests (points and segments) answered
+	 *         with an already pooled object; each such request is an object
+	 *         that need not be retained
+	 */
+	public double getDedupRatio()
+	{
+		long requests = getPointRequests() + getSegmentRequests();
+
+		return requests == 0 ? 0 : (double) (getPointHits() + getSegmentHits()) / requests;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("points %d/%d, segments %d/%d (hits/requests), dedup %.1f%%",
+				             getPointHits(), getPointRequests(), getSegmentHits(), getSegmentRequests(), 100 * getDedupRatio());
+	}
+
+	/**
+	 * A weak reference to a pooled value that knows its entry (to be removed once collected).
+	 */
+	private static class Entry extends WeakReference<Object>
+	{
+		protected final ConcurrentHashMap<Object, Entry> _map;
+		protected final Object _key;
+
+		Entry(ConcurrentHashMap<Object, Entry> map, Object key, Object value, ReferenceQueue<Object> queue)
+		{
+			super(value, queue);
+			_map = map;
+			_key = key;
+		}
+	}
+
+	//
+	// Keys hold only names and coordinates, never the pooled objects themselves
+	// (a strong reference from the map would keep every value alive).
+	//
+	private static class PointKey
+	{
+		protected final String _name;
+		protected final long _x;
+		protected final long _y;
+
+		PointKey(Point pt)
+		{
+			_name = pt.getName();
+			_x = pt.getFixedX();
+			_y = pt.getFixedY();
+		}
+
+		@Override
+		public int hashCode() { return Objects.hash(_name, _x, _y); }
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof PointKey)) return false;
+			PointKey that = (PointKey) obj;
+
+			return _x == that._x && _y == that._y && _name.equals(that._name);
+		}
+	}
+
+	private static class SegmentKey
+	{
+		protected final PointKey _p1;
+		protected final PointKey _p2;
+
+		SegmentKey(Segment segment)
+		{
+			_p1 = new PointKey(segment.getPoint1());
+			_p2 = new PointKey(segment.getPoint2());
+		}
+
+		@Override
+		public int hashCode() { return 31 * _p1.hashCode() + _p2.hashCode(); }
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof SegmentKey)) return false;
+			SegmentKey that = (SegmentKey) obj;
+
+			return _p1.equals(that._p1) && _p2.equals(that._p2);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package geometry_objects;
+
+import geometry_objects.points.Point;
+import utilities.math.MathUtilities;
+
+/**
+ * An infinite line in canonical form:  ax + by = c
+ *
+ *    * (a, b) is the unit normal of the line
+ *    * the sign is fixed so that a > 0 (or a == 0 and b > 0)
+ *
+ * Equality and hashing use the coefficients snapped to an EPSILON grid, so
+ * every segment on the same line maps to the same Line; comparing two lines
+ * is three integer comparisons.
+ */
+public class Line extends GeometricObject
+{
+	protected final double _a;
+	protected final double _b;
+	protected final double _c;
+
+	// The coefficients snapped to the EPSILON grid: the identity of the line
+	protected final long _keyA;
+	protected final long _keyB;
+	protected final long _keyC;
+
+	public double getA() { return _a; }
+	public double getB() { return _b; }
+	public double getC() { return _c; }
+
+	/**
+	 * @param p1 -- a point on the line
+	 * @param p2 -- a distinct point on the line
+	 */
+	public Line(Point p1, Point p2)
+	{
+		double dx = p2.getX() - p1.getX();
+		double dy = p2.getY() - p1.getY();
+		double length = Math.hypot(dx, dy);
+
+		// Degenerate (a point); normalizing is meaningless
+		if (length == 0) length = 1;
+
+		double a = dy / length;
+		double b = -dx / length;
+
+		if (a < 0 || (a == 0 && b < 0)) {
+			a = -a;
+			b = -b;
+		}
+
+		// Avoid -0.0 as a coefficient
+		_a = a + 0.0;
+		_b = b + 0.0;
+		_c = (_a * p1.getX() + _b * p1.getY()) + 0.0;
+
+		_keyA = snap(_a);
+		_keyB = snap(_b);
+		_keyC = snap(_c);
+	}
+
+	/**
+	 * A line from coefficients already in canonical form, e.g., as saved by a
+	 * snapshot of a figure; no normalization is applied.
+	 *
+	 * @param a -- getA() of the saved line
+	 * @param b -- getB() of the saved line
+	 * @param c -- getC() of the saved line
+	 */
+	public Line(double a, double b, double c)
+	{
+		_a = a;
+		_b = b;
+		_c = c;
+
+		_keyA = snap(_a);
+		_keyB = snap(_b);
+		_keyC = snap(_c);
+	}
+
+	private static long snap(double value)
+	{
+		return Math.round(value / MathUtilities.EPSILON);
+	}
+
+	/**
+	 * @param pt -- a point
+	 * @return true if the point lies on this (infinite) line
+	 */
+	public boolean contains(Point pt)
+	{
+		return MathUtilities.doubleEquals(_a * pt.getX() + _b * pt.getY(), _c);
+	}
+
+	public boolean isVertical() { return _keyB == 0; }
+	public boolean isHorizontal() { return _keyA == 0; }
+
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (this == obj) return true;
+
+		if (!(obj instanceof Line)) return false;
+		Line that = (Line)obj;
+
+		return _keyA == that._keyA && _keyB == that._keyB && _keyC == that._keyC;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return Long.hashCode(_keyA) * 961 + Long.hashCode(_keyB) * 31 + Long.hashCode(_keyC);
+	}
+
+	@Override
+	public String toString()
+	{
+		return _a + "x + " + _b + "y = " + _c;
+	}
+}
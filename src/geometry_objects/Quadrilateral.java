@@ -0,0 +1,89 @@
+package geometry_objects;
+
+import java.util.List;
+
+import geometry_objects.points.Point;
+
+/**
+ * A simple quadrilateral formed by four segments of a figure joined end to end
+ * (no two consecutive sides collinear, opposite sides not meeting).
+ */
+public class Quadrilateral extends GeometricObject
+{
+	// The vertices in cyclic order
+	protected final Point _point1;
+	protected final Point _point2;
+	protected final Point _point3;
+	protected final Point _point4;
+
+	// _side1 is (point1, point2), _side2 (point2, point3), _side3 (point3, point4), _side4 (point4, point1)
+	protected final Segment _side1;
+	protected final Segment _side2;
+	protected final Segment _side3;
+	protected final Segment _side4;
+
+	public Point getPoint1() { return _point1; }
+	public Point getPoint2() { return _point2; }
+	public Point getPoint3() { return _point3; }
+	public Point getPoint4() { return _point4; }
+
+	public List<Point> getPoints() { return List.of(_point1, _point2, _point3, _point4); }
+	public List<Segment> getSegments() { return List.of(_side1, _side2, _side3, _side4); }
+
+	public Quadrilateral(Point point1, Point point2, Point point3, Point point4,
+			             Segment side1, Segment side2, Segment side3, Segment side4)
+	{
+		_point1 = point1;
+		_point2 = point2;
+		_point3 = point3;
+		_point4 = point4;
+
+		_side1 = side1;
+		_side2 = side2;
+		_side3 = side3;
+		_side4 = side4;
+	}
+
+	public boolean has(Point pt) { return _point1.equals(pt) || _point2.equals(pt) || _point3.equals(pt) || _point4.equals(pt); }
+
+	/**
+	 * @return true if @p and @q are consecutive vertices (joined by a side)
+	 */
+	public boolean hasSide(Point p, Point q)
+	{
+		return isSide(_point1, _point2, p, q) || isSide(_point2, _point3, p, q) ||
+			   isSide(_point3, _point4, p, q) || isSide(_point4, _point1, p, q);
+	}
+
+	private static boolean isSide(Point a, Point b, Point p, Point q)
+	{
+		return (a.equals(p) && b.equals(q)) || (a.equals(q) && b.equals(p));
+	}
+
+	/**
+	 * Two quadrilaterals are equal if they have the same sides: the same vertices
+	 * in the same cyclic order (from any start, in either direction). Four points
+	 * may form more than one quadrilateral.
+	 */
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (!(obj instanceof Quadrilateral)) return false;
+		Quadrilateral that = (Quadrilateral)obj;
+
+		return this.hasSide(that._point1, that._point2) && this.hasSide(that._point2, that._point3) &&
+			   this.hasSide(that._point3, that._point4) && this.hasSide(that._point4, that._point1);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return _point1.hashCode() + _point2.hashCode() + _point3.hashCode() + _point4.hashCode();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Quadrilateral(" + _point1 + ", " + _point2 + ", " + _point3 + ", " + _point4 + ")";
+	}
+}
@@ -1,5 +1,7 @@
 package geometry_objects;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -11,28 +13,50 @@ import geometry_objects.points.Point;
 import utilities.math.MathUtilities;
 import utilities.math.analytic_geometry.GeometryUtilities;
 
-public class Segment extends GeometricObject
+/**
+ * A segment between two points. Segments (like points) are immutable and
+ * may be shared freely.
+ */
+public final class Segment extends GeometricObject
 {
-	protected Point _point1;
-	protected Point _point2;
+	protected final Point _point1;
+	protected final Point _point2;
 
-	protected double _length;
-	protected double _slope;
+	protected final double _length;
+
+	// The canonical (infinite) line containing this segment
+	protected final Line _line;
 
 	public Point getPoint1() { return _point1; }
 	public Point getPoint2() { return _point2; }
+	public Line getLine() { return _line; }
 	public double length() { return _length; }
 	public double slope()
 	{
-		try { return GeometryUtilities.slope(_point1, _point2); }
-		catch(ArithmeticException ae) { return Double.POSITIVE_INFINITY; }
+		if (isVertical()) return Double.POSITIVE_INFINITY;
+
+		return GeometryUtilities.slope(_point1, _point2);
 	}
 
-	public Segment(Segment in) { this(in._point1, in._point2); }
 	public Segment(Point p1, Point p2)
+	{
+		this(p1, p2, new Line(p1, p2));
+	}
+
+	/**
+	 * Construct a segment on a known line; used when a segment is split or
+	 * extended so that every piece shares the line of its original segment.
+	 *
+	 * @param p1 -- an endpoint
+	 * @param p2 -- an endpoint
+	 * @param line -- the line containing both endpoints
+	 */
+	public Segment(Point p1, Point p2, Line line)
 	{
 		_point1 = p1;
 		_point2 = p2;
+		_line = line;
+		_length = GeometryUtilities.distance(p1, p2);
 	}
 
 	/*
@@ -192,4 +216,24 @@ public class Segment extends GeometricObject
 
 		return pointsOn;
 	}
+
+	/**
+	 *   Example:
+	 *                             Q *
+	 *
+	 *                D-------C-------B------A     E
+	 *
+	 *  Given:
+	 *      Segment(A, D) and points {A, B, C, D, E, Q},
+	 *      this method will return the list [A, B, C, D]: ordered from point1 to point2.
+	 *
+	 *  Each point on the segment is projected to its parameter along the segment; the
+	 *  result is a single primitive sort (cheaper than the lexicographic TreeSet above).
+	 *
+	 * @return the distinct Points that lie on this segment, ordered from point1 to point2
+	 */
+	public List<Point> orderPointsOnSegment(Collection<Point> points)
+	{
+		return SegmentDelegate.orderPointsOnSegment(this, points);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package geometry_objects;
+
+import java.util.List;
+
+import geometry_objects.points.Point;
+
+/**
+ * A triangle formed by three segments of a figure that pairwise share a vertex
+ * (and are not collinear).
+ */
+public class Triangle extends GeometricObject
+{
+	protected final Point _point1;
+	protected final Point _point2;
+	protected final Point _point3;
+
+	// _side1 is opposite _point3, _side2 opposite _point1, _side3 opposite _point2
+	protected final Segment _side1;
+	protected final Segment _side2;
+	protected final Segment _side3;
+
+	public Point getPoint1() { return _point1; }
+	public Point getPoint2() { return _point2; }
+	public Point getPoint3() { return _point3; }
+
+	public List<Point> getPoints() { return List.of(_point1, _point2, _point3); }
+	public List<Segment> getSegments() { return List.of(_side1, _side2, _side3); }
+
+	/**
+	 * @param side1 -- the side (point1, point2)
+	 * @param side2 -- the side (point2, point3)
+	 * @param side3 -- the side (point3, point1)
+	 */
+	public Triangle(Point point1, Point point2, Point point3, Segment side1, Segment side2, Segment side3)
+	{
+		_point1 = point1;
+		_point2 = point2;
+		_point3 = point3;
+
+		_side1 = side1;
+		_side2 = side2;
+		_side3 = side3;
+	}
+
+	public boolean has(Point pt) { return _point1.equals(pt) || _point2.equals(pt) || _point3.equals(pt); }
+
+	/**
+	 * Two triangles are equal if they have the same vertices (in any order).
+	 */
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (!(obj instanceof Triangle)) return false;
+		Triangle that = (Triangle)obj;
+
+		return this.has(that._point1) && this.has(that._point2) && this.has(that._point3);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return _point1.hashCode() + _point2.hashCode() + _point3.hashCode();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Triangle(" + _point1 + ", " + _point2 + ", " + _point3 + ")";
+	}
+}
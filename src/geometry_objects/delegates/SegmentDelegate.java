@@ -1,7 +1,12 @@
 package geometry_objects.delegates;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import geometry_objects.points.Point;
 import geometry_objects.Segment;
+import utilities.ArrayUtilities;
 import utilities.math.analytic_geometry.GeometryUtilities;
 
 /*
@@ -74,4 +79,49 @@ public class SegmentDelegate extends FigureDelegate
 
 		return GeometryUtilities.between(pt, segment.getPoint1(), segment.getPoint2());
 	}
+
+	/*
+	 * Order the points on a segment by their parameter t along it:
+	 *     pt = point1 + t * (point2 - point1),   0 <= t <= 1
+	 *
+	 * One primitive sort of (t, index) pairs; no tree and no Point comparisons.
+	 *
+	 * @param segment -- a segment
+	 * @param points -- candidate points (not necessarily on the segment)
+	 * @return the distinct points on the segment (endpoints included) ordered from point1 to point2
+	 */
+	public static List<Point> orderPointsOnSegment(Segment segment, Collection<Point> points)
+	{
+		double x1 = segment.getPoint1().getX();
+		double y1 = segment.getPoint1().getY();
+		double dx = segment.getPoint2().getX() - x1;
+		double dy = segment.getPoint2().getY() - y1;
+		double lengthSquared = dx * dx + dy * dy;
+
+		double[] t = new double[points.size()];
+		int[] order = new int[points.size()];
+		Point[] on = new Point[points.size()];
+		int n = 0;
+
+		for (Point pt : points) {
+			if (!pointLiesOnSegment(segment, pt)) continue;
+
+			t[n] = lengthSquared == 0 ? 0 : ((pt.getX() - x1) * dx + (pt.getY() - y1) * dy) / lengthSquared;
+			order[n] = n;
+			on[n] = pt;
+			n++;
+		}
+
+		ArrayUtilities.sortByKey(t, order, n);
+
+		// Equal points are adjacent once sorted
+		List<Point> ordered = new ArrayList<Point>(n);
+		for (int i = 0; i < n; i++) {
+			Point pt = on[order[i]];
+
+			if (ordered.isEmpty() || !ordered.get(ordered.size() - 1).equals(pt)) ordered.add(pt);
+		}
+
+		return ordered;
+	}
 }
@@ -7,10 +7,18 @@ import utilities.math.MathUtilities;
  * 
  * Points are ordered lexicographically (thus implementing the Comparable interface)
  * 
+ * Coordinates are stored as fixed-point longs at EPSILON resolution
+ * (see MathUtilities.toFixedPoint); equality, hashing and ordering are exact
+ * integer operations on those values.
+ *
+ * Points are immutable, so they may be shared across threads and figures.
+ * A point's name never changes: PointNamingFactory renames a location by
+ * storing a new point in place of the old one.
+ * 
  * @author	Jack
  * @date	3/19/24
  */
-public class Point implements Comparable<Point>
+public final class Point implements Comparable<Point>
 {
 	public static final String ANONYMOUS = "__UNNAMED";
 
@@ -20,18 +28,25 @@ public class Point implements Comparable<Point>
 		ORIGIN = new Point("origin", 0, 0);
 	}
 
-	protected double _x;
+	protected final double _x;
 	public double getX() { return this._x; }
 
-	protected double _y; 
+	protected final double _y;
 	public double getY() { return this._y; }
 
-	protected String _name; 
+	// The coordinates in fixed-point units: the identity of the point
+	protected final long _fixedX;
+	public long getFixedX() { return this._fixedX; }
+
+	protected final long _fixedY;
+	public long getFixedY() { return this._fixedY; }
+
+	protected final String _name;
 	public String getName() { return _name; }
 
 	// BasicPoint objects are named points (from input)
 	// ImpliedPoint objects are unnamed points (from input)
-	public boolean isGenerated() { return _name.substring(0, 2).equals("*_"); }
+	public boolean isGenerated() { return _name.startsWith("*_"); }
 
 	/**
 	 * Create a new Point with the specified coordinates.
@@ -52,8 +67,10 @@ public class Point implements Comparable<Point>
 	public Point(String name, double x, double y)
 	{
 		_name = (name == null || name == "") ? ANONYMOUS : name;
-		_x = MathUtilities.removeLessEpsilon(x);
-		_y = MathUtilities.removeLessEpsilon(y);
+		_fixedX = MathUtilities.toFixedPoint(x);
+		_fixedY = MathUtilities.toFixedPoint(y);
+		_x = MathUtilities.fromFixedPoint(_fixedX);
+		_y = MathUtilities.fromFixedPoint(_fixedY);
 	}
 
 	/**
@@ -67,8 +84,10 @@ public class Point implements Comparable<Point>
 	@Override
 	public int hashCode()
 	{
-		return Double.valueOf(MathUtilities.removeLessEpsilon(_x)).hashCode() +
-			   Double.valueOf(MathUtilities.removeLessEpsilon(_y)).hashCode();
+		// Fixed-point coordinates of 'round' values share many low zero bits
+		// (integer coordinates are multiples of the scale); multiplying and
+		// folding the high half in spreads them over the table.
+		return Long.hashCode((31 * _fixedX + _fixedY) * 0x9E3779B97F4A7C15L);
 	}
 
 	/**
@@ -88,13 +107,10 @@ public class Point implements Comparable<Point>
 			return 1;
 		}
 		
-		if (MathUtilities.doubleLessThan(p1._x, p2._x)) return -1;
-		if (MathUtilities.doubleGreaterThan(p1._x, p2._x)) return 1;
-
-		if (MathUtilities.doubleLessThan(p1._y, p2._y)) return -1;
-		if (MathUtilities.doubleGreaterThan(p1._y, p2._y)) return 1;
+		int compareX = Long.compare(p1._fixedX, p2._fixedX);
+		if (compareX != 0) return compareX;
 
-		return 0;
+		return Long.compare(p1._fixedY, p2._fixedY);
 	}
 
 	@Override
@@ -122,7 +138,7 @@ public class Point implements Comparable<Point>
 		
 		Point that = (Point) obj;
 
-		return MathUtilities.doubleEquals(_x, that.getX()) && MathUtilities.doubleEquals(_y, that.getY());
+		return _fixedX == that._fixedX && _fixedY == that._fixedY;
 	}
 
 	@Override
@@ -139,13 +155,13 @@ public class Point implements Comparable<Point>
 		}
 		
 		// removes ".0" from integers stored as doubles for x-value
-		if (_x == (int) _x) {
-			outX = (int) _x + "";
+		if (_fixedX % (long) MathUtilities.FIXED_POINT_SCALE == 0) {
+			outX = _fixedX / (long) MathUtilities.FIXED_POINT_SCALE + "";
 		}
 		
 		// removes ".0" from integers stored as doubles for y-value
-		if (_y == (int) _y) {
-			outY = (int) _y + "";
+		if (_fixedY % (long) MathUtilities.FIXED_POINT_SCALE == 0) {
+			outY = _fixedY / (long) MathUtilities.FIXED_POINT_SCALE + "";
 		}
 		// ----------------------------------------------------------------
 		
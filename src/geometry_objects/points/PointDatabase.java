@@ -3,6 +3,8 @@ package geometry_objects.points;
 import java.util.List;
 import java.util.Set;
 
+import geometry_objects.GeometryPool;
+
 /**
  * This class represents a bi-directional database of points.
  * 
@@ -31,11 +33,22 @@ public class PointDatabase
         _factory = new PointNamingFactory();
 	}
 
+	/**
+	 * Bulk load (see PointNamingFactory.putAll()).
+	 */
 	public PointDatabase(List<Point> points)
 	{
         _factory = new PointNamingFactory(points);
 	}
 
+	/**
+	 * Bulk load, sharing the stored points with other figures through pool.
+	 */
+	public PointDatabase(List<Point> points, GeometryPool pool)
+	{
+        _factory = new PointNamingFactory(points, pool);
+	}
+
 	public int size() { return _factory.size(); }
 	
 	/**
@@ -70,13 +83,7 @@ public class PointDatabase
 	 */
 	public Point getPoint(String name)
 	{
-        Set<Point> allPoints = _factory.getAllPoints();
-
-		for (Point point : allPoints) {
-			if (point._name.equals(name)) return point;
-		}
-
-		return null;
+        return _factory.get(name);
 	}
 
 	/**
@@ -1,10 +1,16 @@
 package geometry_objects.points;
 
-import java.util.LinkedHashMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
+import geometry_objects.GeometryPool;
+
 /**
  * Given a pair of coordinates; generate a unique name for it;
  * return that point object.
@@ -35,27 +41,86 @@ public class PointNamingFactory
 	//
 	// A hashed container for the database of points; this requires the Point
 	// class implement equals based solely on the individual coordinates and
-	// not a name. We need a get() method; HashSet doesn't offer one.
-	// Each entry is a <Key, Value> pair where Key == Value
+	// not a name.
+	//
+	// The points are kept in database (insertion) order in _points; a point
+	// that is renamed is re-inserted at the end, leaving a null behind.
+	// _table is an open-addressing (linear probing) index on the coordinates:
+	// each entry is a position in _points + 1; 0 is empty. The table is kept
+	// at least twice the size of _points so it never fills.
+	//
+	protected Point[] _points;
+	protected int _end;
+	protected int _size;
+	protected int[] _table;
+
+	//
+	// name --> the first point (in database order) with that name; built on
+	// the first lookup by name, then maintained by put(); null when it must
+	// be rebuilt (see get(String)). Volatile and published only once filled,
+	// so lookups may run concurrently (puts are not thread-safe).
 	//
-	protected Map<Point, Point> _database;
+	protected volatile Map<String, Point> _nameIndex;
+
+	// Stored points are interned here when set; null keeps them local to this factory
+	protected GeometryPool _pool;
 
 	public PointNamingFactory()
 	{
-		_database = new LinkedHashMap<>();
+		clear();
 	}
 
 	/**
-	 * Initialize the database with points; must call put() to ensure all points are named
+	 * @param pool -- stored points are shared through this pool (null for none)
+	 */
+	public PointNamingFactory(GeometryPool pool)
+	{
+		this();
+
+		_pool = pool;
+	}
+
+	/**
+	 * Initialize the database with points; all points are named as if put()
+	 * were called on each in turn (see putAll()).
 	 *
 	 * @param points -- a list of points, named or not named
 	 */
 	public PointNamingFactory(List<Point> points)
 	{
-		_database = new LinkedHashMap<>();
+		this(points, null);
+	}
+
+	/**
+	 * @param points -- a list of points, named or not named
+	 * @param pool -- stored points are shared through this pool (null for none)
+	 */
+	public PointNamingFactory(List<Point> points, GeometryPool pool)
+	{
+		this(pool);
+
+		putAll(points);
+	}
+
+	/**
+	 * Bulk add: the result is identical to calling put() on each point in
+	 * turn (same names, generated names included, and same database order).
+	 * The stores are presized once for all the points, named points are
+	 * stored as given (points are immutable) and the name index is
+	 * rebuilt (in one pass) on the next lookup by name rather than
+	 * maintained point by point.
+	 *
+	 * @param points -- a collection of points, named or not named
+	 */
+	public void putAll(Collection<Point> points)
+	{
+		_nameIndex = null;
+
+		if (_end + points.size() > _points.length) rebuild(_size + points.size());
 
-		for (Point point : points) {
-			put(point);
+		for (Point pt : points) {
+			if (pt._name == Point.ANONYMOUS) insert(getCurrentName(), pt, false);
+			else insert(pt.getName(), pt, true);
 		}
 	}
 
@@ -74,7 +139,8 @@ public class PointNamingFactory
 			return put(getCurrentName(), pt.getX(), pt.getY());
 		}
 
-		return put(pt.getName(), pt.getX(), pt.getY());
+		// points are immutable: a named point is shared, not copied
+		return insert(pt.getName(), pt, true);
 	}
 
 	/**
@@ -112,26 +178,100 @@ public class PointNamingFactory
 	 */
 	public Point put(String name, double x, double y)
 	{
-		Point pt = new Point(name, x, y);
-		
+		return insert(name, new Point(name, x, y), true);
+	}
+
+	/**
+	 * @param name -- the name of the point
+	 * @param location -- the coordinates of the point
+	 * @param owned -- if location (named name) may be stored as is; otherwise a named copy is stored
+	 * @return the database point at location
+	 */
+	private Point insert(String name, Point location, boolean owned)
+	{
+		int i = find(location);
+
 		// completely new point is added
-		if (!contains(pt)) {
-			_database.put(pt, pt);
+		if (_table[i] == 0) {
+			Point pt = intern(owned ? location : new Point(name, location.getX(), location.getY()));
+
+			if (_end == _points.length) {
+				rebuild(_size + 1);
+				i = find(pt);
+			}
+
+			append(pt, i);
+			_size++;
+			Map<String, Point> index = _nameIndex;
+			if (index != null) index.putIfAbsent(pt._name, pt);
+
 			return pt;
 		}
 
-		pt = _database.get(pt);
+		Point pt = _points[_table[i] - 1];
+
+		// valid name overwrites unnamed name: the (immutable) point is replaced
+		// by a renamed one, which moves to the end of the order
+		if (pt._name.startsWith(_PREFIX)) {
+			// a first-by-name entry may change
+			Map<String, Point> index = _nameIndex;
+			if (index != null && index.get(pt._name) == pt) _nameIndex = index = null;
+
+			_points[_table[i] - 1] = null;
+			pt = intern(owned ? location : new Point(name, pt.getX(), pt.getY()));
 
-		// valid name overwrites unnamed name
-		if (pt._name.substring(0, 2).equals(_PREFIX)) {
-			_database.remove(pt);
+			if (_end == _points.length) {
+				rebuild(_size);
+				i = find(pt);
+			}
 
-			pt._name = name;
-			_database.put(pt, pt);
+			append(pt, i);
+			if (index != null) index.putIfAbsent(pt._name, pt);
 		}
 
-		return _database.get(pt);
-	}    
+		return pt;
+	}
+
+	private Point intern(Point pt) { return _pool == null ? pt : _pool.intern(pt); }
+
+	private void append(Point pt, int tableIndex)
+	{
+		_points[_end] = pt;
+		_table[tableIndex] = ++_end;
+	}
+
+	/**
+	 * @return the table index holding pt, or the empty index where it belongs
+	 */
+	private int find(Point pt)
+	{
+		int mask = _table.length - 1;
+		int h = pt.hashCode();
+
+		for (int i = (h ^ (h >>> 16)) & mask; ; i = (i + 1) & mask) {
+			if (_table[i] == 0 || _points[_table[i] - 1].equals(pt)) return i;
+		}
+	}
+
+	/**
+	 * Compact the points (dropping the nulls left by renames) into room for
+	 * at least capacity points and re-index them.
+	 */
+	private void rebuild(int capacity)
+	{
+		Point[] points = new Point[Math.max(capacity, Math.max(8, 2 * _size))];
+
+		int end = 0;
+		for (int i = 0; i < _end; i++) {
+			if (_points[i] != null) points[end++] = _points[i];
+		}
+
+		_points = points;
+		_end = 0;
+		_table = new int[Integer.highestOneBit(2 * points.length - 1) << 1];
+
+		for (int i = 0; i < end; i++) append(points[i], find(points[i]));
+	}
 
 	/**
 	 * Strict access (read-only of the database)
@@ -146,13 +286,29 @@ public class PointNamingFactory
 	}	
 	public Point get(Point pt)
 	{
-		Set<Point> points = _database.keySet();
+		// Point equality and hashing agree (exact fixed-point coordinates): a hashed lookup suffices
+		int i = find(pt);
+
+		return _table[i] == 0 ? null : _points[_table[i] - 1];
+	}
+
+	/**
+	 * @param name -- a point name
+	 * @return the first point (in database order) with that name; null if there is none
+	 */
+	public Point get(String name)
+	{
+		Map<String, Point> index = _nameIndex;
+
+		// concurrent first lookups may each build an index; any one of them is complete
+		if (index == null) {
+			index = new HashMap<>((int) (_size / 0.75f) + 1);
+			for (Point pt : getAllPoints()) index.putIfAbsent(pt._name, pt);
 
-		for (Point point : points) {
-			if (point.equals(pt)) return point;
+			_nameIndex = index;
 		}
 
-		return null;
+		return index.get(name);
 	}
 
 	/**
@@ -161,7 +317,7 @@ public class PointNamingFactory
 	 * @return simple containment; no updating
 	 */
 	public boolean contains(double x, double y) { return contains(new Point(x, y)); }
-	public boolean contains(Point p) { return _database.containsKey(p); }
+	public boolean contains(Point p) { return _table[find(p)] != 0; }
 
 	/**
 	 * Constructs the next (complete with prefix) generated name.
@@ -207,11 +363,53 @@ public class PointNamingFactory
 	 */
 	public Set<Point> getAllPoints()
 	{
-        return _database.keySet();
+		return new AbstractSet<Point>()
+		{
+			@Override
+			public Iterator<Point> iterator()
+			{
+				return new Iterator<Point>()
+				{
+					private int _next = advance(0);
+
+					private int advance(int i)
+					{
+						while (i < _end && _points[i] == null) i++;
+						return i;
+					}
+
+					@Override
+					public boolean hasNext() { return _next < _end; }
+
+					@Override
+					public Point next()
+					{
+						if (!hasNext()) throw new NoSuchElementException();
+
+						Point pt = _points[_next];
+						_next = advance(_next + 1);
+						return pt;
+					}
+				};
+			}
+
+			@Override
+			public boolean contains(Object o) { return o instanceof Point && PointNamingFactory.this.contains((Point) o); }
+
+			@Override
+			public int size() { return _size; }
+		};
 	}
 
-	public void clear() { _database.clear(); }
-	public int size() { return _database.size(); }
+	public void clear()
+	{
+		_points = new Point[8];
+		_end = 0;
+		_size = 0;
+		_table = new int[16];
+		_nameIndex = null;
+	}
+	public int size() { return _size; }
 
 	@Override
 	public String toString()
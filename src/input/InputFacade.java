@@ -6,15 +6,20 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
+import geometry_objects.GeometryPool;
 import geometry_objects.Segment;
 import input.builder.GeometryBuilder;
 import input.components.FigureNode;
 import input.components.point.PointNode;
 import input.components.segment.SegmentNode;
 import input.parser.JSONParser;
+import input.visitor.ToJSONVisitor;
+import input.visitor.UnparseVisitor;
+import utilities.io.FileUtilities;
 
 /**
  * InputFacade implements the Facade design pattern. Purpose is to simplify interface to
@@ -32,18 +37,78 @@ public class InputFacade
 	 *     Acquries an input file string.
 	 *     Parses the file.
      *
-	 * @param filepath -- the path/name defining the input file
+	 * @param filepath -- the path/name defining the input file (gzip-compressed if it ends in .gz)
 	 * @return a FigureNode object corresponding to the input file.
 	 */
 	public static FigureNode extractFigure(String filepath)
+	{
+		String figureStr = FileUtilities.readFileFilterComments(filepath);
+
+		return parseFigure(figureStr);
+	}
+
+	/**
+	 * As extractFigure(String), parsing large Points / Segments arrays in
+	 * parallel chunks on the given executor.
+	 */
+	public static FigureNode extractFigure(String filepath, ExecutorService executor)
+	{
+		String figureStr = FileUtilities.readFileFilterComments(filepath);
+
+		return parseFigure(figureStr, executor);
+	}
+
+	/**
+	 * Parse a figure already held in memory (e.g., received over a socket).
+	 *
+	 * @param figureStr -- the JSON text of a figure
+	 * @return a FigureNode object corresponding to the text
+	 */
+	public static FigureNode parseFigure(String figureStr)
 	{
         JSONParser parser = new JSONParser(new GeometryBuilder());
 
-		String figureStr = utilities.io.FileUtilities.readFileFilterComments(filepath);
+		return (FigureNode) parser.parse(figureStr);
+	}
+
+	/**
+	 * As parseFigure(String), parsing large Points / Segments arrays in
+	 * parallel chunks on the given executor (not shut down here).
+	 */
+	public static FigureNode parseFigure(String figureStr, ExecutorService executor)
+	{
+		JSONParser parser = new JSONParser(new GeometryBuilder(), executor);
 
 		return (FigureNode) parser.parse(figureStr);
 	}
 	
+	/**
+	 * Write a figure as JSON (ToJSONVisitor).
+	 *
+	 * @param fig -- a populated FigureNode
+	 * @param filepath -- the output file; gzip-compressed if it ends in .gz
+	 * @return true if the file was written
+	 */
+	public static boolean exportFigure(FigureNode fig, String filepath)
+	{
+		return FileUtilities.writeFile(filepath, new ToJSONVisitor().visitFigureNode(fig, null).toString());
+	}
+
+	/**
+	 * Write a figure in its unparsed, human-readable form (UnparseVisitor).
+	 *
+	 * @param fig -- a populated FigureNode
+	 * @param filepath -- the output file; gzip-compressed if it ends in .gz
+	 * @return true if the file was written
+	 */
+	public static boolean unparseFigure(FigureNode fig, String filepath)
+	{
+		StringBuilder sb = new StringBuilder();
+		new UnparseVisitor().visitFigureNode(fig, new AbstractMap.SimpleEntry<StringBuilder, Integer>(sb, 0));
+
+		return FileUtilities.writeFile(filepath, sb.toString());
+	}
+
 	/**
 	 * 1) Convert the PointNode and SegmentNode objects to a Point and Segment objects 
 	 *    (those classes have more meaningful, geometric functionality).
@@ -54,7 +119,20 @@ public class InputFacade
 	 */
 	public static Map.Entry<PointDatabase, Set<Segment>> toGeometryRepresentation(FigureNode fig)
 	{
-		return new AbstractMap.SimpleEntry<>(figToPointDatabase(fig), figToSegmentSet(fig));
+		return toGeometryRepresentation(fig, null);
+	}
+
+	/**
+	 * As toGeometryRepresentation(FigureNode), with the points and segments
+	 * interned in pool: figures built on the same coordinates share objects.
+	 *
+	 * @param fig -- a populated FigureNode object corresponding to a geometry figure
+	 * @param pool -- the pool to intern in; null for none
+	 * @return a point database and a set of segments
+	 */
+	public static Map.Entry<PointDatabase, Set<Segment>> toGeometryRepresentation(FigureNode fig, GeometryPool pool)
+	{
+		return new AbstractMap.SimpleEntry<>(figToPointDatabase(fig, pool), figToSegmentSet(fig, pool));
 	}
 
 	/**
@@ -64,7 +142,7 @@ public class InputFacade
 	 * @param fig	a populated FigureNode object corresponding to a geometry figure
 	 * @return		the PointDatabase
 	 */
-	private static PointDatabase figToPointDatabase(FigureNode fig) {
+	private static PointDatabase figToPointDatabase(FigureNode fig, GeometryPool pool) {
 		Set<PointNode> pns = fig.getPointsDatabase().getPoints();
 		List<Point> ps = new ArrayList<>();
 
@@ -72,7 +150,7 @@ public class InputFacade
 			ps.add(new Point(pn.getName(), pn.getX(), pn.getY()));
 		}
 
-		return new PointDatabase(ps);
+		return new PointDatabase(ps, pool);
 	}
 
 	/**
@@ -81,7 +159,7 @@ public class InputFacade
 	 * @param fig	a populated FigureNode object corresponding to a geometry figure
 	 * @return		the SegmentDatabase
 	 */
-	private static Set<Segment> figToSegmentSet(FigureNode fig) {
+	private static Set<Segment> figToSegmentSet(FigureNode fig, GeometryPool pool) {
 		List<SegmentNode> sns = fig.getSegments().asSegmentList();
 		Set<Segment> out = new LinkedHashSet<>();
 
@@ -92,7 +170,8 @@ public class InputFacade
 			Point p0 = new Point(pn0.getName(), pn0.getX(), pn0.getY());
 			Point p1 = new Point(pn1.getName(), pn1.getX(), pn1.getY());
 
-			out.add(new Segment(p0, p1));
+			Segment segment = new Segment(p0, p1);
+			out.add(pool == null ? segment : pool.intern(segment));
 		}
 
 		return out;
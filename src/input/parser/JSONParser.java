@@ -7,8 +7,15 @@
 
 package input.parser;
 
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -23,8 +30,14 @@ import input.components.segment.SegmentNodeDatabase;
 import input.exception.ParseException;
 
 public class JSONParser {
+	/**
+	 * In parallel mode, the smallest chunk of an array handed to one task
+	 */
+	public static final int MIN_CHUNK_CHARS = 1 << 16;
+
 	protected ComponentNode _astRoot;
 	private DefaultBuilder builder;
+	private ExecutorService executor;
 
 	/**
 	 * Default constructor, will not build
@@ -37,8 +50,21 @@ public class JSONParser {
 	 * Updated constructor with builder
 	 */
 	public JSONParser(DefaultBuilder builder) {
+		this(builder, null);
+	}
+
+	/**
+	 * Parallel constructor: the Points and Segments arrays are split into
+	 * chunks at element boundaries and the chunks are parsed on the executor.
+	 * The result is identical to a sequential parse. The executor is not
+	 * shut down by the parser.
+	 *
+	 * @param executor null to parse sequentially
+	 */
+	public JSONParser(DefaultBuilder builder, ExecutorService executor) {
 		_astRoot = null;
 		this.builder = builder;
+		this.executor = executor;
 	}
 
 	/**
@@ -56,6 +82,8 @@ public class JSONParser {
 	 * @throws ParseException if JSONException is thrown
 	 */
 	public ComponentNode parse(String str) throws ParseException {
+		if (executor != null) return parseParallel(str);
+
 		// Parsing is accomplished via the JSONTokenizer class.
 		try {
 			JSONTokener tokenizer = new JSONTokener(str);
@@ -141,4 +169,127 @@ public class JSONParser {
 
 		return segmentDatabase;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * creates a FigureNode, parsing the chunks of the Points and Segments
+	 * arrays concurrently and merging them in document order
+	 * 
+	 * @param str (JSON file)
+	 * @return FigureNode
+	 * @throws ParseException if JSONException is thrown
+	 */
+	private ComponentNode parseParallel(String str) throws ParseException {
+		int chunkChars = Math.max(MIN_CHUNK_CHARS, str.length() / (4 * Runtime.getRuntime().availableProcessors()));
+		JSONSections sections = new JSONSections(str, List.of("Points", "Segments"), chunkChars);
+
+		JSONSections.Section pointSection = sections.get("Points");
+		JSONSections.Section segmentSection = sections.get("Segments");
+
+		// anything unusual is left to the sequential parser (and its errors)
+		if (pointSection == null || segmentSection == null) {
+			return new JSONParser(builder).parse(str);
+		}
+
+		try {
+			List<Future<List<PointNode>>> pointChunks = new ArrayList<>();
+			for (int k = 0; k < pointSection.chunkCount(); k++) {
+				String chunk = pointSection.chunk(str, k);
+				pointChunks.add(executor.submit(() -> parsePoints(toArray(chunk))));
+			}
+
+			List<Future<List<Map.Entry<String, List<String>>>>> segmentChunks = new ArrayList<>();
+			for (int k = 0; k < segmentSection.chunkCount(); k++) {
+				String chunk = segmentSection.chunk(str, k);
+				segmentChunks.add(executor.submit(() -> parseAdjacencies(toArray(chunk))));
+			}
+
+			// the remainder of the figure (Description) with empty arrays
+			JSONObject jsonFigure = (JSONObject) ((JSONObject) new JSONTokener(sections.skeleton()).nextValue()).get("Figure");
+			String description = getDescription(jsonFigure);
+
+			ArrayList<PointNode> points = new ArrayList<>();
+			for (Future<List<PointNode>> chunk : pointChunks) points.addAll(chunk.get());
+
+			PointNodeDatabase pointsDatabase = builder.buildPointDatabaseNode(points);
+
+			SegmentNodeDatabase segmentsDatabase = builder.buildSegmentNodeDatabase();
+			Map<String, PointNode> byName = indexByName(pointsDatabase);
+			for (Future<List<Map.Entry<String, List<String>>>> chunk : segmentChunks) {
+				for (Map.Entry<String, List<String>> adjacency : chunk.get()) {
+					PointNode fromPN = byName.get(adjacency.getKey());
+
+					for (String to : adjacency.getValue()) {
+						builder.addSegmentToDatabase(segmentsDatabase, fromPN, byName.get(to));
+					}
+				}
+			}
+
+			return builder.buildFigureNode(description, pointsDatabase, segmentsDatabase);
+		} catch (JSONException | ClassCastException e) {
+			error("");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof JSONException || e.getCause() instanceof ClassCastException) error("");
+
+			throw new ParseException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ParseException("Parse interrupted", e);
+		}
+
+		return null; // if an exception is thrown
+	}
+
+	private static JSONArray toArray(String elements) {
+		return (JSONArray) new JSONTokener("[" + elements + "]").nextValue();
+	}
+
+	/**
+	 * builds the point nodes of one chunk of the Points array
+	 */
+	private List<PointNode> parsePoints(JSONArray jsonPoints) {
+		List<PointNode> points = new ArrayList<>(jsonPoints.length());
+
+		for (int i = 0; i < jsonPoints.length(); i++) {
+			JSONObject point = jsonPoints.getJSONObject(i);
+
+			points.add(builder.buildPointNode(point.getString("name"), point.getDouble("x"), point.getDouble("y")));
+		}
+
+		return points;
+	}
+
+	/**
+	 * reads one chunk of the Segments array as (point name, adjacent names);
+	 * names are resolved once all the points are known
+	 */
+	private static List<Map.Entry<String, List<String>>> parseAdjacencies(JSONArray jsonSegments) {
+		List<Map.Entry<String, List<String>>> adjacencies = new ArrayList<>(jsonSegments.length());
+
+		for (int i = 0; i < jsonSegments.length(); i++) {
+			JSONObject curr = jsonSegments.getJSONObject(i);
+
+			String keyName = curr.keySet().iterator().next();
+			JSONArray adjList = curr.getJSONArray(keyName);
+
+			List<String> names = new ArrayList<>(adjList.length());
+			for (int i2 = 0; i2 < adjList.length(); i2++) names.add(adjList.getString(i2));
+
+			adjacencies.add(new AbstractMap.SimpleEntry<>(keyName, names));
+		}
+
+		return adjacencies;
+	}
+
+	/**
+	 * @return name --> point; the first point with a name wins, as in
+	 *         PointNodeDatabase.getPoint(String)
+	 */
+	private static Map<String, PointNode> indexByName(PointNodeDatabase pointNodeDatabase) {
+		Map<String, PointNode> byName = new HashMap<>();
+		if (pointNodeDatabase == null) return byName;
+
+		for (PointNode pn : pointNodeDatabase.getPoints()) byName.putIfAbsent(pn.getName(), pn);
+
+		return byName;
+	}
+}
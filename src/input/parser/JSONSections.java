@@ -0,0 +1,154 @@
+/**
+ * Locates the Points and Segments arrays of a figure's JSON text and
+ * splits them, at element boundaries, into chunks that can be parsed
+ * independently.
+ *
+ * The text is scanned once, character by character; only strings,
+ * brackets and commas are recognized, which is much cheaper than
+ * tokenizing the values themselves.
+ */
+
+package input.parser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class JSONSections {
+	/**
+	 * One array section: [open, close] are the indices of its brackets and
+	 * cuts are the indices of the commas separating its chunks.
+	 */
+	static class Section {
+		protected final int _open;
+		protected int _close = -1;
+		protected final List<Integer> _cuts = new ArrayList<>();
+
+		Section(int open) {
+			_open = open;
+		}
+
+		int getOpen() { return _open; }
+		int getClose() { return _close; }
+
+		int chunkCount() { return _cuts.size() + 1; }
+
+		/**
+		 * @return the elements of the k-th chunk (without brackets)
+		 */
+		String chunk(String text, int k) {
+			int from = k == 0 ? _open : _cuts.get(k - 1);
+			int to = k == _cuts.size() ? _close : _cuts.get(k);
+
+			return text.substring(from + 1, to);
+		}
+	}
+
+	protected final String _text;
+	protected final Map<String, Section> _sections = new HashMap<>();
+
+	/**
+	 * @param text the JSON text of a figure
+	 * @param keys the keys of the Figure object whose arrays are split
+	 * @param chunkChars the approximate number of characters per chunk
+	 */
+	JSONSections(String text, List<String> keys, int chunkChars) {
+		_text = text;
+		scan(keys, chunkChars);
+	}
+
+	/**
+	 * @return the section for key; null if the Figure has no such array
+	 */
+	Section get(String key) {
+		return _sections.get(key);
+	}
+
+	/**
+	 * @return the text with the contents of every section removed ("[]")
+	 */
+	String skeleton() {
+		List<Section> ordered = new ArrayList<>(_sections.values());
+		ordered.sort((s1, s2) -> Integer.compare(s1._open, s2._open));
+
+		StringBuilder sb = new StringBuilder();
+		int from = 0;
+		for (Section s : ordered) {
+			sb.append(_text, from, s._open + 1);
+			from = s._close;
+		}
+		sb.append(_text, from, _text.length());
+
+		return sb.toString();
+	}
+
+	private void scan(List<String> keys, int chunkChars) {
+		int depth = 0;
+		String figureKey = null; // the most recent key of the root object
+		String key = null;       // the most recent key of the Figure object
+		Section current = null;
+		int lastCut = 0;
+
+		for (int i = 0; i < _text.length(); i++) {
+			char c = _text.charAt(i);
+
+			switch (c) {
+			case '"':
+				int end = endOfString(i);
+				if (depth == 1) figureKey = _text.substring(i + 1, end);
+				if (depth == 2 && "Figure".equals(figureKey)) key = _text.substring(i + 1, end);
+				i = end;
+				break;
+
+			case '{':
+			case '[':
+				depth++;
+				if (c == '[' && depth == 3 && key != null && keys.contains(key) && !_sections.containsKey(key)) {
+					current = new Section(i);
+					_sections.put(key, current);
+					lastCut = i;
+				}
+				break;
+
+			case '}':
+			case ']':
+				if (current != null && depth == 3) {
+					current._close = i;
+					current = null;
+				}
+				depth--;
+				break;
+
+			case ',':
+				if (depth == 2) key = null;
+				if (current != null && depth == 3 && i - lastCut >= chunkChars) {
+					current._cuts.add(i);
+					lastCut = i;
+				}
+				break;
+
+			default:
+				break;
+			}
+		}
+
+		// an unterminated section is left for the sequential parser to report
+		_sections.values().removeIf((s) -> s._close < 0);
+	}
+
+	/**
+	 * @param open the index of an opening quote
+	 * @return the index of the matching closing quote (or the end of the text)
+	 */
+	private int endOfString(int open) {
+		for (int i = open + 1; i < _text.length(); i++) {
+			char c = _text.charAt(i);
+
+			if (c == '\\') i++;
+			else if (c == '"') return i;
+		}
+
+		return _text.length();
+	}
+}
@@ -0,0 +1,61 @@
+package pipeline;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.PointDatabase;
+import input.components.FigureNode;
+import preprocessor.Preprocessor;
+
+/**
+ * One figure travelling through a FigurePipeline; each stage fills in its result.
+ *
+ * A failure at any stage is recorded (getError()) and the job passes through the
+ * remaining stages untouched, so one bad figure does not stop the pipeline.
+ */
+public class FigureJob
+{
+	protected final Path _path;
+	public Path getPath() { return _path; }
+
+	protected String _text;
+	public String getText() { return _text; }
+
+	protected FigureNode _figure;
+	public FigureNode getFigure() { return _figure; }
+
+	protected Map.Entry<PointDatabase, Set<Segment>> _geometry;
+	public Map.Entry<PointDatabase, Set<Segment>> getGeometry() { return _geometry; }
+
+	protected Preprocessor _preprocessor;
+	public Preprocessor getPreprocessor() { return _preprocessor; }
+
+	protected Object _output;
+	public Object getOutput() { return _output; }
+
+	protected Throwable _error;
+	public Throwable getError() { return _error; }
+	public boolean failed() { return _error != null; }
+
+	protected PipelineStage _failedStage;
+	public PipelineStage getFailedStage() { return _failedStage; }
+
+	public FigureJob(Path path)
+	{
+		_path = path;
+	}
+
+	protected void fail(PipelineStage stage, Throwable error)
+	{
+		_failedStage = stage;
+		_error = error;
+	}
+
+	@Override
+	public String toString()
+	{
+		return _path + (failed() ? " (failed at " + _failedStage + ": " + _error + ")" : "");
+	}
+}
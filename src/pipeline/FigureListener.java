@@ -0,0 +1,24 @@
+package pipeline;
+
+import java.nio.file.Path;
+
+/**
+ * Receives the results of a FigureWatcher.
+ */
+public interface FigureListener
+{
+	/**
+	 * A figure file was added or its geometry changed; it has been re-analyzed.
+	 */
+	void figureUpdated(FigureUpdate update);
+
+	/**
+	 * A figure file was deleted.
+	 */
+	default void figureRemoved(Path path) {}
+
+	/**
+	 * A figure file could not be read, parsed or analyzed; its previous state is kept.
+	 */
+	default void figureFailed(Path path, Throwable error) {}
+}
@@ -0,0 +1,168 @@
+package pipeline;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+
+import input.InputFacade;
+import preprocessor.Preprocessor;
+import utilities.io.FileUtilities;
+
+/**
+ * read --> parse --> convert --> preprocess --> export, as a chain of
+ * java.util.concurrent.Flow processors with bounded buffers between them.
+ *
+ * Figures stream through: while one figure is being preprocessed the next is
+ * being parsed and a third read, each stage with its own number of workers.
+ * Per-stage metrics (throughput, queue depth, busy time) are available after a run.
+ */
+public class FigurePipeline
+{
+	protected final PipelineOptions _options;
+	protected final Map<PipelineStage, StageMetrics> _metrics;
+
+	public FigurePipeline()
+	{
+		this(new PipelineOptions());
+	}
+
+	public FigurePipeline(PipelineOptions options)
+	{
+		_options = options;
+		_metrics = new EnumMap<PipelineStage, StageMetrics>(PipelineStage.class);
+	}
+
+	/**
+	 * @return metrics of each stage of the most recent run
+	 */
+	public Map<PipelineStage, StageMetrics> getMetrics() { return _metrics; }
+
+	/**
+	 * Run every file through the pipeline, blocking until all have been exported.
+	 *
+	 * @param files -- figure files
+	 * @param sink -- receives each finished job (in completion order; check FigureJob.failed())
+	 * @throws IllegalStateException if the pipeline fails or the calling thread is interrupted (its flag is restored)
+	 */
+	public void run(Collection<Path> files, Consumer<FigureJob> sink)
+	{
+		ExecutorService delivery = Executors.newCachedThreadPool((runnable) -> {
+			Thread thread = new Thread(runnable, "pipeline-delivery");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		// Closed explicitly once every file is submitted (that completes the stream), and on failure
+		SubmissionPublisher<FigureJob> source = new SubmissionPublisher<FigureJob>(delivery, _options.getBuffer());
+
+		try
+		{
+			List<StageProcessor> stages = new ArrayList<StageProcessor>();
+			for (PipelineStage stage : PipelineStage.values()) {
+				stages.add(new StageProcessor(stage, work(stage), _options.getParallelism(stage), _options.getBuffer(), delivery));
+			}
+
+			// source --> READ --> ... --> EXPORT --> sink
+			Flow.Publisher<FigureJob> upstream = source;
+			for (StageProcessor stage : stages) {
+				upstream.subscribe(stage);
+				upstream = stage;
+			}
+
+			CompletableFuture<Void> done = new CompletableFuture<Void>();
+			upstream.subscribe(new Flow.Subscriber<FigureJob>()
+			{
+				private Flow.Subscription _subscription;
+
+				@Override
+				public void onSubscribe(Flow.Subscription subscription)
+				{
+					_subscription = subscription;
+					subscription.request(_options.getBuffer());
+				}
+
+				@Override
+				public void onNext(FigureJob job)
+				{
+					sink.accept(job);
+					_subscription.request(1);
+				}
+
+				@Override
+				public void onError(Throwable throwable) { done.completeExceptionally(throwable); }
+
+				@Override
+				public void onComplete() { done.complete(null); }
+			});
+
+			_metrics.clear();
+			stages.forEach((stage) -> _metrics.put(stage._stage, stage.getMetrics()));
+
+			// Blocks while the READ stage's buffer is full
+			for (Path file : files) source.submit(new FigureJob(file));
+			source.close();
+
+			done.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Pipeline interrupted", e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IllegalStateException("Pipeline failed", e.getCause());
+		}
+		finally
+		{
+			source.close();
+			delivery.shutdown();
+		}
+	}
+
+	/**
+	 * Run every file through the pipeline and collect the finished jobs.
+	 */
+	public List<FigureJob> run(Collection<Path> files)
+	{
+		List<FigureJob> jobs = new ArrayList<FigureJob>();
+		run(files, (job) -> { synchronized (jobs) { jobs.add(job); } });
+
+		return jobs;
+	}
+
+	private Consumer<FigureJob> work(PipelineStage stage)
+	{
+		switch (stage)
+		{
+		case READ:
+			return (job) -> job._text = FileUtilities.readFileFilterComments(job.getPath().toString());
+
+		case PARSE:
+			return (job) -> job._figure = InputFacade.parseFigure(job.getText());
+
+		case CONVERT:
+			return (job) -> job._geometry = InputFacade.toGeometryRepresentation(job.getFigure());
+
+		case PREPROCESS:
+			return (job) -> job._preprocessor = new Preprocessor(job.getGeometry().getKey(), job.getGeometry().getValue(),
+					                                            _options.getPreprocessorOptions());
+
+		case EXPORT:
+			return (job) -> job._output = _options.getExporter().apply(job);
+
+		default:
+			throw new IllegalArgumentException("Unknown stage " + stage);
+		}
+	}
+}
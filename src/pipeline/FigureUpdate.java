@@ -0,0 +1,58 @@
+package pipeline;
+
+import java.nio.file.Path;
+
+import input.components.FigureNode;
+import preprocessor.Preprocessor;
+import preprocessor.diff.FigureDiff;
+
+/**
+ * The new state of a figure file after a FigureWatcher re-analyzed it.
+ */
+public class FigureUpdate
+{
+	protected final Path _path;
+	protected final FigureNode _figure;
+	protected final Preprocessor _preprocessor;
+	protected final String _hash;
+	protected final String _previousHash;
+	protected final FigureDiff _diff;
+	protected final long _nanos;
+
+	public FigureUpdate(Path path, FigureNode figure, Preprocessor preprocessor, String hash, String previousHash, FigureDiff diff, long nanos)
+	{
+		_path = path;
+		_figure = figure;
+		_preprocessor = preprocessor;
+		_hash = hash;
+		_previousHash = previousHash;
+		_diff = diff;
+		_nanos = nanos;
+	}
+
+	public Path getPath() { return _path; }
+	public FigureNode getFigure() { return _figure; }
+	public Preprocessor getPreprocessor() { return _preprocessor; }
+
+	/**
+	 * @return the content hash of the figure (see FigureHash)
+	 */
+	public String getHash() { return _hash; }
+
+	/**
+	 * @return the content hash before this update; null for a new figure
+	 */
+	public String getPreviousHash() { return _previousHash; }
+	public boolean isNew() { return _previousHash == null; }
+
+	/**
+	 * @return the change from the previous version (everything is added for a new figure);
+	 *         it describes the edit, the preprocessor is a full analysis of the new version
+	 */
+	public FigureDiff getDiff() { return _diff; }
+
+	/**
+	 * @return time from the (debounced) change to the analysis being available
+	 */
+	public long getNanos() { return _nanos; }
+}
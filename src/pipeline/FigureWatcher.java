@@ -0,0 +1,259 @@
+package pipeline;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import preprocessor.Preprocessor;
+import preprocessor.PreprocessorOptions;
+import preprocessor.cache.FigureHash;
+import preprocessor.cache.PreprocessorCache;
+import preprocessor.diff.FigureDiff;
+
+/**
+ * Watches a directory of figure files (.json, .json.gz) and re-analyzes a
+ * figure when its file changes.
+ *
+ *    * Events are debounced: a file is processed once it has been quiet for
+ *      the debounce interval (editors often write a file several times).
+ *    * Only the changed file is reprocessed. If its geometry is unchanged (same
+ *      FigureHash, e.g. a comment or a rename was edited) nothing is
+ *      re-analyzed and listeners are not notified.
+ *    * A changed figure is re-analyzed incrementally from its previous analysis
+ *      (see PreprocessorOptions.previous): only the lines whose minimal segments
+ *      the edit changed rebuild their non-minimal segments, i.e. the lines of
+ *      the diff's added and removed segments and of the segments they cross.
+ *    * Analyses go through a PreprocessorCache, so reverting an edit is a lookup.
+ *    * Each update carries a FigureDiff against the previous version of the file.
+ *    * If the OS drops events (OVERFLOW), every figure file is reprocessed.
+ */
+public class FigureWatcher implements AutoCloseable
+{
+	public static final long DEFAULT_DEBOUNCE_MILLIS = 200;
+
+	protected final Path _directory;
+	protected final PreprocessorCache _cache;
+	protected final long _debounceNanos;
+
+	protected final WatchService _watcher;
+	protected Thread _thread;
+
+	protected final List<FigureListener> _listeners = new CopyOnWriteArrayList<FigureListener>();
+
+	// Last known content hash of each file
+	protected final Map<Path, String> _hashes = new ConcurrentHashMap<Path, String>();
+
+	// absolute path --> last analysis, and its explicit points (analysis adds the implicit ones to the database)
+	protected final Map<Path, Preprocessor> _analyses = new ConcurrentHashMap<Path, Preprocessor>();
+	protected final Map<Path, List<Point>> _points = new ConcurrentHashMap<Path, List<Point>>();
+
+	// Files with pending events --> time of the latest event
+	protected final Map<Path, Long> _pending = new HashMap<Path, Long>();
+
+	protected final AtomicLong _analyzed = new AtomicLong();
+	protected final AtomicLong _unchanged = new AtomicLong();
+
+	public long getAnalyzed() { return _analyzed.get(); }
+	public long getUnchanged() { return _unchanged.get(); }
+
+	public FigureWatcher(Path directory) throws IOException
+	{
+		this(directory, new PreprocessorCache(), DEFAULT_DEBOUNCE_MILLIS);
+	}
+
+	/**
+	 * @param directory -- the directory of figure files
+	 * @param cache -- analyses (shared with other users of the cache, if desired)
+	 * @param debounceMillis -- quiet time before a changed file is processed
+	 */
+	public FigureWatcher(Path directory, PreprocessorCache cache, long debounceMillis) throws IOException
+	{
+		_directory = directory;
+		_cache = cache;
+		_debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+
+		_watcher = FileSystems.getDefault().newWatchService();
+		directory.register(_watcher, StandardWatchEventKinds.ENTRY_CREATE,
+				                     StandardWatchEventKinds.ENTRY_MODIFY,
+				                     StandardWatchEventKinds.ENTRY_DELETE);
+	}
+
+	public void addListener(FigureListener listener) { _listeners.add(listener); }
+	public void removeListener(FigureListener listener) { _listeners.remove(listener); }
+
+	/**
+	 * Analyze the figures already in the directory, then watch for changes.
+	 */
+	public void start() throws IOException
+	{
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(_directory)) {
+			for (Path file : files) {
+				if (isFigure(file)) process(file, System.nanoTime());
+			}
+		}
+
+		_thread = new Thread(this::watch, "figure-watcher");
+		_thread.setDaemon(true);
+		_thread.start();
+	}
+
+	/**
+	 * @return the last known content hash of a file; null if it is not (or no longer) known
+	 */
+	public String getHash(Path file) { return _hashes.get(file.toAbsolutePath()); }
+
+	private void watch()
+	{
+		try {
+			while (true) {
+				// Wake up for new events, or when the oldest pending file becomes quiet
+				WatchKey key = _pending.isEmpty() ? _watcher.take()
+						                          : _watcher.poll(Math.max(1, nextDeadline() - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+				if (key != null) {
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+							rescan();
+							continue;
+						}
+
+						Path file = _directory.resolve((Path) event.context());
+						if (isFigure(file)) _pending.put(file, System.nanoTime());
+					}
+					key.reset();
+				}
+
+				processQuietFiles();
+			}
+		}
+		catch (InterruptedException | ClosedWatchServiceException e) {
+			// closed
+		}
+	}
+
+	/**
+	 * Events were lost: mark every figure file pending, both those in the
+	 * directory and those known from before (which may have been deleted).
+	 */
+	private void rescan()
+	{
+		long now = System.nanoTime();
+
+		for (Path known : _hashes.keySet()) _pending.put(_directory.resolve(known.getFileName()), now);
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(_directory)) {
+			for (Path file : files) {
+				if (isFigure(file)) _pending.put(file, now);
+			}
+		}
+		catch (IOException e) {
+			// the known files are still reprocessed; new ones are picked up by later events
+		}
+	}
+
+	private long nextDeadline()
+	{
+		long oldest = Long.MAX_VALUE;
+		for (long time : _pending.values()) oldest = Math.min(oldest, time);
+
+		return oldest + _debounceNanos;
+	}
+
+	private void processQuietFiles()
+	{
+		long now = System.nanoTime();
+
+		for (Iterator<Map.Entry<Path, Long>> it = _pending.entrySet().iterator(); it.hasNext(); ) {
+			Map.Entry<Path, Long> entry = it.next();
+			if (now - entry.getValue() < _debounceNanos) continue;
+
+			it.remove();
+			process(entry.getKey(), entry.getValue() + _debounceNanos);
+		}
+	}
+
+	/**
+	 * @param file -- a figure file that was created, changed or deleted
+	 * @param ready -- when the change became eligible for processing (for latency)
+	 */
+	protected void process(Path file, long ready)
+	{
+		Path key = file.toAbsolutePath();
+
+		if (!Files.exists(file)) {
+			_analyses.remove(key);
+			_points.remove(key);
+			if (_hashes.remove(key) != null) _listeners.forEach((listener) -> listener.figureRemoved(file));
+			return;
+		}
+
+		try {
+			FigureNode figure = InputFacade.extractFigure(file.toString());
+			Map.Entry<PointDatabase, Set<Segment>> geometry = InputFacade.toGeometryRepresentation(figure);
+
+			String hash = FigureHash.of(geometry.getKey(), geometry.getValue());
+			String previous = _hashes.get(key);
+
+			if (hash.equals(previous)) {
+				_unchanged.incrementAndGet();
+				return;
+			}
+
+			List<Point> points = new ArrayList<Point>(geometry.getKey().getPoints());
+			Preprocessor before = _analyses.get(key);
+			FigureDiff diff = before == null ? new FigureDiff(List.of(), List.of(), points, geometry.getValue())
+					                         : new FigureDiff(_points.get(key), before.getGivenSegments(), points, geometry.getValue());
+
+			Preprocessor pp = _cache.analyze(geometry.getKey(), geometry.getValue(), new PreprocessorOptions().previous(before));
+			_analyzed.incrementAndGet();
+
+			// recorded only once analyzed: a failed version is retried when saved again
+			_hashes.put(key, hash);
+			_analyses.put(key, pp);
+			_points.put(key, points);
+
+			FigureUpdate update = new FigureUpdate(file, figure, pp, hash, previous, diff, System.nanoTime() - ready);
+			_listeners.forEach((listener) -> listener.figureUpdated(update));
+		}
+		catch (Throwable e) {
+			// an Error must not end the watch thread: later edits are still processed
+			_listeners.forEach((listener) -> listener.figureFailed(file, e));
+		}
+	}
+
+	private static boolean isFigure(Path file)
+	{
+		String name = file.getFileName().toString();
+
+		return name.endsWith(".json") || name.endsWith(".json.gz");
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		_watcher.close();
+		if (_thread != null) _thread.interrupt();
+	}
+}
@@ -0,0 +1,60 @@
+package pipeline;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import input.visitor.ToJSONVisitor;
+import preprocessor.PreprocessorOptions;
+
+/**
+ * Settings for a FigurePipeline; every stage defaults to a single worker.
+ */
+public class PipelineOptions
+{
+	public static final int DEFAULT_BUFFER = 16;
+
+	// Workers per stage
+	protected final Map<PipelineStage, Integer> _parallelism = new EnumMap<PipelineStage, Integer>(PipelineStage.class);
+	public int getParallelism(PipelineStage stage) { return _parallelism.getOrDefault(stage, 1); }
+
+	// Jobs queued between consecutive stages
+	protected int _buffer = DEFAULT_BUFFER;
+	public int getBuffer() { return _buffer; }
+
+	// Settings for each figure's analysis
+	protected PreprocessorOptions _preprocessor = new PreprocessorOptions();
+	public PreprocessorOptions getPreprocessorOptions() { return _preprocessor; }
+
+	// The EXPORT stage: produces a job's output (by default the figure as JSON)
+	protected Function<FigureJob, Object> _exporter = (job) -> new ToJSONVisitor().visitFigureNode(job.getFigure(), null).toString();
+	public Function<FigureJob, Object> getExporter() { return _exporter; }
+
+	public PipelineOptions parallelism(PipelineStage stage, int workers)
+	{
+		if (workers < 1) throw new IllegalArgumentException("A stage needs at least one worker: " + workers);
+
+		_parallelism.put(stage, workers);
+		return this;
+	}
+
+	public PipelineOptions buffer(int jobs)
+	{
+		if (jobs < 1) throw new IllegalArgumentException("Buffer must be positive: " + jobs);
+
+		_buffer = jobs;
+		return this;
+	}
+
+	public PipelineOptions preprocessor(PreprocessorOptions options)
+	{
+		_preprocessor = options;
+		return this;
+	}
+
+	public PipelineOptions exporter(Function<FigureJob, Object> exporter)
+	{
+		_exporter = exporter;
+		return this;
+	}
+}
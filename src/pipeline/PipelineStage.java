@@ -0,0 +1,13 @@
+package pipeline;
+
+/**
+ * The stages of a FigurePipeline in the order a figure passes through them.
+ */
+public enum PipelineStage
+{
+	READ,
+	PARSE,
+	CONVERT,
+	PREPROCESS,
+	EXPORT
+}
@@ -0,0 +1,76 @@
+package pipeline;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for one pipeline stage: items processed, time spent, and queue depth
+ * (items accepted from upstream but not yet started).
+ */
+public class StageMetrics
+{
+	protected final PipelineStage _stage;
+	protected final int _parallelism;
+
+	protected final LongAdder _processed = new LongAdder();
+	protected final LongAdder _failed = new LongAdder();
+	protected final LongAdder _busyNanos = new LongAdder();
+
+	protected final AtomicInteger _queueDepth = new AtomicInteger();
+	protected final AtomicInteger _maxQueueDepth = new AtomicInteger();
+
+	protected final AtomicLong _firstStart = new AtomicLong();
+	protected final AtomicLong _lastEnd = new AtomicLong();
+
+	public StageMetrics(PipelineStage stage, int parallelism)
+	{
+		_stage = stage;
+		_parallelism = parallelism;
+	}
+
+	public PipelineStage getStage() { return _stage; }
+	public int getParallelism() { return _parallelism; }
+	public long getProcessed() { return _processed.sum(); }
+	public long getFailed() { return _failed.sum(); }
+	public long getBusyNanos() { return _busyNanos.sum(); }
+	public int getQueueDepth() { return _queueDepth.get(); }
+	public int getMaxQueueDepth() { return _maxQueueDepth.get(); }
+
+	/**
+	 * @return items per second between the first item starting and the last finishing
+	 */
+	public double getThroughput()
+	{
+		long elapsed = _lastEnd.get() - _firstStart.get();
+
+		return elapsed <= 0 ? 0 : getProcessed() * 1e9 / elapsed;
+	}
+
+	void enqueued()
+	{
+		_maxQueueDepth.accumulateAndGet(_queueDepth.incrementAndGet(), Math::max);
+	}
+
+	void started(long nanos)
+	{
+		_queueDepth.decrementAndGet();
+		_firstStart.compareAndSet(0, nanos);
+	}
+
+	void finished(long startNanos, long endNanos, boolean failed)
+	{
+		_processed.increment();
+		if (failed) _failed.increment();
+		_busyNanos.add(endNanos - startNanos);
+		_lastEnd.accumulateAndGet(endNanos, Math::max);
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("%-10s x%d  processed: %d (failed %d)  busy: %.1f ms  max queue: %d  throughput: %.1f/s",
+				             _stage, _parallelism, getProcessed(), getFailed(), getBusyNanos() / 1e6,
+				             getMaxQueueDepth(), getThroughput());
+	}
+}
@@ -0,0 +1,122 @@
+package pipeline;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One stage of a FigurePipeline as a Flow.Processor<FigureJob, FigureJob>.
+ *
+ * Backpressure: the stage requests at most (parallelism + buffer) jobs ahead
+ * from upstream and asks for one more only after a job has been handed on
+ * downstream. Publishing blocks while the downstream buffer is full, so a slow
+ * stage throttles every stage before it.
+ */
+public class StageProcessor extends SubmissionPublisher<FigureJob> implements Flow.Processor<FigureJob, FigureJob>
+{
+	protected final PipelineStage _stage;
+	protected final Consumer<FigureJob> _work;
+	protected final StageMetrics _metrics;
+
+	protected final int _window;
+	protected final ExecutorService _workers;
+
+	protected Flow.Subscription _subscription;
+
+	// Jobs accepted but not yet handed downstream
+	protected final AtomicInteger _inFlight = new AtomicInteger();
+	protected volatile boolean _upstreamDone;
+
+	/**
+	 * @param stage -- which stage this is
+	 * @param work -- fills in the stage's result on a job (exceptions are recorded on the job)
+	 * @param parallelism -- number of jobs processed at once
+	 * @param buffer -- jobs requested ahead of the workers; also the downstream buffer size
+	 * @param delivery -- runs the publisher's deliveries to the next stage
+	 */
+	public StageProcessor(PipelineStage stage, Consumer<FigureJob> work, int parallelism, int buffer, Executor delivery)
+	{
+		super(delivery, Math.max(1, buffer));
+
+		_stage = stage;
+		_work = work;
+		_metrics = new StageMetrics(stage, parallelism);
+		_window = parallelism + buffer;
+		_workers = Executors.newFixedThreadPool(parallelism, (runnable) -> {
+			Thread thread = new Thread(runnable, "pipeline-" + stage.name().toLowerCase());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public StageMetrics getMetrics() { return _metrics; }
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription)
+	{
+		_subscription = subscription;
+		subscription.request(_window);
+	}
+
+	@Override
+	public void onNext(FigureJob job)
+	{
+		_inFlight.incrementAndGet();
+		_metrics.enqueued();
+
+		_workers.execute(() -> {
+			long start = System.nanoTime();
+			_metrics.started(start);
+
+			// Jobs that failed earlier pass through untouched
+			if (!job.failed()) {
+				try {
+					_work.accept(job);
+				}
+				// Errors too (e.g. a StackOverflowError): the job must still be handed on
+				catch (Throwable e) {
+					job.fail(_stage, e);
+				}
+			}
+
+			try {
+				_metrics.finished(start, System.nanoTime(), job.getFailedStage() == _stage);
+
+				submit(job);
+				_subscription.request(1);
+			}
+			finally {
+				// Whatever happened, the stage closes once its last job is done
+				if (_inFlight.decrementAndGet() == 0 && _upstreamDone) finish();
+			}
+		});
+	}
+
+	@Override
+	public void onError(Throwable throwable)
+	{
+		_workers.shutdown();
+		closeExceptionally(throwable);
+	}
+
+	@Override
+	public void onComplete()
+	{
+		_upstreamDone = true;
+
+		if (_inFlight.get() == 0) finish();
+	}
+
+	// Close downstream exactly once after the last job has been handed on
+	private synchronized void finish()
+	{
+		if (isClosed()) return;
+
+		_workers.shutdown();
+		close();
+	}
+}
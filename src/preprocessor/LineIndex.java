@@ -0,0 +1,71 @@
+package preprocessor;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Line;
+import geometry_objects.Segment;
+
+/**
+ * An index from each (infinite) line to the segments lying on it.
+ * 
+ * "Which segments are on the same line as this one?" is a single hash lookup.
+ */
+public final class LineIndex
+{
+	protected Map<Line, Set<Segment>> _index;
+
+	public LineIndex()
+	{
+		_index = new LinkedHashMap<Line, Set<Segment>>();
+	}
+
+	public LineIndex(Collection<Segment> segments)
+	{
+		this();
+
+		for (Segment segment : segments) {
+			add(segment);
+		}
+	}
+
+	/**
+	 * @param segment -- a segment to index by its line
+	 * @return true if the segment was not already indexed
+	 */
+	public boolean add(Segment segment)
+	{
+		return _index.computeIfAbsent(segment.getLine(), (line) -> new LinkedHashSet<Segment>()).add(segment);
+	}
+
+	/**
+	 * @param line -- an infinite line
+	 * @return the (unmodifiable) set of indexed segments on the line; empty if there are none
+	 */
+	public Set<Segment> getSegments(Line line)
+	{
+		Set<Segment> segments = _index.get(line);
+
+		return segments == null ? Collections.emptySet() : Collections.unmodifiableSet(segments);
+	}
+
+	/**
+	 * @param segment -- a segment
+	 * @return all indexed segments collinear with the given segment (including itself, if indexed)
+	 */
+	public Set<Segment> getCollinearSegments(Segment segment)
+	{
+		return getSegments(segment.getLine());
+	}
+
+	public Set<Line> getLines() { return Collections.unmodifiableSet(_index.keySet()); }
+
+	/**
+	 * @return the number of distinct lines
+	 */
+	public int size() { return _index.size(); }
+}
@@ -1,17 +1,30 @@
 package preprocessor;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
 
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
+import preprocessor.control.AnalysisAbortedException;
+import preprocessor.control.AnalysisMonitor;
+import preprocessor.control.CancellationToken;
+import preprocessor.control.ProgressListener;
+import preprocessor.delegates.ImplicitPointClusters;
 import preprocessor.delegates.ImplicitPointPreprocessor;
+import preprocessor.delegates.PartitionedLoop;
+import preprocessor.metrics.MetricsListener;
+import preprocessor.metrics.PreprocessorPhase;
+import preprocessor.metrics.PreprocessorStatistics;
+import preprocessor.spatial.SpatialIndex;
+import geometry_objects.GeometryPool;
+import geometry_objects.Line;
 import geometry_objects.Segment;
 
 public class Preprocessor
@@ -20,73 +33,264 @@ public class Preprocessor
 	// This database will also be modified to include the implicit
 	// points (i.e., all points in the figure).
 	protected PointDatabase _pointDatabase;
+	public PointDatabase getPointDatabase() { return _pointDatabase; }
 
 	// Minimal ('Base') segments provided by the user
 	protected Set<Segment> _givenSegments;
+	public Set<Segment> getGivenSegments() { return _givenSegments; }
 
 	// The set of implicitly defined points caused by segments
 	// at implicit points.
 	protected Set<Point> _implicitPoints;
+	public Set<Point> getImplicitPoints() { return _implicitPoints; }
+
+	// For each given segment, the implicit points inside it (in order); produced by
+	// the intersection phase and consumed by the segment phases. Null if restored.
+	protected SegmentIncidence _incidence;
+	public SegmentIncidence getIncidence() { return _incidence; }
 
 	// The set of implicitly defined segments resulting from implicit points.
 	protected Set<Segment> _implicitSegments;
+	public Set<Segment> getImplicitSegments() { return _implicitSegments; }
 
 	// Given all explicit and implicit points, we have a set of
 	// segments that contain no other subsegments; these are minimal ('base') segments
 	// That is, minimal segments uniquely define the figure.
 	protected Set<Segment> _allMinimalSegments;
+	public Set<Segment> getMinimalSegments() { return _allMinimalSegments; }
 
 	// A collection of non-basic segments
 	protected Set<Segment> _nonMinimalSegments;
+	public Set<Segment> getNonMinimalSegments() { return _nonMinimalSegments; }
 
 	// A collection of all possible segments: maximal, minimal, and everything in between
-	// For lookup capability, we use a map; each <key, value> has the same segment object
+	// For lookup capability, we expose a map view; each <key, value> has the same segment object
 	// That is, key == value. 
-	protected Map<Segment, Segment> _segmentDatabase;
-	public Map<Segment, Segment> getAllSegments() { return _segmentDatabase; }
+	protected SegmentDatabase _segmentDatabase;
+	public Map<Segment, Segment> getAllSegments() { return _segmentDatabase.asMap(); }
+	public SegmentDatabase getSegmentDatabase() { return _segmentDatabase; }
+
+	// Instrumentation; both are null when no listener is attached so that
+	// the analysis hot paths pay only a null check.
+	protected MetricsListener _metrics;
+	protected PreprocessorStatistics _statistics;
+	public PreprocessorStatistics getStatistics() { return _statistics; }
+
+	// Runs the per-segment loops of each phase; null for a sequential analysis
+	protected ExecutorService _executor;
+
+	// Budget (cancellation, deadline) and progress of analyze(); null when unmonitored.
+	// Phases call _monitor.advance() / check() between units of work.
+	protected CancellationToken _cancellation;
+	protected Duration _timeout;
+	protected ProgressListener _progress;
+	protected AnalysisMonitor _monitor;
+
+	// Shares the computed points and segments with other figures; null for none
+	protected GeometryPool _pool;
+
+	// An earlier analysis of this figure whose unchanged lines are reused; null for none.
+	// Released once analyze() completes so that analyses do not chain.
+	protected Preprocessor _previous;
+
+	// Nearest-point and segment queries; built at the end of analyze() or on first use
+	protected boolean _bulkLoadSpatialIndex;
+	protected SpatialIndex _spatialIndex;
+	public SpatialIndex getSpatialIndex()
+	{
+		if (_spatialIndex == null) _spatialIndex = new SpatialIndex(this);
+		return _spatialIndex;
+	}
 
 	public Preprocessor(PointDatabase points, Set<Segment> segments)
+	{
+		this(points, segments, new PreprocessorOptions());
+	}
+
+	/**
+	 * @param points -- the explicit points of the figure
+	 * @param segments -- the given segments of the figure
+	 * @param metrics -- receives per-phase timing and counters; null to disable instrumentation
+	 */
+	public Preprocessor(PointDatabase points, Set<Segment> segments, MetricsListener metrics)
+	{
+		this(points, segments, new PreprocessorOptions().metrics(metrics));
+	}
+
+	/**
+	 * @param points -- the explicit points of the figure
+	 * @param segments -- the given segments of the figure
+	 * @param options -- instrumentation and parallel execution settings
+	 */
+	public Preprocessor(PointDatabase points, Set<Segment> segments, PreprocessorOptions options)
 	{
 		_pointDatabase  = points;
 		_givenSegments = segments;
-		
-		_segmentDatabase = new HashMap<Segment, Segment>();
+
+		_metrics = options.getMetrics();
+		_executor = options.getExecutor();
+		_bulkLoadSpatialIndex = options.getSpatialIndex();
+		_pool = options.getPool();
+		_cancellation = options.getCancellation();
+		_timeout = options.getTimeout();
+		_progress = options.getProgress();
+		_previous = options.getPrevious();
 		
 		analyze();
 	}
 
+	/**
+	 * Reconstitute a preprocessor from previously computed results (e.g., from a cache);
+	 * analyze() is NOT invoked.
+	 *
+	 * @param points -- the point database (already containing the implicit points)
+	 * @param segments -- the given segments
+	 * @param implicitPoints -- previously computed implicit points
+	 * @param implicitSegments -- previously computed implicit base segments
+	 * @param minimalSegments -- previously computed minimal segments
+	 * @param nonMinimalSegments -- previously computed non-minimal segments
+	 */
+	public Preprocessor(PointDatabase points, Set<Segment> segments,
+			            Set<Point> implicitPoints, Set<Segment> implicitSegments,
+			            Set<Segment> minimalSegments, Set<Segment> nonMinimalSegments)
+	{
+		_pointDatabase  = points;
+		_givenSegments = segments;
+
+		_implicitPoints = implicitPoints;
+		_implicitSegments = implicitSegments;
+		_allMinimalSegments = minimalSegments;
+		_nonMinimalSegments = nonMinimalSegments;
+
+		_segmentDatabase = new SegmentDatabase(_allMinimalSegments.size() + _nonMinimalSegments.size());
+		_allMinimalSegments.forEach(_segmentDatabase::put);
+		_nonMinimalSegments.forEach(_segmentDatabase::put);
+	}
+
 	/**
 	 * Invoke the precomputation procedure.
+	 *
+	 * @throws AnalysisAbortedException if the analysis is cancelled or exceeds its
+	 *         timeout (see PreprocessorOptions); the exception carries the
+	 *         statistics gathered so far
 	 */
 	public void analyze()
+	{
+		boolean monitored = _cancellation != null || _timeout != null || _progress != null;
+
+		// An aborted analysis reports partial statistics even without a listener
+		_statistics = _metrics == null && !monitored ? null : new PreprocessorStatistics();
+		_monitor = !monitored ? null : new AnalysisMonitor(_cancellation, deadline(), _progress, _statistics);
+
+		try { analyzePhases(); }
+		catch (AnalysisAbortedException e)
+		{
+			if (_statistics != null) _statistics.end(e.getPhase());
+			throw e;
+		}
+
+		if (_metrics != null) _metrics.analysisCompleted(_statistics);
+	}
+
+	private long deadline()
+	{
+		if (_timeout == null) return Long.MAX_VALUE;
+
+		return System.nanoTime() + _timeout.toNanos();
+	}
+
+	private void analyzePhases()
 	{
 		//
 		// Implicit Points
 		//
-		_implicitPoints = ImplicitPointPreprocessor.compute(_pointDatabase, _givenSegments.stream().toList());
+		List<Segment> given = _givenSegments.stream().toList();
+		beginPhase(PreprocessorPhase.IMPLICIT_POINTS, (long) given.size() * (given.size() - 1) / 2);
+		ImplicitPointClusters clusters = ImplicitPointPreprocessor.cluster(_pointDatabase, given, _statistics, _executor, _monitor);
+		_implicitPoints = new LinkedHashSet<Point>(clusters.getPoints());
+		_incidence = new SegmentIncidence(given, clusters);
+		endPhase(PreprocessorPhase.IMPLICIT_POINTS);
 
 		//
 		// Implicit Segments attributed to implicit points
 		//
-		_implicitSegments = computeImplicitBaseSegments(_implicitPoints);
+		beginPhase(PreprocessorPhase.IMPLICIT_BASE_SEGMENTS, given.size());
+		_implicitSegments = computeImplicitBaseSegments(_incidence);
+		endPhase(PreprocessorPhase.IMPLICIT_BASE_SEGMENTS);
 
 		//
 		// Combine the given minimal segments and implicit segments into a true set of minimal segments
 		//     *givenSegments may not be minimal
 		//     * implicitSegmen
 		//
-		_allMinimalSegments = identifyAllMinimalSegments(_implicitPoints, _givenSegments, _implicitSegments);
+		beginPhase(PreprocessorPhase.MINIMAL_SEGMENTS, given.size());
+		_allMinimalSegments = identifyAllMinimalSegments(_incidence, _givenSegments, _implicitSegments);
+		endPhase(PreprocessorPhase.MINIMAL_SEGMENTS);
 
 		//
 		// Construct all segments inductively from the base segments
 		//
+		beginPhase(PreprocessorPhase.NON_MINIMAL_SEGMENTS, _allMinimalSegments.size());
 		_nonMinimalSegments = constructAllNonMinimalSegments(_allMinimalSegments);
+		endPhase(PreprocessorPhase.NON_MINIMAL_SEGMENTS);
 
 		//
 		// Combine minimal and non-minimal into one package: our database
 		//
-		_allMinimalSegments.forEach((segment) -> _segmentDatabase.put(segment, segment));
-		_nonMinimalSegments.forEach((segment) -> _segmentDatabase.put(segment, segment));
+		beginPhase(PreprocessorPhase.SEGMENT_DATABASE, 1);
+		if (_pool != null) intern();
+		_segmentDatabase = new SegmentDatabase(_allMinimalSegments.size() + _nonMinimalSegments.size());
+		_allMinimalSegments.forEach(_segmentDatabase::put);
+		_nonMinimalSegments.forEach(_segmentDatabase::put);
+		endPhase(PreprocessorPhase.SEGMENT_DATABASE);
+
+		_spatialIndex = _bulkLoadSpatialIndex ? new SpatialIndex(this) : null;
+		_previous = null;
+	}
+
+	/**
+	 * Replace the computed points and segments with their pooled counterparts.
+	 */
+	private void intern()
+	{
+		Set<Point> implicitPoints = new LinkedHashSet<Point>(_implicitPoints.size());
+		for (Point pt : _implicitPoints) implicitPoints.add(_pool.intern(pt));
+		_implicitPoints = implicitPoints;
+
+		_implicitSegments = intern(_implicitSegments);
+		_allMinimalSegments = intern(_allMinimalSegments);
+		_nonMinimalSegments = intern(_nonMinimalSegments);
+	}
+
+	private Set<Segment> intern(Set<Segment> segments)
+	{
+		Set<Segment> pooled = new LinkedHashSet<Segment>(segments.size());
+		for (Segment segment : segments) pooled.add(_pool.intern(segment));
+
+		return pooled;
+	}
+
+	/**
+	 * @param work -- the units of work of the phase (for progress)
+	 */
+	private void beginPhase(PreprocessorPhase phase, long work)
+	{
+		if (_statistics != null) _statistics.begin(phase);
+		if (_monitor != null) _monitor.begin(phase, work);
+	}
+
+	private void endPhase(PreprocessorPhase phase)
+	{
+		if (_monitor != null) _monitor.end();
+		if (_statistics == null) return;
+
+		_statistics.end(phase);
+		if (_metrics != null) _metrics.phaseCompleted(phase, _statistics.getNanos(phase), _statistics.getAllocatedBytes(phase));
+	}
+
+	private void advance(long work)
+	{
+		if (_monitor != null) _monitor.advance(work);
 	}
 	
 	/**
@@ -104,29 +308,74 @@ public class Preprocessor
 	protected Set<Segment> computeImplicitBaseSegments(Set<Point> impPoints)
 	{
 		// Set<Segment> segments = _segmentDatabase.keySet();
-		Set<Segment> segments = _givenSegments;
+		List<Segment> segments = new ArrayList<Segment>(_givenSegments);
 
-		Set<Segment> impSegments = new HashSet<Segment>();
-		SortedSet<Point> points = new TreeSet<Point>();
+		if (_statistics != null) _statistics.addPointLiesOnCalls((long) segments.size() * impPoints.size());
 
-		for (Segment segment : segments) {
-			for (Point point : impPoints) {
-				if (segment.pointLiesOn(point)) {
-					points.add(point);
-				}
-			}
-			if (points.size() != 0) {
-				points.add(segment.getPoint1());
-				points.add(segment.getPoint2());
+		// Each given segment is split independently; merge the pieces in given-segment order
+		List<Set<Segment>> pieces = PartitionedLoop.map(segments, (segment) -> splitAtImplicitPoints(segment, impPoints), _executor);
 
-				impSegments.addAll(makeSegments(points));
+		Set<Segment> impSegments = new LinkedHashSet<Segment>();
+		pieces.forEach(impSegments::addAll);
 
-				points.clear();
-			}
-		}
+		return impSegments;
+	}
+
+	/**
+	 * As above, with the implicit points on each given segment read from the
+	 * incidence structure rather than tested geometrically.
+	 *
+	 * @param incidence -- the implicit points inside each given segment
+	 * @return a set of implicitly defined segments
+	 */
+	protected Set<Segment> computeImplicitBaseSegments(SegmentIncidence incidence)
+	{
+		List<Segment> segments = new ArrayList<Segment>(_givenSegments);
+
+		List<Set<Segment>> pieces = PartitionedLoop.map(segments, (segment) -> {
+			Set<Segment> split = split(segment, incidence.getPointsOn(segment));
+			advance(1);
+			return split;
+		}, _executor);
+
+		Set<Segment> impSegments = new LinkedHashSet<Segment>();
+		pieces.forEach(impSegments::addAll);
 
 		return impSegments;
 	}
+
+	/**
+	 * @param segment -- a given segment
+	 * @param impPoints -- implicit points computed from segment intersections
+	 * @return the minimal pieces of @segment between the implicit points on it;
+	 *         empty if there are no implicit points on the segment
+	 */
+	private Set<Segment> splitAtImplicitPoints(Segment segment, Set<Point> impPoints)
+	{
+		List<Point> interior = segment.orderPointsOnSegment(impPoints);
+		interior.remove(segment.getPoint1());
+		interior.remove(segment.getPoint2());
+
+		return split(segment, interior);
+	}
+
+	/**
+	 * @param segment -- a given segment
+	 * @param interior -- points strictly inside @segment, ordered from point1 to point2
+	 * @return the pieces of @segment between consecutive points; empty if there are no interior points
+	 */
+	private Set<Segment> split(Segment segment, List<Point> interior)
+	{
+		if (interior.isEmpty()) return new LinkedHashSet<Segment>();
+
+		// Implicit points are strictly inside the segment: the endpoints bracket them
+		List<Point> points = new ArrayList<Point>(interior.size() + 2);
+		points.add(segment.getPoint1());
+		points.addAll(interior);
+		points.add(segment.getPoint2());
+
+		return makeSegments(points, segment.getLine());
+	}
 	
 	/**
 	 * A set of ordered points:
@@ -142,15 +391,22 @@ public class Preprocessor
 	 */
 	protected Set<Segment> makeSegments(SortedSet<Point> points)
 	{
-        Set<Segment> segments = new HashSet<>();
+		if (points.size() < 2) return new LinkedHashSet<>();
 
-		while (points.size() > 1) {
-			Point pt1 = points.first();
-			points.removeFirst();
+		return makeSegments(new ArrayList<Point>(points), new Line(points.first(), points.last()));
+	}
 
-			Point pt2 = points.first();
+	/**
+	 * @param points -- an ordered list of points, all on @line (not modified)
+	 * @param line -- the line shared by all of the new segments
+	 * @return a set of n-1 segments between all points provided
+	 */
+	protected Set<Segment> makeSegments(List<Point> points, Line line)
+	{
+        Set<Segment> segments = new LinkedHashSet<>();
 
-			segments.add(new Segment(pt1, pt2));
+		for (int i = 1; i < points.size(); i++) {
+			segments.add(new Segment(points.get(i - 1), points.get(i), line));
 		}
 		
 		return segments;
@@ -170,21 +426,53 @@ public class Preprocessor
 			Set<Segment> givenSegments,
 			Set<Segment> minimalImpSegments)
 	{
-		Set<Segment> minimal = new HashSet<Segment>(minimalImpSegments);
+		Set<Segment> minimal = new LinkedHashSet<Segment>(minimalImpSegments);
+
+		List<Segment> given = new ArrayList<Segment>(givenSegments);
+		List<Boolean> isMinimal = PartitionedLoop.map(given, (segment) -> containsNoPoint(segment, impPoints), _executor);
 		
+		for (int i = 0; i < given.size(); i++) {
+			if (isMinimal.get(i)) minimal.add(given.get(i));
+			else minimal.remove(given.get(i));
+		}
+
+		return minimal;
+	}
+
+	/**
+	 * As above, reading the interior points of each given segment from the incidence structure.
+	 *
+	 * @param incidence -- the implicit points inside each given segment
+	 */
+	protected Set<Segment> identifyAllMinimalSegments(SegmentIncidence incidence,
+			Set<Segment> givenSegments,
+			Set<Segment> minimalImpSegments)
+	{
+		Set<Segment> minimal = new LinkedHashSet<Segment>(minimalImpSegments);
+
 		for (Segment segment : givenSegments) {
-			minimal.add(segment);
+			if (incidence.hasInteriorPoints(segment)) minimal.remove(segment);
+			else minimal.add(segment);
 
-			for (Point point : impPoints) {
-				if (segment.pointLiesBetweenEndpoints(point)) {
-					minimal.remove(segment);
-					break;
-				}
-			}
+			advance(1);
 		}
 
 		return minimal;
 	}
+
+	/**
+	 * @return true if none of the @points lies strictly between the endpoints of @segment
+	 */
+	private boolean containsNoPoint(Segment segment, Set<Point> points)
+	{
+		for (Point point : points) {
+			if (_statistics != null) _statistics.addPointLiesOnCalls(1);
+
+			if (segment.pointLiesBetweenEndpoints(point)) return false;
+		}
+
+		return true;
+	}
 	
 	/**
 	 * Given a set of minimal segments, build non-minimal segments by appending
@@ -194,9 +482,64 @@ public class Preprocessor
 	 */
 	public Set<Segment> constructAllNonMinimalSegments(Set<Segment> minimalSegs)
 	{
-		Set<Segment> nonMinimalSegs = new HashSet<Segment>();
+		// Only minimal segments on the same line can ever be combined;
+		// each line is therefore an independent construction.
+		LineIndex minimalByLine = new LineIndex(minimalSegs);
+		List<Line> lines = new ArrayList<Line>(minimalByLine.getLines());
+
+		// The non-minimal segments on a line depend only on its minimal segments:
+		// a line an edit left unchanged keeps those of the previous analysis
+		LineIndex previousMinimal = _previous == null ? new LineIndex() : new LineIndex(_previous.getMinimalSegments());
+		LineIndex previousNonMinimal = _previous == null ? new LineIndex() : new LineIndex(_previous.getNonMinimalSegments());
+
+		List<Set<Segment>> perLine = PartitionedLoop.map(lines, (line) -> {
+			Set<Segment> minimalOnLine = minimalByLine.getSegments(line);
+			Set<Segment> onLine = previousMinimal.getSegments(line).equals(minimalOnLine)
+					            ? reuseNonMinimalSegments(previousNonMinimal.getSegments(line), minimalOnLine, line)
+					            : constructNonMinimalSegmentsOn(minimalOnLine);
+			advance(minimalOnLine.size());
+			return onLine;
+		}, _executor);
+
+		Set<Segment> nonMinimalSegs = new LinkedHashSet<Segment>();
+		perLine.forEach(nonMinimalSegs::addAll);
 
-		constructAllNonMinimalSegments(minimalSegs, minimalSegs.stream().toList(), nonMinimalSegs);
+		return nonMinimalSegs;
+	}
+
+	/**
+	 * @param previous -- the non-minimal segments of an earlier analysis on a line
+	 *                    whose minimal segments are unchanged
+	 * @param minimalOnLine -- all minimal segments on that line
+	 * @param line -- the line
+	 * @return @previous rebuilt on this figure's point objects (names may have changed)
+	 */
+	private Set<Segment> reuseNonMinimalSegments(Set<Segment> previous, Set<Segment> minimalOnLine, Line line)
+	{
+		// Every endpoint of a non-minimal segment is an endpoint of a minimal one
+		Map<Point, Point> points = new HashMap<Point, Point>();
+		for (Segment segment : minimalOnLine) {
+			points.put(segment.getPoint1(), segment.getPoint1());
+			points.put(segment.getPoint2(), segment.getPoint2());
+		}
+
+		Set<Segment> nonMinimalSegs = new LinkedHashSet<Segment>();
+		for (Segment segment : previous) {
+			nonMinimalSegs.add(new Segment(points.get(segment.getPoint1()), points.get(segment.getPoint2()), line));
+		}
+
+		return nonMinimalSegs;
+	}
+
+	/**
+	 * @param minimalOnLine -- all minimal segments on a single line
+	 * @return all non-minimal segments on that line
+	 */
+	private Set<Segment> constructNonMinimalSegmentsOn(Set<Segment> minimalOnLine)
+	{
+		Set<Segment> nonMinimalSegs = new LinkedHashSet<Segment>();
+
+		constructAllNonMinimalSegments(minimalOnLine, minimalOnLine, nonMinimalSegs, 1);
 
 		return nonMinimalSegs;
 	}
@@ -204,28 +547,35 @@ public class Preprocessor
 	// non minimal means it DOES contain other implicit or explicit points along the line
 	// *-------*----------*
 	// A       B          C    ... line AC is NON minimal, segments AB and BC are minimal
-	private void constructAllNonMinimalSegments(Set<Segment> lastLevelSegs, List<Segment> minimalSegs, Set<Segment> nonMinimalSegs)
+	//
+	// Each level extends the segments built in the previous level by one minimal segment;
+	// we stop when a level produces no segment we have not seen.
+	private void constructAllNonMinimalSegments(Set<Segment> lastLevelSegs, Set<Segment> minimalOnLine, Set<Segment> nonMinimalSegs, int depth)
 	{	
-		boolean changed = false;
+		if (_statistics != null) _statistics.recordRecursionDepth(depth);
+
+		Set<Segment> newLevelSegs = new LinkedHashSet<Segment>();
 
 		for (Segment segment : lastLevelSegs) {
-			for (Segment minSeg : minimalSegs) {
+			// the levels of a long line can grow without bound: honor the budget within them
+			if (_monitor != null) _monitor.check();
+
+			for (Segment minSeg : minimalOnLine) {
 				if (!segment.HasSubSegment(minSeg)) {
 					Segment possibleSegment = combineToNewSegment(minSeg, segment);
 
-					if (possibleSegment != null) {
-						nonMinimalSegs.add(possibleSegment);
-						changed = true;
+					if (possibleSegment != null && nonMinimalSegs.add(possibleSegment)) {
+						newLevelSegs.add(possibleSegment);
 					}
 				}
 			}
 		}
 
-		if (!changed) {
+		if (newLevelSegs.isEmpty()) {
 			return;
 		}
 
-		constructAllNonMinimalSegments(nonMinimalSegs, minimalSegs, nonMinimalSegs);
+		constructAllNonMinimalSegments(newLevelSegs, minimalOnLine, nonMinimalSegs, depth + 1);
 	}
 	
 	//
@@ -267,6 +617,6 @@ public class Preprocessor
 			pt2 = right.getPoint2();
 		}
 
-		return new Segment(pt1, pt2);
+		return new Segment(pt1, pt2, left.getLine());
 	}
 }
@@ -0,0 +1,122 @@
+package preprocessor;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+import geometry_objects.GeometryPool;
+import preprocessor.control.CancellationToken;
+import preprocessor.control.ProgressListener;
+import preprocessor.metrics.MetricsListener;
+
+/**
+ * Optional settings for a Preprocessor; the defaults reproduce
+ * new Preprocessor(points, segments).
+ */
+public class PreprocessorOptions
+{
+	// Receives timing and counters; null disables instrumentation
+	protected MetricsListener _metrics;
+	public MetricsListener getMetrics() { return _metrics; }
+
+	// Executes the per-segment loops of each phase; null runs them sequentially
+	protected ExecutorService _executor;
+	public ExecutorService getExecutor() { return _executor; }
+
+	// Bulk load a SpatialIndex at the end of analyze()
+	protected boolean _spatialIndex;
+	public boolean getSpatialIndex() { return _spatialIndex; }
+
+	// Interns the computed points and segments; null keeps them local to the Preprocessor
+	protected GeometryPool _pool;
+	public GeometryPool getPool() { return _pool; }
+
+	// Stop the analysis when cancelled / past the time budget; null for no limit
+	protected CancellationToken _cancellation;
+	public CancellationToken getCancellation() { return _cancellation; }
+
+	protected Duration _timeout;
+	public Duration getTimeout() { return _timeout; }
+
+	// Receives the progress of each phase; null for none
+	protected ProgressListener _progress;
+	public ProgressListener getProgress() { return _progress; }
+
+	// An earlier analysis of the same figure to reuse; null analyzes from scratch
+	protected Preprocessor _previous;
+	public Preprocessor getPrevious() { return _previous; }
+
+	public PreprocessorOptions metrics(MetricsListener metrics)
+	{
+		_metrics = metrics;
+		return this;
+	}
+
+	/**
+	 * Partition the per-segment loops of each phase across the executor.
+	 * Results are merged deterministically: the output is identical to a sequential run.
+	 * The executor is not shut down by the Preprocessor.
+	 */
+	public PreprocessorOptions executor(ExecutorService executor)
+	{
+		_executor = executor;
+		return this;
+	}
+
+	/**
+	 * Build the spatial query index as the last step of analyze() rather than
+	 * on the first call to Preprocessor.getSpatialIndex().
+	 */
+	public PreprocessorOptions spatialIndex(boolean bulkLoad)
+	{
+		_spatialIndex = bulkLoad;
+		return this;
+	}
+
+	/**
+	 * Intern the implicit points and the computed segments in pool, so that
+	 * analyses of figures on the same coordinates share those objects.
+	 */
+	public PreprocessorOptions pool(GeometryPool pool)
+	{
+		_pool = pool;
+		return this;
+	}
+
+	/**
+	 * Stop the analysis, with an AnalysisAbortedException, once token is cancelled.
+	 */
+	public PreprocessorOptions cancellation(CancellationToken token)
+	{
+		_cancellation = token;
+		return this;
+	}
+
+	/**
+	 * Stop the analysis, with an AnalysisAbortedException, once it has run
+	 * longer than timeout (measured from the start of analyze()).
+	 */
+	public PreprocessorOptions timeout(Duration timeout)
+	{
+		_timeout = timeout;
+		return this;
+	}
+
+	public PreprocessorOptions progress(ProgressListener listener)
+	{
+		_progress = listener;
+		return this;
+	}
+
+	/**
+	 * Re-analyze an edited figure reusing an analysis of its previous version:
+	 * each line whose minimal segments the edit left unchanged keeps its
+	 * non-minimal segments instead of rebuilding them, so that (most costly)
+	 * phase is proportional to the lines the edit touched. The result is the
+	 * same as a full analysis.
+	 */
+	public PreprocessorOptions previous(Preprocessor previous)
+	{
+		_previous = previous;
+		return this;
+	}
+}
@@ -0,0 +1,261 @@
+package preprocessor;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * A store of segments keyed by their (unordered) pair of endpoints.
+ *
+ * Each distinct endpoint receives a canonical integer id; a segment is keyed by
+ * the packed long (smaller id, larger id). Keys live in an open-addressing
+ * table of primitives (linear probing), so a lookup is a couple of array reads
+ * and long comparisons: no Segment.hashCode / Segment.equals and no per-entry
+ * node objects.
+ *
+ * The Map<Segment, Segment> view (key == value) preserves the lookup
+ * semantics of the original HashMap-based segment database.
+ */
+public class SegmentDatabase
+{
+	private static final long EMPTY = -1L;
+	private static final int INITIAL_CAPACITY = 16;
+
+	// Canonical id of each endpoint
+	protected Map<Point, Integer> _pointIds;
+
+	// Open-addressing table: packed endpoint ids --> index into _segments
+	protected long[] _keys;
+	protected int[] _slots;
+
+	// Segments in insertion order
+	protected List<Segment> _segments;
+
+	protected Map<Segment, Segment> _view;
+
+	public SegmentDatabase()
+	{
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize -- number of segments expected; avoids rehashing while loading
+	 */
+	public SegmentDatabase(int expectedSize)
+	{
+		_pointIds = new HashMap<Point, Integer>();
+		_segments = new ArrayList<Segment>(expectedSize);
+
+		int capacity = tableSizeFor(expectedSize);
+		_keys = new long[capacity];
+		_slots = new int[capacity];
+		Arrays.fill(_keys, EMPTY);
+
+		_view = new MapView();
+	}
+
+	public int size() { return _segments.size(); }
+
+	/**
+	 * @return all segments in insertion order (unmodifiable)
+	 */
+	public List<Segment> getSegments() { return Collections.unmodifiableList(_segments); }
+
+	/**
+	 * @return a read-only Map view in which each segment maps to itself
+	 */
+	public Map<Segment, Segment> asMap() { return _view; }
+
+	/**
+	 * Add a segment unless a segment with the same endpoints is already stored.
+	 *
+	 * @param segment -- a segment
+	 * @return THE stored segment with the endpoints of @segment
+	 */
+	public Segment put(Segment segment)
+	{
+		long key = pack(idOf(segment.getPoint1()), idOf(segment.getPoint2()));
+
+		int index = probe(key);
+		if (_keys[index] == key) return _segments.get(_slots[index]);
+
+		_keys[index] = key;
+		_slots[index] = _segments.size();
+		_segments.add(segment);
+
+		if (2 * _segments.size() > _keys.length) rehash(2 * _keys.length);
+
+		return segment;
+	}
+
+	/**
+	 * @param p1 -- an endpoint
+	 * @param p2 -- an endpoint
+	 * @return the stored segment with endpoints @p1 and @p2 (either order); null if none
+	 */
+	public Segment get(Point p1, Point p2)
+	{
+		Integer id1 = _pointIds.get(p1);
+		if (id1 == null) return null;
+
+		Integer id2 = _pointIds.get(p2);
+		if (id2 == null) return null;
+
+		int index = probe(pack(id1, id2));
+		return _keys[index] == EMPTY ? null : _segments.get(_slots[index]);
+	}
+
+	public Segment get(Segment segment) { return get(segment.getPoint1(), segment.getPoint2()); }
+
+	public boolean contains(Segment segment) { return get(segment) != null; }
+
+	private int idOf(Point pt)
+	{
+		Integer id = _pointIds.get(pt);
+		if (id != null) return id;
+
+		int newId = _pointIds.size();
+		_pointIds.put(pt, newId);
+
+		return newId;
+	}
+
+	// Smaller id in the high half so (a, b) and (b, a) coincide
+	private static long pack(int id1, int id2)
+	{
+		int lo = Math.min(id1, id2);
+		int hi = Math.max(id1, id2);
+
+		return ((long) lo << 32) | (hi & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @return the slot holding @key or the empty slot where it belongs
+	 */
+	private int probe(long key)
+	{
+		int mask = _keys.length - 1;
+		int index = mix(key) & mask;
+
+		while (_keys[index] != EMPTY && _keys[index] != key) {
+			index = (index + 1) & mask;
+		}
+
+		return index;
+	}
+
+	private void rehash(int capacity)
+	{
+		long[] oldKeys = _keys;
+		int[] oldSlots = _slots;
+
+		_keys = new long[capacity];
+		_slots = new int[capacity];
+		Arrays.fill(_keys, EMPTY);
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == EMPTY) continue;
+
+			int index = probe(oldKeys[i]);
+			_keys[index] = oldKeys[i];
+			_slots[index] = oldSlots[i];
+		}
+	}
+
+	// Murmur3 finalizer: spreads the packed ids over the whole table
+	private static int mix(long key)
+	{
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+
+		return (int) key;
+	}
+
+	// Power of two with a load factor of at most 1/2
+	private static int tableSizeFor(int expectedSize)
+	{
+		int capacity = INITIAL_CAPACITY;
+		while (capacity < 2 * expectedSize) capacity <<= 1;
+
+		return capacity;
+	}
+
+	/*
+	 * Read-only Map<Segment, Segment> over the database; key == value.
+	 */
+	private class MapView extends AbstractMap<Segment, Segment>
+	{
+		@Override
+		public int size() { return _segments.size(); }
+
+		@Override
+		public boolean containsKey(Object key) { return get(key) != null; }
+
+		@Override
+		public Segment get(Object key)
+		{
+			if (!(key instanceof Segment)) return null;
+
+			return SegmentDatabase.this.get((Segment) key);
+		}
+
+		@Override
+		public Set<Segment> keySet()
+		{
+			return new AbstractSet<Segment>()
+			{
+				@Override
+				public Iterator<Segment> iterator() { return getSegments().iterator(); }
+
+				@Override
+				public int size() { return _segments.size(); }
+
+				@Override
+				public boolean contains(Object o) { return containsKey(o); }
+			};
+		}
+
+		@Override
+		public Set<Map.Entry<Segment, Segment>> entrySet()
+		{
+			return new AbstractSet<Map.Entry<Segment, Segment>>()
+			{
+				@Override
+				public Iterator<Map.Entry<Segment, Segment>> iterator()
+				{
+					Iterator<Segment> segments = getSegments().iterator();
+
+					return new Iterator<Map.Entry<Segment, Segment>>()
+					{
+						@Override
+						public boolean hasNext() { return segments.hasNext(); }
+
+						@Override
+						public Map.Entry<Segment, Segment> next()
+						{
+							Segment segment = segments.next();
+							return new SimpleImmutableEntry<Segment, Segment>(segment, segment);
+						}
+					};
+				}
+
+				@Override
+				public int size() { return _segments.size(); }
+			};
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package preprocessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import preprocessor.delegates.ImplicitPointClusters;
+
+/**
+ * A sparse segment --> point incidence structure: for each given segment, the
+ * implicit points strictly inside it, ordered from point1 to point2.
+ *
+ * It is built once from the intersection phase (each implicit point already
+ * knows the segments crossing at it), so later phases need no
+ * pointLiesOn / pointLiesBetweenEndpoints tests.
+ */
+public class SegmentIncidence
+{
+	protected final List<Segment> _segments;
+	protected final Map<Segment, Integer> _indices;
+
+	// Interior points of each segment, in order along it
+	protected final List<List<Point>> _points;
+
+	/**
+	 * @param segments -- the given segments, in the order they were intersected
+	 * @param clusters -- the implicit points with the indices of the segments crossing at each
+	 */
+	public SegmentIncidence(List<Segment> segments, ImplicitPointClusters clusters)
+	{
+		_segments = segments;
+		_indices = new HashMap<Segment, Integer>();
+		for (int i = 0; i < segments.size(); i++) _indices.putIfAbsent(segments.get(i), i);
+
+		List<List<Point>> unordered = new ArrayList<List<Point>>(segments.size());
+		for (int i = 0; i < segments.size(); i++) unordered.add(new ArrayList<Point>());
+
+		for (Point pt : clusters.getPoints()) {
+			for (int i : clusters.getSegmentIndicesThrough(pt)) unordered.get(i).add(pt);
+		}
+
+		_points = new ArrayList<List<Point>>(segments.size());
+		for (int i = 0; i < segments.size(); i++) {
+			Segment segment = segments.get(i);
+
+			List<Point> ordered = segment.orderPointsOnSegment(unordered.get(i));
+			ordered.remove(segment.getPoint1());
+			ordered.remove(segment.getPoint2());
+
+			_points.add(Collections.unmodifiableList(ordered));
+		}
+	}
+
+	/**
+	 * @return the segments indexed, in their original order
+	 */
+	public List<Segment> getSegments() { return Collections.unmodifiableList(_segments); }
+
+	/**
+	 * @param segment -- a given segment
+	 * @return the implicit points strictly inside @segment, ordered from point1 to point2;
+	 *         empty if there are none or @segment was not given
+	 */
+	public List<Point> getPointsOn(Segment segment)
+	{
+		Integer index = _indices.get(segment);
+
+		return index == null ? List.of() : _points.get(index);
+	}
+
+	/**
+	 * @param index -- position of a segment in getSegments()
+	 */
+	public List<Point> getPointsOn(int index) { return _points.get(index); }
+
+	/**
+	 * @return true if some implicit point lies strictly inside @segment
+	 */
+	public boolean hasInteriorPoints(Segment segment) { return !getPointsOn(segment).isEmpty(); }
+
+	/**
+	 * @return the total number of (segment, point) incidences
+	 */
+	public int size()
+	{
+		int total = 0;
+		for (List<Point> points : _points) total += points.size();
+
+		return total;
+	}
+}
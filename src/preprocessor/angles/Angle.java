@@ -0,0 +1,71 @@
+package preprocessor.angles;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * An angle at a vertex formed by two rays (each given by one of its segments).
+ * The measure is computed on first request and cached in the AngleDatabase.
+ */
+public class Angle
+{
+	protected final AngleDatabase _database;
+	protected final int _vertex;
+	protected final int _ray1;
+	protected final int _ray2;
+
+	protected final Segment _segment1;
+	protected final Segment _segment2;
+
+	protected Angle(AngleDatabase database, int vertex, int ray1, int ray2, Segment segment1, Segment segment2)
+	{
+		_database = database;
+		_vertex = vertex;
+		_ray1 = ray1;
+		_ray2 = ray2;
+		_segment1 = segment1;
+		_segment2 = segment2;
+	}
+
+	public Point getVertex() { return _database._vertices[_vertex]; }
+	public Segment getSegment1() { return _segment1; }
+	public Segment getSegment2() { return _segment2; }
+
+	/**
+	 * @return the measure of the angle in radians, in (0, pi]
+	 */
+	public double getMeasure() { return _database.measure(_vertex, _ray1, _ray2); }
+
+	public double getMeasureDegrees() { return Math.toDegrees(getMeasure()); }
+
+	/**
+	 * @return true if the two rays are opposite (the angle is a line)
+	 */
+	public boolean isStraight() { return _database.isStraight(_vertex, _ray1, _ray2); }
+
+	/**
+	 * Two angles are equal if they are at the same vertex between the same two rays.
+	 */
+	@Override
+	public boolean equals(Object obj)
+	{
+		if (!(obj instanceof Angle)) return false;
+		Angle that = (Angle)obj;
+
+		return _database == that._database && _vertex == that._vertex &&
+			   Math.min(_ray1, _ray2) == Math.min(that._ray1, that._ray2) &&
+			   Math.max(_ray1, _ray2) == Math.max(that._ray1, that._ray2);
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return 31 * _vertex + Math.min(_ray1, _ray2) * 17 + Math.max(_ray1, _ray2);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "Angle(" + _segment1.other(getVertex()) + ", " + getVertex() + ", " + _segment2.other(getVertex()) + ")";
+	}
+}
@@ -0,0 +1,272 @@
+package preprocessor.angles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import preprocessor.Preprocessor;
+import utilities.ArrayUtilities;
+
+/**
+ * All angles of a figure, indexed by vertex; built once from the segment database.
+ *
+ * For each vertex we store the rays leaving it, sorted by direction, in primitive
+ * arrays. A ray may be carried by several collinear segments (e.g., at A on
+ * A--B--C, segments AB and AC are one ray): segments at a vertex are the same
+ * ray when they lie on the same (canonical) Line on the same side of the
+ * vertex. Then:
+ *
+ *    * the angle formed by two segments: a hash lookup of the shared vertex and a
+ *      binary search over its ray directions -- O(log d)
+ *    * angle measures are computed lazily and cached per pair of rays
+ */
+public class AngleDatabase
+{
+	protected Point[] _vertices;
+	protected Map<Point, Integer> _vertexIndex;
+
+	// Per vertex: ray directions in (-pi, pi], ascending
+	protected double[][] _directions;
+
+	// Per vertex: one representative segment of each ray
+	protected Segment[][] _raySegments;
+
+	// Per vertex: lazily computed measures of each pair of rays (triangular; NaN if not yet computed)
+	protected double[][] _measures;
+
+	public AngleDatabase(Preprocessor pp)
+	{
+		this(pp.getSegmentDatabase().getSegments());
+	}
+
+	/**
+	 * @param segments -- all segments of the figure
+	 */
+	public AngleDatabase(Collection<Segment> segments)
+	{
+		//
+		// Gather the segments incident to each vertex
+		//
+		_vertexIndex = new HashMap<Point, Integer>();
+		List<Point> vertices = new ArrayList<Point>();
+		List<List<Segment>> incident = new ArrayList<List<Segment>>();
+
+		for (Segment segment : segments) {
+			for (Point endpoint : List.of(segment.getPoint1(), segment.getPoint2())) {
+				int v = _vertexIndex.computeIfAbsent(endpoint, (pt) -> {
+					vertices.add(pt);
+					incident.add(new ArrayList<Segment>());
+					return vertices.size() - 1;
+				});
+
+				incident.get(v).add(segment);
+			}
+		}
+
+		int n = vertices.size();
+		_vertices = vertices.toArray(new Point[n]);
+		_directions = new double[n][];
+		_raySegments = new Segment[n][];
+		_measures = new double[n][];
+
+		for (int v = 0; v < n; v++) {
+			buildRays(v, incident.get(v));
+		}
+	}
+
+	//
+	// Sort the incident segments by direction, then merge runs of equal direction into rays
+	//
+	private void buildRays(int v, List<Segment> incident)
+	{
+		int d = incident.size();
+		double[] directions = new double[d];
+		int[] order = new int[d];
+
+		for (int i = 0; i < d; i++) {
+			directions[i] = direction(_vertices[v], incident.get(i));
+			order[i] = i;
+		}
+
+		ArrayUtilities.sortByKey(directions, order, d);
+
+		double[] rayDirections = new double[d];
+		Segment[] raySegments = new Segment[d];
+		int rays = 0;
+
+		for (int i = 0; i < d; i++) {
+			Segment segment = incident.get(order[i]);
+			if (rays > 0 && sameRay(_vertices[v], raySegments[rays - 1], segment)) continue;
+
+			rayDirections[rays] = directions[i];
+			raySegments[rays] = segment;
+			rays++;
+		}
+
+		// The first and last directions may be the same ray (either side of +/-pi)
+		if (rays > 1 && sameRay(_vertices[v], raySegments[0], raySegments[rays - 1])) rays--;
+
+		_directions[v] = Arrays.copyOf(rayDirections, rays);
+		_raySegments[v] = Arrays.copyOf(raySegments, rays);
+
+		_measures[v] = new double[rays * (rays - 1) / 2];
+		Arrays.fill(_measures[v], Double.NaN);
+	}
+
+	/**
+	 * @return the number of distinct vertices
+	 */
+	public int getVertexCount() { return _vertices.length; }
+
+	/**
+	 * @param vertex -- a point of the figure
+	 * @return the number of distinct rays leaving @vertex (0 if it is not a segment endpoint)
+	 */
+	public int getRayCount(Point vertex)
+	{
+		Integer v = _vertexIndex.get(vertex);
+
+		return v == null ? 0 : _directions[v].length;
+	}
+
+	/**
+	 * @return total number of (non-trivial) angles in the figure
+	 */
+	public long size()
+	{
+		long total = 0;
+		for (double[] measures : _measures) total += measures.length;
+
+		return total;
+	}
+
+	/**
+	 * @param s1 -- a segment
+	 * @param s2 -- a segment
+	 * @return the angle formed by the segments at their shared vertex;
+	 *         null if they share no vertex or lie along the same ray
+	 */
+	public Angle getAngle(Segment s1, Segment s2)
+	{
+		Point vertex = s1.sharedVertex(s2);
+		if (vertex == null) return null;
+
+		Integer v = _vertexIndex.get(vertex);
+		if (v == null) return null;
+
+		int ray1 = findRay(v, s1);
+		int ray2 = findRay(v, s2);
+
+		if (ray1 < 0 || ray2 < 0 || ray1 == ray2) return null;
+
+		return new Angle(this, v, ray1, ray2, s1, s2);
+	}
+
+	/**
+	 * @return the measure (radians) of the angle formed by two segments; NaN if there is none
+	 */
+	public double getMeasure(Segment s1, Segment s2)
+	{
+		Angle angle = getAngle(s1, s2);
+
+		return angle == null ? Double.NaN : angle.getMeasure();
+	}
+
+	/**
+	 * @param vertex -- a point of the figure
+	 * @return all angles at @vertex: one per pair of rays, rays in counterclockwise order
+	 */
+	public List<Angle> getAngles(Point vertex)
+	{
+		List<Angle> angles = new ArrayList<Angle>();
+
+		Integer v = _vertexIndex.get(vertex);
+		if (v == null) return angles;
+
+		Segment[] rays = _raySegments[v];
+		for (int i = 0; i < rays.length; i++) {
+			for (int j = i + 1; j < rays.length; j++) {
+				angles.add(new Angle(this, v, i, j, rays[i], rays[j]));
+			}
+		}
+
+		return angles;
+	}
+
+	/**
+	 * Lazily compute (and cache) the measure between two rays at a vertex.
+	 */
+	protected double measure(int v, int ray1, int ray2)
+	{
+		int i = Math.min(ray1, ray2);
+		int j = Math.max(ray1, ray2);
+
+		// Row-major index into the upper triangle of a d x d matrix
+		int d = _directions[v].length;
+		int index = i * (2 * d - i - 1) / 2 + (j - i - 1);
+
+		double measure = _measures[v][index];
+		if (Double.isNaN(measure)) {
+			measure = Math.abs(_directions[v][j] - _directions[v][i]);
+			if (measure > Math.PI) measure = 2 * Math.PI - measure;
+
+			_measures[v][index] = measure;
+		}
+
+		return measure;
+	}
+
+	/**
+	 * @return true if two distinct rays at a vertex are opposite (they form a line)
+	 */
+	protected boolean isStraight(int v, int ray1, int ray2)
+	{
+		return _raySegments[v][ray1].getLine().equals(_raySegments[v][ray2].getLine());
+	}
+
+	//
+	// Binary search by direction for the ray carrying a segment (accounting for
+	// wrap-around at +/-pi); the ray found must be on the segment's line
+	//
+	private int findRay(int v, Segment segment)
+	{
+		double[] directions = _directions[v];
+		if (directions.length == 0) return -1;
+
+		int insertion = Arrays.binarySearch(directions, direction(_vertices[v], segment));
+		if (insertion >= 0 && sameRay(_vertices[v], _raySegments[v][insertion], segment)) return insertion;
+		if (insertion < 0) insertion = -insertion - 1;
+
+		int below = (insertion - 1 + directions.length) % directions.length;
+		int above = insertion % directions.length;
+
+		if (sameRay(_vertices[v], _raySegments[v][below], segment)) return below;
+		if (sameRay(_vertices[v], _raySegments[v][above], segment)) return above;
+
+		return -1;
+	}
+
+	private static double direction(Point vertex, Segment segment)
+	{
+		Point other = segment.other(vertex);
+
+		return Math.atan2(other.getY() - vertex.getY(), other.getX() - vertex.getX());
+	}
+
+	// Two segments leaving vertex lie along the same ray: the same line, the same side of vertex
+	private static boolean sameRay(Point vertex, Segment s1, Segment s2)
+	{
+		if (!s1.getLine().equals(s2.getLine())) return false;
+
+		Point p1 = s1.other(vertex);
+		Point p2 = s2.other(vertex);
+
+		return (p1.getX() - vertex.getX()) * (p2.getX() - vertex.getX()) +
+			   (p1.getY() - vertex.getY()) * (p2.getY() - vertex.getY()) > 0;
+	}
+}
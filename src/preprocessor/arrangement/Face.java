@@ -0,0 +1,61 @@
+package preprocessor.arrangement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A face of a planar arrangement, given by one boundary cycle of half-edges.
+ *
+ * A counterclockwise cycle (positive area) bounds a bounded face; a clockwise
+ * cycle is the outer boundary of a connected component and faces the unbounded region.
+ */
+public class Face
+{
+	protected final HalfEdge _boundary;
+	public HalfEdge getBoundary() { return _boundary; }
+
+	// Signed area enclosed by the boundary cycle (shoelace formula)
+	protected final double _area;
+	public double getSignedArea() { return _area; }
+
+	protected Face(HalfEdge boundary, double area)
+	{
+		_boundary = boundary;
+		_area = area;
+	}
+
+	public boolean isBounded() { return _area > 0; }
+
+	/**
+	 * @return the half-edges of the boundary cycle in order
+	 */
+	public List<HalfEdge> getEdges()
+	{
+		List<HalfEdge> edges = new ArrayList<HalfEdge>();
+
+		HalfEdge edge = _boundary;
+		do {
+			edges.add(edge);
+			edge = edge._next;
+		} while (edge != _boundary);
+
+		return edges;
+	}
+
+	/**
+	 * @return the vertices of the boundary cycle in order
+	 */
+	public List<Vertex> getVertices()
+	{
+		List<Vertex> vertices = new ArrayList<Vertex>();
+
+		for (HalfEdge edge : getEdges()) {
+			vertices.add(edge._origin);
+		}
+
+		return vertices;
+	}
+
+	@Override
+	public String toString() { return getVertices().toString(); }
+}
@@ -0,0 +1,68 @@
+package preprocessor.arrangement;
+
+import geometry_objects.Segment;
+
+/**
+ * One direction of a minimal segment in a planar arrangement.
+ * 
+ *  The face of a half-edge lies to its left; following next() walks the
+ *  boundary of that face counterclockwise.
+ */
+public class HalfEdge
+{
+	protected final Vertex _origin;
+	public Vertex getOrigin() { return _origin; }
+
+	protected final Segment _segment;
+	public Segment getSegment() { return _segment; }
+
+	// Direction of the half-edge in radians, (-pi, pi]
+	protected final double _angle;
+	public double getAngle() { return _angle; }
+
+	protected HalfEdge _twin;
+	public HalfEdge getTwin() { return _twin; }
+
+	protected HalfEdge _next;
+	public HalfEdge getNext() { return _next; }
+
+	protected HalfEdge _prev;
+	public HalfEdge getPrev() { return _prev; }
+
+	protected Face _face;
+	public Face getFace() { return _face; }
+
+	// Position of this half-edge in the counterclockwise ring of its origin
+	protected int _ringIndex;
+
+	protected HalfEdge(Vertex origin, Vertex destination, Segment segment)
+	{
+		_origin = origin;
+		_segment = segment;
+		_angle = Math.atan2(destination.getPoint().getY() - origin.getPoint().getY(),
+				            destination.getPoint().getX() - origin.getPoint().getX());
+	}
+
+	public Vertex getDestination() { return _twin._origin; }
+
+	/**
+	 * @return the next outgoing half-edge counterclockwise around the origin
+	 */
+	public HalfEdge nextAroundOrigin()
+	{
+		int degree = _origin._outgoing.size();
+		return _origin._outgoing.get((_ringIndex + 1) % degree);
+	}
+
+	/**
+	 * @return the next outgoing half-edge clockwise around the origin
+	 */
+	public HalfEdge prevAroundOrigin()
+	{
+		int degree = _origin._outgoing.size();
+		return _origin._outgoing.get((_ringIndex - 1 + degree) % degree);
+	}
+
+	@Override
+	public String toString() { return _origin + " -> " + getDestination(); }
+}
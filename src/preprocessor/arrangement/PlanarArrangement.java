@@ -0,0 +1,237 @@
+package preprocessor.arrangement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import preprocessor.Preprocessor;
+import preprocessor.spatial.SegmentRTree;
+import utilities.ArrayUtilities;
+
+/**
+ * A doubly-connected edge list (DCEL) of a preprocessed figure: the planar
+ * subdivision induced by its points (explicit and implicit) and its minimal segments.
+ *
+ *    * vertex --> incident half-edges: O(1)
+ *    * half-edges around a vertex: sorted counterclockwise
+ *    * faces: the cycles of next() pointers
+ *
+ * Edges must meet only at their endpoints (a planar graph). Minimal segments
+ * usually do, since given segments are split where they cross; they do not
+ * when a point lies inside a segment without splitting it, e.g. the explicit
+ * endpoint of one given segment on the interior of another (a T-junction) or
+ * overlapping collinear given segments. Such a segment is split at those
+ * points, and its pieces (on the segment's line) become the edges.
+ * Construction is O(n log n) (an R-tree stabbing query per vertex and sorting
+ * each vertex's edge ring).
+ *
+ * Limitation: components are not nested; the outer boundary of a component drawn
+ * inside a bounded face of another is reported as its own (unbounded) face.
+ */
+public class PlanarArrangement
+{
+	protected Map<Point, Vertex> _vertices;
+	protected List<HalfEdge> _halfEdges;
+	protected List<Face> _faces;
+
+	/**
+	 * @param pp -- an analyzed preprocessor
+	 * @return the arrangement of its points and minimal segments
+	 */
+	public static PlanarArrangement build(Preprocessor pp)
+	{
+		return new PlanarArrangement(pp.getPointDatabase().getPoints(), pp.getMinimalSegments());
+	}
+
+	/**
+	 * @param points -- all points of the figure (isolated points become isolated vertices)
+	 * @param minimalSegments -- the segments of the figure; split at any point inside them
+	 */
+	public PlanarArrangement(Collection<Point> points, Set<Segment> minimalSegments)
+	{
+		_vertices = new LinkedHashMap<Point, Vertex>();
+		_halfEdges = new ArrayList<HalfEdge>(2 * minimalSegments.size());
+		_faces = new ArrayList<Face>();
+
+		for (Point pt : points) {
+			vertexAt(pt);
+		}
+
+		for (Segment segment : minimalSegments) {
+			vertexAt(segment.getPoint1());
+			vertexAt(segment.getPoint2());
+		}
+
+		for (Segment segment : splitAtVertices(minimalSegments)) {
+			addEdge(segment);
+		}
+
+		for (Vertex vertex : _vertices.values()) {
+			sortRing(vertex);
+		}
+
+		linkNext();
+		buildFaces();
+	}
+
+	public Collection<Vertex> getVertices() { return Collections.unmodifiableCollection(_vertices.values()); }
+	public List<HalfEdge> getHalfEdges() { return Collections.unmodifiableList(_halfEdges); }
+	public List<Face> getFaces() { return Collections.unmodifiableList(_faces); }
+
+	/**
+	 * @param pt -- a point
+	 * @return the vertex at that point; null if there is none
+	 */
+	public Vertex getVertex(Point pt) { return _vertices.get(pt); }
+
+	/**
+	 * @return the bounded faces only
+	 */
+	public List<Face> getBoundedFaces()
+	{
+		List<Face> bounded = new ArrayList<Face>();
+
+		for (Face face : _faces) {
+			if (face.isBounded()) bounded.add(face);
+		}
+
+		return bounded;
+	}
+
+	private Vertex vertexAt(Point pt)
+	{
+		return _vertices.computeIfAbsent(pt, Vertex::new);
+	}
+
+	private void addEdge(Segment segment)
+	{
+		Vertex u = vertexAt(segment.getPoint1());
+		Vertex v = vertexAt(segment.getPoint2());
+
+		HalfEdge forward = new HalfEdge(u, v, segment);
+		HalfEdge backward = new HalfEdge(v, u, segment);
+		forward._twin = backward;
+		backward._twin = forward;
+
+		u._outgoing.add(forward);
+		v._outgoing.add(backward);
+
+		_halfEdges.add(forward);
+		_halfEdges.add(backward);
+	}
+
+	//
+	// Segments that share more than an endpoint (a T-junction, or overlapping
+	// collinear segments) always put some vertex inside a segment. Splitting
+	// every segment at the vertices inside it leaves edges that meet only at
+	// their endpoints; overlapping segments yield the same pieces, kept once.
+	//
+	private Set<Segment> splitAtVertices(Set<Segment> segments)
+	{
+		SegmentRTree tree = new SegmentRTree(segments);
+
+		Map<Segment, List<Point>> inside = new HashMap<Segment, List<Point>>();
+		for (Point pt : _vertices.keySet()) {
+			for (Segment segment : tree.stab(pt)) {
+				if (segment.pointLiesBetweenEndpoints(pt)) {
+					inside.computeIfAbsent(segment, (s) -> new ArrayList<Point>()).add(pt);
+				}
+			}
+		}
+
+		if (inside.isEmpty()) return segments;
+
+		Set<Segment> edges = new LinkedHashSet<Segment>();
+		for (Segment segment : segments) {
+			List<Point> points = inside.get(segment);
+			if (points == null) {
+				edges.add(segment);
+				continue;
+			}
+
+			points.add(segment.getPoint1());
+			points.add(segment.getPoint2());
+
+			List<Point> ordered = segment.orderPointsOnSegment(points);
+			for (int i = 1; i < ordered.size(); i++) {
+				edges.add(new Segment(ordered.get(i - 1), ordered.get(i), segment.getLine()));
+			}
+		}
+
+		return edges;
+	}
+
+	// Counterclockwise order by direction
+	private static void sortRing(Vertex vertex)
+	{
+		int degree = vertex._outgoing.size();
+		double[] angles = new double[degree];
+		int[] order = new int[degree];
+
+		for (int i = 0; i < degree; i++) {
+			angles[i] = vertex._outgoing.get(i)._angle;
+			order[i] = i;
+		}
+
+		ArrayUtilities.sortByKey(angles, order, degree);
+
+		List<HalfEdge> sorted = new ArrayList<HalfEdge>(degree);
+		for (int i = 0; i < degree; i++) {
+			HalfEdge edge = vertex._outgoing.get(order[i]);
+			edge._ringIndex = i;
+			sorted.add(edge);
+		}
+
+		vertex._outgoing.clear();
+		vertex._outgoing.addAll(sorted);
+	}
+
+	//
+	// Arriving at v along e = (u -> v), the face to the left of e continues along
+	// the outgoing edge of v immediately clockwise from e's twin (v -> u).
+	//
+	private void linkNext()
+	{
+		for (HalfEdge edge : _halfEdges) {
+			HalfEdge next = edge._twin.prevAroundOrigin();
+
+			edge._next = next;
+			next._prev = edge;
+		}
+	}
+
+	private void buildFaces()
+	{
+		for (HalfEdge start : _halfEdges) {
+			if (start._face != null) continue;
+
+			double area = 0;
+			HalfEdge edge = start;
+			do {
+				Point p = edge._origin.getPoint();
+				Point q = edge.getDestination().getPoint();
+				area += p.getX() * q.getY() - q.getX() * p.getY();
+
+				edge = edge._next;
+			} while (edge != start);
+
+			Face face = new Face(start, area / 2);
+
+			edge = start;
+			do {
+				edge._face = face;
+				edge = edge._next;
+			} while (edge != start);
+
+			_faces.add(face);
+		}
+	}
+}
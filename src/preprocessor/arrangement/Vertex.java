@@ -0,0 +1,41 @@
+package preprocessor.arrangement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import geometry_objects.points.Point;
+
+/**
+ * A vertex of a planar arrangement: a point of the figure together with its
+ * outgoing half-edges sorted counterclockwise by direction.
+ */
+public class Vertex
+{
+	protected final Point _point;
+	public Point getPoint() { return _point; }
+
+	// Outgoing half-edges in counterclockwise order (the 'edge ring' around the vertex)
+	protected final List<HalfEdge> _outgoing;
+
+	protected Vertex(Point point)
+	{
+		_point = point;
+		_outgoing = new ArrayList<HalfEdge>();
+	}
+
+	/**
+	 * @return some outgoing half-edge; null for an isolated vertex
+	 */
+	public HalfEdge getIncidentEdge() { return _outgoing.isEmpty() ? null : _outgoing.get(0); }
+
+	/**
+	 * @return all outgoing half-edges in counterclockwise order
+	 */
+	public List<HalfEdge> getOutgoing() { return Collections.unmodifiableList(_outgoing); }
+
+	public int degree() { return _outgoing.size(); }
+
+	@Override
+	public String toString() { return _point.toString(); }
+}
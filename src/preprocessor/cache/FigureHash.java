@@ -0,0 +1,104 @@
+package preprocessor.cache;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+
+/**
+ * Computes a canonical content hash for a figure: its point coordinates
+ * and its set of segments. Names and input order do not contribute, so
+ * two figures with the same geometry produce the same key.
+ */
+public class FigureHash
+{
+	private static final String ALGORITHM = "SHA-256";
+
+	/**
+	 * @param points -- the point database of a figure
+	 * @param segments -- the given segments of a figure
+	 * @return a hexadecimal digest uniquely identifying the geometry of the figure
+	 */
+	public static String of(PointDatabase points, Set<Segment> segments)
+	{
+		//
+		// Points: sorted (x, y) pairs
+		//
+		long[][] pts = new long[points.size()][];
+		int p = 0;
+		for (Point pt : points.getPoints()) {
+			pts[p++] = new long[] { pt.getFixedX(), pt.getFixedY() };
+		}
+		Arrays.sort(pts, FigureHash::compare);
+
+		//
+		// Segments: each endpoint pair ordered, then all pairs sorted
+		//
+		long[][] segs = new long[segments.size()][];
+		int s = 0;
+		for (Segment segment : segments) {
+			long[] a = { segment.getPoint1().getFixedX(), segment.getPoint1().getFixedY() };
+			long[] b = { segment.getPoint2().getFixedX(), segment.getPoint2().getFixedY() };
+
+			if (compare(a, b) > 0) { long[] tmp = a; a = b; b = tmp; }
+
+			segs[s++] = new long[] { a[0], a[1], b[0], b[1] };
+		}
+		Arrays.sort(segs, FigureHash::compare);
+
+		MessageDigest digest = newDigest();
+		ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * 4);
+
+		digest.update(buffer.putInt(0, pts.length).array(), 0, Integer.BYTES);
+		for (long[] pt : pts) update(digest, buffer, pt);
+
+		digest.update(buffer.putInt(0, segs.length).array(), 0, Integer.BYTES);
+		for (long[] seg : segs) update(digest, buffer, seg);
+
+		return toHex(digest.digest());
+	}
+
+	private static int compare(long[] a, long[] b)
+	{
+		for (int i = 0; i < a.length; i++) {
+			int c = Long.compare(a[i], b[i]);
+			if (c != 0) return c;
+		}
+		return 0;
+	}
+
+	private static void update(MessageDigest digest, ByteBuffer buffer, long[] values)
+	{
+		buffer.clear();
+		for (long value : values) buffer.putLong(value);
+
+		digest.update(buffer.array(), 0, buffer.position());
+	}
+
+	private static MessageDigest newDigest()
+	{
+		try { return MessageDigest.getInstance(ALGORITHM); }
+		catch (NoSuchAlgorithmException e)
+		{
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes)
+	{
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+			sb.append(Character.forDigit(b & 0xF, 16));
+		}
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,249 @@
+package preprocessor.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Line;
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import preprocessor.Preprocessor;
+
+/**
+ * A name-independent snapshot of the results of Preprocessor.analyze():
+ *    * implicit points
+ *    * implicit base segments
+ *    * minimal segments
+ *    * non-minimal segments (which, with the minimal segments, form the segment database)
+ *
+ * Points are stored as raw coordinates; segments as coordinate quadruples (x1, y1, x2, y2)
+ * with, per segment, the index of its line in a table of canonical coefficients (a, b, c).
+ * Lines are stored rather than recomputed so that the pieces of a segment keep the
+ * line of their parent, as they do after analysis.
+ *
+ * A snapshot is re-attached to a specific figure via restore().
+ */
+public class PreprocessedFigure
+{
+	// Bumped whenever the on-disk layout changes
+	public static final int FORMAT_VERSION = 2;
+
+	protected double[] _implicitPoints;
+	protected double[] _implicitSegments;
+	protected double[] _minimalSegments;
+	protected double[] _nonMinimalSegments;
+
+	// Line coefficient triples and, per segment of each set, an index into them
+	protected double[] _lines;
+	protected int[] _implicitLines;
+	protected int[] _minimalLines;
+	protected int[] _nonMinimalLines;
+
+	protected PreprocessedFigure(double[] implicitPoints, double[] implicitSegments,
+			                     double[] minimalSegments, double[] nonMinimalSegments, double[] lines,
+			                     int[] implicitLines, int[] minimalLines, int[] nonMinimalLines)
+	{
+		_implicitPoints = implicitPoints;
+		_implicitSegments = implicitSegments;
+		_minimalSegments = minimalSegments;
+		_nonMinimalSegments = nonMinimalSegments;
+
+		_lines = lines;
+		_implicitLines = implicitLines;
+		_minimalLines = minimalLines;
+		_nonMinimalLines = nonMinimalLines;
+	}
+
+	/**
+	 * @param pp -- an analyzed preprocessor
+	 * @return a snapshot of the analysis results
+	 */
+	public static PreprocessedFigure of(Preprocessor pp)
+	{
+		Map<Line, Integer> lineIds = new HashMap<Line, Integer>();
+		List<Line> lines = new ArrayList<Line>();
+
+		int[] implicitLines = lineIds(pp.getImplicitSegments(), lineIds, lines);
+		int[] minimalLines = lineIds(pp.getMinimalSegments(), lineIds, lines);
+		int[] nonMinimalLines = lineIds(pp.getNonMinimalSegments(), lineIds, lines);
+
+		return new PreprocessedFigure(flattenPoints(pp.getImplicitPoints()),
+				                      flattenSegments(pp.getImplicitSegments()),
+				                      flattenSegments(pp.getMinimalSegments()),
+				                      flattenSegments(pp.getNonMinimalSegments()),
+				                      flattenLines(lines), implicitLines, minimalLines, nonMinimalLines);
+	}
+
+	/**
+	 * Attach this snapshot to a figure: the implicit points are added to the point
+	 * database (exactly as analysis would have done) and all segments are rebuilt
+	 * using the database's point objects.
+	 *
+	 * @param points -- the point database of the figure
+	 * @param segments -- the given segments of the figure
+	 * @return a preprocessor equivalent to new Preprocessor(points, segments)
+	 */
+	public Preprocessor restore(PointDatabase points, Set<Segment> segments)
+	{
+		for (int i = 0; i < _implicitPoints.length; i += 2) {
+			points.put(Point.ANONYMOUS, _implicitPoints[i], _implicitPoints[i + 1]);
+		}
+
+		// Hashed lookup of the database points; avoids a linear scan per endpoint
+		Map<Point, Point> lookup = new HashMap<Point, Point>();
+		for (Point pt : points.getPoints()) lookup.put(pt, pt);
+
+		Set<Point> implicitPoints = new LinkedHashSet<Point>();
+		for (int i = 0; i < _implicitPoints.length; i += 2) {
+			implicitPoints.add(resolve(lookup, _implicitPoints[i], _implicitPoints[i + 1]));
+		}
+
+		Line[] lines = new Line[_lines.length / 3];
+		for (int i = 0; i < lines.length; i++) lines[i] = new Line(_lines[3 * i], _lines[3 * i + 1], _lines[3 * i + 2]);
+
+		return new Preprocessor(points, segments, implicitPoints,
+				                toSegments(lookup, _implicitSegments, lines, _implicitLines),
+				                toSegments(lookup, _minimalSegments, lines, _minimalLines),
+				                toSegments(lookup, _nonMinimalSegments, lines, _nonMinimalLines));
+	}
+
+	public void write(DataOutputStream out) throws IOException
+	{
+		out.writeInt(FORMAT_VERSION);
+		writeArray(out, _implicitPoints);
+		writeArray(out, _implicitSegments);
+		writeArray(out, _minimalSegments);
+		writeArray(out, _nonMinimalSegments);
+		writeArray(out, _lines);
+		writeArray(out, _implicitLines);
+		writeArray(out, _minimalLines);
+		writeArray(out, _nonMinimalLines);
+	}
+
+	public static PreprocessedFigure read(DataInputStream in) throws IOException
+	{
+		int version = in.readInt();
+		if (version != FORMAT_VERSION) throw new IOException("Unsupported cache format version: " + version);
+
+		return new PreprocessedFigure(readArray(in), readArray(in), readArray(in), readArray(in), readArray(in),
+				                      readIntArray(in), readIntArray(in), readIntArray(in));
+	}
+
+	private static double[] flattenPoints(Set<Point> points)
+	{
+		double[] out = new double[points.size() * 2];
+		int i = 0;
+
+		for (Point pt : points) {
+			out[i++] = pt.getX();
+			out[i++] = pt.getY();
+		}
+
+		return out;
+	}
+
+	private static double[] flattenSegments(Set<Segment> segments)
+	{
+		double[] out = new double[segments.size() * 4];
+		int i = 0;
+
+		for (Segment segment : segments) {
+			out[i++] = segment.getPoint1().getX();
+			out[i++] = segment.getPoint1().getY();
+			out[i++] = segment.getPoint2().getX();
+			out[i++] = segment.getPoint2().getY();
+		}
+
+		return out;
+	}
+
+	/**
+	 * @return the index of each segment's line, adding lines not seen before to @lines
+	 */
+	private static int[] lineIds(Set<Segment> segments, Map<Line, Integer> lineIds, List<Line> lines)
+	{
+		int[] out = new int[segments.size()];
+		int i = 0;
+
+		for (Segment segment : segments) {
+			Integer id = lineIds.putIfAbsent(segment.getLine(), lines.size());
+			if (id == null) {
+				id = lines.size();
+				lines.add(segment.getLine());
+			}
+			out[i++] = id;
+		}
+
+		return out;
+	}
+
+	private static double[] flattenLines(List<Line> lines)
+	{
+		double[] out = new double[lines.size() * 3];
+		int i = 0;
+
+		for (Line line : lines) {
+			out[i++] = line.getA();
+			out[i++] = line.getB();
+			out[i++] = line.getC();
+		}
+
+		return out;
+	}
+
+	private static Set<Segment> toSegments(Map<Point, Point> lookup, double[] coords, Line[] lines, int[] lineIds)
+	{
+		Set<Segment> segments = new LinkedHashSet<Segment>();
+
+		for (int i = 0; i < coords.length; i += 4) {
+			segments.add(new Segment(resolve(lookup, coords[i], coords[i + 1]),
+					                 resolve(lookup, coords[i + 2], coords[i + 3]),
+					                 lines[lineIds[i / 4]]));
+		}
+
+		return segments;
+	}
+
+	private static Point resolve(Map<Point, Point> lookup, double x, double y)
+	{
+		Point pt = new Point(x, y);
+		Point stored = lookup.get(pt);
+
+		return stored == null ? pt : stored;
+	}
+
+	private static void writeArray(DataOutputStream out, double[] values) throws IOException
+	{
+		out.writeInt(values.length);
+		for (double value : values) out.writeDouble(value);
+	}
+
+	private static double[] readArray(DataInputStream in) throws IOException
+	{
+		double[] values = new double[in.readInt()];
+		for (int i = 0; i < values.length; i++) values[i] = in.readDouble();
+
+		return values;
+	}
+
+	private static void writeArray(DataOutputStream out, int[] values) throws IOException
+	{
+		out.writeInt(values.length);
+		for (int value : values) out.writeInt(value);
+	}
+
+	private static int[] readIntArray(DataInputStream in) throws IOException
+	{
+		int[] values = new int[in.readInt()];
+		for (int i = 0; i < values.length; i++) values[i] = in.readInt();
+
+		return values;
+	}
+}
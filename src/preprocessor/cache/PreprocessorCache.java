@@ -0,0 +1,191 @@
+package preprocessor.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import geometry_objects.Segment;
+import geometry_objects.points.PointDatabase;
+import preprocessor.Preprocessor;
+import preprocessor.PreprocessorOptions;
+
+/**
+ * A cache in front of the Preprocessor keyed by the canonical content hash of a figure
+ * (see FigureHash). Two tiers:
+ *    (1) an in-memory, least-recently-used tier of bounded size
+ *    (2) an optional on-disk tier (one file per figure hash)
+ *
+ * Repeat analyses of the same figure become a lookup; hit / miss counts are exposed.
+ */
+public class PreprocessorCache
+{
+	public static final int DEFAULT_CAPACITY = 256;
+
+	private static final String FILE_EXTENSION = ".pre";
+
+	protected final Map<String, PreprocessedFigure> _memory;
+
+	// null if there is no on-disk tier
+	protected final Path _directory;
+
+	protected final AtomicLong _memoryHits = new AtomicLong();
+	protected final AtomicLong _diskHits = new AtomicLong();
+	protected final AtomicLong _misses = new AtomicLong();
+	protected final AtomicLong _evictions = new AtomicLong();
+
+	public long getMemoryHits() { return _memoryHits.get(); }
+	public long getDiskHits() { return _diskHits.get(); }
+	public long getHits() { return getMemoryHits() + getDiskHits(); }
+	public long getMisses() { return _misses.get(); }
+	public long getEvictions() { return _evictions.get(); }
+
+	public PreprocessorCache()
+	{
+		this(DEFAULT_CAPACITY, null);
+	}
+
+	/**
+	 * @param capacity -- maximum number of figures held in memory
+	 * @param directory -- directory for the on-disk tier; null for memory only
+	 */
+	public PreprocessorCache(int capacity, Path directory)
+	{
+		if (capacity < 1) throw new IllegalArgumentException("Cache capacity must be positive: " + capacity);
+
+		// Access-ordered map: the eldest entry is the least recently used
+		_memory = new LinkedHashMap<String, PreprocessedFigure>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreprocessedFigure> eldest)
+			{
+				if (size() <= capacity) return false;
+
+				_evictions.incrementAndGet();
+				return true;
+			}
+		};
+
+		_directory = directory;
+	}
+
+	/**
+	 * Analyze a figure, consulting the cache first. As with new Preprocessor(points, segments),
+	 * the implicit points are added to the given point database.
+	 *
+	 * @param points -- the point database of the figure
+	 * @param segments -- the given segments of the figure
+	 * @return an analyzed preprocessor
+	 */
+	public Preprocessor analyze(PointDatabase points, Set<Segment> segments)
+	{
+		return analyze(points, segments, new PreprocessorOptions());
+	}
+
+	/**
+	 * As above; on a miss the figure is analyzed with @options (e.g., reusing
+	 * a previous analysis; see PreprocessorOptions.previous).
+	 */
+	public Preprocessor analyze(PointDatabase points, Set<Segment> segments, PreprocessorOptions options)
+	{
+		String key = FigureHash.of(points, segments);
+
+		PreprocessedFigure cached = lookup(key);
+		if (cached != null) return cached.restore(points, segments);
+
+		_misses.incrementAndGet();
+
+		Preprocessor pp = new Preprocessor(points, segments, options);
+		store(key, PreprocessedFigure.of(pp));
+
+		return pp;
+	}
+
+	public synchronized int size() { return _memory.size(); }
+
+	/**
+	 * Clear the in-memory tier (the on-disk tier is untouched).
+	 */
+	public synchronized void clear() { _memory.clear(); }
+
+	private PreprocessedFigure lookup(String key)
+	{
+		synchronized (this)
+		{
+			PreprocessedFigure figure = _memory.get(key);
+			if (figure != null) {
+				_memoryHits.incrementAndGet();
+				return figure;
+			}
+		}
+
+		PreprocessedFigure figure = readFromDisk(key);
+		if (figure == null) return null;
+
+		_diskHits.incrementAndGet();
+
+		// Promote to the memory tier
+		synchronized (this) { _memory.put(key, figure); }
+
+		return figure;
+	}
+
+	private void store(String key, PreprocessedFigure figure)
+	{
+		synchronized (this) { _memory.put(key, figure); }
+
+		writeToDisk(key, figure);
+	}
+
+	private PreprocessedFigure readFromDisk(String key)
+	{
+		if (_directory == null) return null;
+
+		Path file = _directory.resolve(key + FILE_EXTENSION);
+		if (!Files.isRegularFile(file)) return null;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+		{
+			return PreprocessedFigure.read(in);
+		}
+		catch (IOException e)
+		{
+			System.err.println("Ignoring unreadable cache entry " + file + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	private void writeToDisk(String key, PreprocessedFigure figure)
+	{
+		if (_directory == null) return;
+
+		try
+		{
+			Files.createDirectories(_directory);
+
+			// Write to a temporary file and move it into place so readers never see a partial entry
+			Path tmp = Files.createTempFile(_directory, key, ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))
+			{
+				figure.write(out);
+			}
+
+			Files.move(tmp, _directory.resolve(key + FILE_EXTENSION),
+					   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			System.err.println("Unable to write cache entry for " + key + ": " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package preprocessor.control;
+
+import preprocessor.metrics.PreprocessorPhase;
+import preprocessor.metrics.PreprocessorStatistics;
+
+/**
+ * Thrown by Preprocessor.analyze() when the analysis is cancelled or runs past
+ * its deadline. Carries the statistics gathered up to that point: the
+ * completed phases and the time spent in the interrupted one.
+ */
+public class AnalysisAbortedException extends RuntimeException
+{
+	private static final long serialVersionUID = 1L;
+
+	public enum Reason { CANCELLED, DEADLINE_EXCEEDED }
+
+	protected final Reason _reason;
+	protected final PreprocessorPhase _phase;
+	protected final transient PreprocessorStatistics _statistics;
+
+	public AnalysisAbortedException(Reason reason, PreprocessorPhase phase, PreprocessorStatistics statistics)
+	{
+		super("Analysis " + (reason == Reason.CANCELLED ? "cancelled" : "exceeded its deadline") + " during " + phase);
+
+		_reason = reason;
+		_phase = phase;
+		_statistics = statistics;
+	}
+
+	public Reason getReason() { return _reason; }
+
+	/**
+	 * @return the phase that was interrupted
+	 */
+	public PreprocessorPhase getPhase() { return _phase; }
+
+	/**
+	 * @return the statistics gathered before the analysis stopped
+	 */
+	public PreprocessorStatistics getStatistics() { return _statistics; }
+}
@@ -0,0 +1,112 @@
+package preprocessor.control;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import preprocessor.metrics.PreprocessorPhase;
+import preprocessor.metrics.PreprocessorStatistics;
+
+/**
+ * Enforces the budget of one analysis (cancellation token and deadline) and
+ * reports its progress. The phases of the analysis declare their work with
+ * begin(), then call advance() as units of work complete and check() inside
+ * any loop that may run long between advances; either throws an
+ * AnalysisAbortedException once the analysis must stop.
+ *
+ * advance() and check() may be called concurrently from the threads of a
+ * parallel analysis; begin() and end() only from the analyzing thread.
+ */
+public class AnalysisMonitor
+{
+	// Granularity of progress reports within a phase
+	private static final int STEPS = 100;
+
+	protected final CancellationToken _token;
+	protected final long _deadlineNanos;
+	protected final ProgressListener _listener;
+	protected final PreprocessorStatistics _statistics;
+
+	protected volatile PreprocessorPhase _phase;
+	protected volatile long _total;
+	protected final AtomicLong _done = new AtomicLong();
+
+	// The last step reported; written (and the listener called) only under _reportLock,
+	// so reports are delivered one at a time and in increasing order
+	protected final Object _reportLock = new Object();
+	protected volatile int _reported;
+
+	/**
+	 * @param token -- cancels the analysis; may be null
+	 * @param deadlineNanos -- System.nanoTime() by which the analysis must finish; Long.MAX_VALUE for none
+	 * @param listener -- receives progress; may be null
+	 * @param statistics -- attached to the exception when the analysis stops; may be null
+	 */
+	public AnalysisMonitor(CancellationToken token, long deadlineNanos, ProgressListener listener, PreprocessorStatistics statistics)
+	{
+		_token = token;
+		_deadlineNanos = deadlineNanos;
+		_listener = listener;
+		_statistics = statistics;
+	}
+
+	public PreprocessorPhase getPhase() { return _phase; }
+
+	/**
+	 * Start a phase consisting of total units of work.
+	 */
+	public void begin(PreprocessorPhase phase, long total)
+	{
+		_phase = phase;
+		_total = Math.max(1, total);
+		_done.set(0);
+
+		check();
+		report(0);
+	}
+
+	/**
+	 * Record completed units of work in the current phase.
+	 */
+	public void advance(long work)
+	{
+		check();
+
+		if (_listener == null) return;
+
+		int step = (int) Math.min(STEPS, STEPS * _done.addAndGet(work) / _total);
+
+		// one report per step (1.0 is left to end()); a late thread never reports a smaller fraction
+		if (step > _reported && step < STEPS) report(step);
+	}
+
+	public void end()
+	{
+		report(STEPS);
+	}
+
+	private void report(int step)
+	{
+		if (_listener == null) return;
+
+		synchronized (_reportLock) {
+			// 0 starts a phase; any other step must advance on the last one reported
+			if (step != 0 && step <= _reported) return;
+
+			_reported = step;
+			_listener.progress(_phase, (double) step / STEPS);
+		}
+	}
+
+	/**
+	 * @throws AnalysisAbortedException if the analysis was cancelled or is past its deadline
+	 */
+	public void check()
+	{
+		if (_token != null && _token.isCancelled()) {
+			throw new AnalysisAbortedException(AnalysisAbortedException.Reason.CANCELLED, _phase, _statistics);
+		}
+
+		if (_deadlineNanos != Long.MAX_VALUE && System.nanoTime() - _deadlineNanos > 0) {
+			throw new AnalysisAbortedException(AnalysisAbortedException.Reason.DEADLINE_EXCEEDED, _phase, _statistics);
+		}
+	}
+}
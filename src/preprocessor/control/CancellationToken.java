@@ -0,0 +1,16 @@
+package preprocessor.control;
+
+/**
+ * Requests that an analysis stop. The analysis checks the token cooperatively
+ * (between units of work) and fails with an AnalysisAbortedException.
+ *
+ * A token may be shared by several analyses (e.g., all the jobs of a request)
+ * and cancelled from any thread; cancellation cannot be undone.
+ */
+public class CancellationToken
+{
+	protected volatile boolean _cancelled;
+
+	public void cancel() { _cancelled = true; }
+	public boolean isCancelled() { return _cancelled; }
+}
@@ -0,0 +1,20 @@
+package preprocessor.control;
+
+import preprocessor.metrics.PreprocessorPhase;
+
+/**
+ * Receives the progress of Preprocessor.analyze().
+ */
+@FunctionalInterface
+public interface ProgressListener
+{
+	/**
+	 * Called at the start (0) and end (1) of each phase and at most once per
+	 * percent in between; fractions never decrease within a phase. In a
+	 * parallel analysis this may be called from the executor's threads.
+	 *
+	 * @param phase -- the phase in progress
+	 * @param fraction -- the fraction of the phase's work done, in [0, 1]
+	 */
+	void progress(PreprocessorPhase phase, double fraction);
+}
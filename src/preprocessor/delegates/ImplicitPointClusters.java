@@ -0,0 +1,169 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import utilities.UnionFind;
+import utilities.math.MathUtilities;
+
+/**
+ * The pairwise intersections of the given segments, merged into one canonical
+ * point per location.
+ *
+ * Candidates are snapped to the fixed-point grid (see Point). Candidates in the
+ * same cell are merged with union-find. A candidate in a new cell joins an
+ * adjacent cluster only if it lies within one fixed-point unit (on each axis)
+ * of that cluster's first candidate, its anchor: two crossings within EPSILON
+ * of each other may truncate to adjacent cells (round-off of the same crossing
+ * computed from different segment pairs), but never further apart. Measuring
+ * from the anchor, not from any member, keeps a chain of adjacent cells from
+ * merging distant points. With k segments concurrent at a point, the k(k-1)/2
+ * candidates collapse into one point that records all k segments.
+ *
+ * Each cluster's canonical point is an existing database point if any member
+ * coincides with one; otherwise the first candidate found (in row order).
+ */
+public class ImplicitPointClusters
+{
+	protected final List<Segment> _givenSegments;
+
+	// Canonical points in order of discovery
+	protected final Set<Point> _points;
+
+	// Canonical point --> (ascending) indices of the given segments crossing there
+	protected final Map<Point, int[]> _incidence;
+
+	/**
+	 * @param givenPoints -- the point database (consulted, not modified)
+	 * @param givenSegments -- the segments that were intersected
+	 * @param candidates -- intersection points in row order
+	 * @param pairs -- for candidate c, the given segments pairs[2c] and pairs[2c + 1] crossing there
+	 */
+	protected ImplicitPointClusters(PointDatabase givenPoints, List<Segment> givenSegments, List<Point> candidates, int[] pairs)
+	{
+		_givenSegments = givenSegments;
+
+		int n = candidates.size();
+		UnionFind clusters = new UnionFind(n);
+
+		// The first candidate of the cluster of each candidate (valid at roots)
+		int[] anchor = new int[n];
+
+		// Grid: the first candidate in each fixed-point cell
+		Map<Point, Integer> grid = new HashMap<Point, Integer>();
+		for (int c = 0; c < n; c++) {
+			Point pt = candidates.get(c);
+			anchor[c] = c;
+
+			Integer occupant = grid.putIfAbsent(pt, c);
+			if (occupant != null) {
+				join(clusters, anchor, occupant, c);
+				continue;
+			}
+
+			// A new cell: join the first adjacent cluster whose anchor is within one unit
+			search:
+			for (long dx = -1; dx <= 1; dx++) {
+				for (long dy = -1; dy <= 1; dy++) {
+					if (dx == 0 && dy == 0) continue;
+
+					Integer neighbor = grid.get(neighbor(pt, dx, dy));
+					if (neighbor != null && adjacent(pt, candidates.get(anchor[clusters.find(neighbor)]))) {
+						join(clusters, anchor, neighbor, c);
+						break search;
+					}
+				}
+			}
+		}
+
+		// Canonical point of each cluster: a database point if possible, else the first candidate
+		Point[] canonical = new Point[n];
+		for (int c = 0; c < n; c++) {
+			int root = clusters.find(c);
+			Point stored = givenPoints.getPoint(candidates.get(c));
+
+			if (canonical[root] == null || (stored != null && givenPoints.getPoint(canonical[root]) == null)) {
+				canonical[root] = stored != null ? stored : candidates.get(c);
+			}
+		}
+
+		// Clusters in order of discovery, with their segments
+		_points = new LinkedHashSet<Point>();
+		Map<Point, List<Integer>> segments = new HashMap<Point, List<Integer>>();
+		for (int c = 0; c < n; c++) {
+			Point pt = canonical[clusters.find(c)];
+
+			if (_points.add(pt)) segments.put(pt, new ArrayList<Integer>());
+			segments.get(pt).add(pairs[2 * c]);
+			segments.get(pt).add(pairs[2 * c + 1]);
+		}
+
+		_incidence = new HashMap<Point, int[]>();
+		for (Point pt : _points) {
+			_incidence.put(pt, segments.get(pt).stream().mapToInt(Integer::intValue).sorted().distinct().toArray());
+		}
+	}
+
+	/**
+	 * @return the canonical implicit points in order of discovery
+	 */
+	public Set<Point> getPoints() { return Collections.unmodifiableSet(_points); }
+
+	public int size() { return _points.size(); }
+
+	/**
+	 * @param pt -- a canonical implicit point
+	 * @return the given segments crossing at @pt (in given order); empty if @pt is not a cluster
+	 */
+	public List<Segment> getSegmentsThrough(Point pt)
+	{
+		int[] indices = _incidence.get(pt);
+		if (indices == null) return List.of();
+
+		List<Segment> segments = new ArrayList<Segment>(indices.length);
+		for (int i : indices) segments.add(_givenSegments.get(i));
+
+		return segments;
+	}
+
+	/**
+	 * @return the indices (into the given segment list) of the segments crossing at @pt
+	 */
+	public int[] getSegmentIndicesThrough(Point pt)
+	{
+		int[] indices = _incidence.get(pt);
+
+		return indices == null ? new int[0] : Arrays.copyOf(indices, indices.length);
+	}
+
+	// Add candidate c to the cluster of member (keeping that cluster's anchor)
+	private static void join(UnionFind clusters, int[] anchor, int member, int c)
+	{
+		int first = anchor[clusters.find(member)];
+
+		clusters.union(member, c);
+		anchor[clusters.find(c)] = first;
+	}
+
+	// Within one grid cell on each axis
+	private static boolean adjacent(Point p1, Point p2)
+	{
+		return Math.abs(p1.getFixedX() - p2.getFixedX()) <= 1 && Math.abs(p1.getFixedY() - p2.getFixedY()) <= 1;
+	}
+
+	// The point one grid cell away in each direction
+	private static Point neighbor(Point pt, long dx, long dy)
+	{
+		return new Point(MathUtilities.fromFixedPoint(pt.getFixedX() + dx),
+				         MathUtilities.fromFixedPoint(pt.getFixedY() + dy));
+	}
+}
@@ -1,12 +1,16 @@
 package preprocessor.delegates;
 
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.IntStream;
 
 import geometry_objects.Segment;
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
+import preprocessor.control.AnalysisMonitor;
+import preprocessor.metrics.PreprocessorStatistics;
 
 public class ImplicitPointPreprocessor
 {
@@ -21,24 +25,112 @@ public class ImplicitPointPreprocessor
 	 */
 	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments)
 	{
-		Set<Point> implicitPoints = new LinkedHashSet<Point>();
+		return compute(givenPoints, givenSegments, null, null);
+	}
+
+	/**
+	 * @param statistics -- counts the intersection tests performed; may be null
+	 */
+	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments, PreprocessorStatistics statistics)
+	{
+		return compute(givenPoints, givenSegments, statistics, null);
+	}
+
+	/**
+	 * @param statistics -- counts the intersection tests performed; may be null
+	 * @param executor -- runs the rows of the pairwise intersection test; null for sequential
+	 */
+	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments,
+			                         PreprocessorStatistics statistics, ExecutorService executor)
+	{
+		return cluster(givenPoints, givenSegments, statistics, executor).getPoints();
+	}
+
+	/**
+	 * Intersect every pair of segments, merge coincident intersections into one
+	 * canonical point each, and add those points to the database.
+	 *
+	 * @param statistics -- counts the intersection tests performed; may be null
+	 * @param executor -- runs the rows of the pairwise intersection test; null for sequential
+	 * @return the implicit points with the given segments crossing at each
+	 */
+	public static ImplicitPointClusters cluster(PointDatabase givenPoints, List<Segment> givenSegments,
+			                                    PreprocessorStatistics statistics, ExecutorService executor)
+	{
+		return cluster(givenPoints, givenSegments, statistics, executor, null);
+	}
+
+	/**
+	 * @param monitor -- advanced by the pairs tested in each row; may be null
+	 */
+	public static ImplicitPointClusters cluster(PointDatabase givenPoints, List<Segment> givenSegments,
+			                                    PreprocessorStatistics statistics, ExecutorService executor,
+			                                    AnalysisMonitor monitor)
+	{
 		int size = givenSegments.size();
 
-        for (int i = 0; i < size; i++) {
-			for (int j = i + 1; j < size; j++) {
-				Segment a = givenSegments.get(i);
-				Segment b = givenSegments.get(j);
-
-				Point pt = a.segmentIntersection(b);
-				
-				if (pt != null) {
-					implicitPoints.add(pt);
-					givenPoints.put(pt.getName(), pt.getX(), pt.getY());
-				}
+		// Every unordered pair of segments is tested exactly once
+		if (statistics != null) statistics.addIntersectionTests((long) size * (size - 1) / 2);
+
+		// Row i holds the intersections of segment i with segments i+1 .. n-1
+		List<Integer> rows = IntStream.range(0, size).boxed().toList();
+		List<Row> intersections = PartitionedLoop.map(rows, (i) -> {
+			Row row = intersectRow(givenSegments, i);
+			if (monitor != null) monitor.advance(size - 1 - i);
+			return row;
+		}, executor);
+
+		// Candidates in row order: the same order as a sequential run
+		List<Point> candidates = new ArrayList<Point>();
+		List<Integer> pairs = new ArrayList<Integer>();
+		for (int i = 0; i < size; i++) {
+			Row row = intersections.get(i);
+
+			for (int k = 0; k < row._points.size(); k++) {
+				candidates.add(row._points.get(k));
+				pairs.add(i);
+				pairs.add(row._partners.get(k));
 			}
 		}
 
-		return implicitPoints;
+		ImplicitPointClusters clusters = new ImplicitPointClusters(givenPoints, givenSegments, candidates,
+				                                                   pairs.stream().mapToInt(Integer::intValue).toArray());
+
+		// One database insertion per distinct location not already stored
+		for (Point pt : clusters.getPoints()) {
+			if (givenPoints.getPoint(pt) == null) givenPoints.put(pt.getName(), pt.getX(), pt.getY());
+		}
+
+		return clusters;
 	}
 
+	/**
+	 * The intersections of one segment with all later segments.
+	 */
+	private static class Row
+	{
+		final List<Point> _points = new ArrayList<Point>();
+
+		// Index of the segment crossing at each point
+		final List<Integer> _partners = new ArrayList<Integer>();
+	}
+
+	private static Row intersectRow(List<Segment> givenSegments, int i)
+	{
+		Row row = new Row();
+		Segment a = givenSegments.get(i);
+
+		for (int j = i + 1; j < givenSegments.size(); j++) {
+			Segment b = givenSegments.get(j);
+
+			Point pt = a.segmentIntersection(b);
+			
+			if (pt != null) {
+				row._points.add(pt);
+				row._partners.add(j);
+			}
+		}
+
+		return row;
+	}
 }
@@ -0,0 +1,79 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Runs an independent task over each item of a list, optionally partitioned
+ * across an executor. Results are always returned in item order, so the
+ * parallel and sequential executions are indistinguishable to the caller.
+ */
+public class PartitionedLoop
+{
+	// Over-partition so that uneven items (e.g., the rows of a triangular loop) balance out
+	private static final int CHUNKS_PER_PROCESSOR = 4;
+
+	/**
+	 * @param items -- independent inputs
+	 * @param task -- computation applied to each item; must not mutate shared state
+	 * @param executor -- where to run the partitions; null to run sequentially on this thread
+	 * @return the task results, in the same order as @items
+	 */
+	public static <T, R> List<R> map(List<T> items, Function<T, R> task, ExecutorService executor)
+	{
+		if (executor == null || items.size() < 2) return mapRange(items, task, 0, items.size());
+
+		int chunks = Math.min(items.size(), CHUNKS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+		int chunkSize = (items.size() + chunks - 1) / chunks;
+
+		List<Future<List<R>>> futures = new ArrayList<Future<List<R>>>(chunks);
+		for (int start = 0; start < items.size(); start += chunkSize) {
+			final int from = start;
+			final int to = Math.min(items.size(), start + chunkSize);
+
+			Callable<List<R>> partition = () -> mapRange(items, task, from, to);
+			futures.add(executor.submit(partition));
+		}
+
+		// Merge in partition order
+		List<R> results = new ArrayList<R>(items.size());
+		for (Future<List<R>> future : futures) {
+			results.addAll(join(future));
+		}
+
+		return results;
+	}
+
+	private static <T, R> List<R> mapRange(List<T> items, Function<T, R> task, int from, int to)
+	{
+		List<R> results = new ArrayList<R>(to - from);
+
+		for (int i = from; i < to; i++) {
+			results.add(task.apply(items.get(i)));
+		}
+
+		return results;
+	}
+
+	private static <R> R join(Future<R> future)
+	{
+		try { return future.get(); }
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a partition", e);
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error) throw (Error) e.getCause();
+
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package preprocessor.diff;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.segment.SegmentNode;
+
+/**
+ * The difference between two versions of a figure.
+ *
+ * Points are matched by their canonical (fixed-point) coordinates first, so a
+ * renamed point is the same point. Points left unmatched are then matched by
+ * name: the same name at new coordinates is a moved point. Whatever remains is
+ * added or removed. Segments are matched by their endpoint coordinates.
+ *
+ * Each step is a hashed pass over the two figures: linear in their size.
+ */
+public class FigureDiff
+{
+	protected final Set<Point> _addedPoints = new LinkedHashSet<Point>();
+	protected final Set<Point> _removedPoints = new LinkedHashSet<Point>();
+
+	// old point --> new point
+	protected final Map<Point, Point> _movedPoints = new LinkedHashMap<Point, Point>();
+	protected final Map<Point, Point> _renamedPoints = new LinkedHashMap<Point, Point>();
+
+	protected final Set<Segment> _addedSegments = new LinkedHashSet<Segment>();
+	protected final Set<Segment> _removedSegments = new LinkedHashSet<Segment>();
+
+	/**
+	 * @param oldPoints, oldSegments -- the earlier version of the figure
+	 * @param newPoints, newSegments -- the later version of the figure
+	 */
+	public FigureDiff(Collection<Point> oldPoints, Collection<Segment> oldSegments,
+			          Collection<Point> newPoints, Collection<Segment> newSegments)
+	{
+		diffPoints(oldPoints, newPoints);
+		diffSegments(oldSegments, newSegments);
+	}
+
+	public static FigureDiff of(PointDatabase oldPoints, Set<Segment> oldSegments, PointDatabase newPoints, Set<Segment> newSegments)
+	{
+		return new FigureDiff(oldPoints.getPoints(), oldSegments, newPoints.getPoints(), newSegments);
+	}
+
+	public static FigureDiff of(FigureNode oldFigure, FigureNode newFigure)
+	{
+		return new FigureDiff(points(oldFigure), segments(oldFigure), points(newFigure), segments(newFigure));
+	}
+
+	private void diffPoints(Collection<Point> oldPoints, Collection<Point> newPoints)
+	{
+		// Coordinates first: Point equality is exact on fixed-point coordinates
+		Map<Point, Point> oldByLocation = new HashMap<Point, Point>();
+		for (Point pt : oldPoints) oldByLocation.put(pt, pt);
+
+		List<Point> unmatchedNew = new ArrayList<Point>();
+		Set<Point> matchedOld = new HashSet<Point>();
+		for (Point pt : newPoints) {
+			Point old = oldByLocation.get(pt);
+
+			if (old == null) unmatchedNew.add(pt);
+			else {
+				matchedOld.add(old);
+				if (!old.getName().equals(pt.getName())) _renamedPoints.put(old, pt);
+			}
+		}
+
+		// Then names, among the points left over
+		Map<String, Point> unmatchedOldByName = new HashMap<String, Point>();
+		List<Point> unmatchedOld = new ArrayList<Point>();
+		for (Point pt : oldPoints) {
+			if (matchedOld.contains(pt)) continue;
+
+			unmatchedOld.add(pt);
+			if (!pt.isUnnamed()) unmatchedOldByName.put(pt.getName(), pt);
+		}
+
+		for (Point pt : unmatchedNew) {
+			Point old = pt.isUnnamed() ? null : unmatchedOldByName.remove(pt.getName());
+
+			if (old == null) _addedPoints.add(pt);
+			else _movedPoints.put(old, pt);
+		}
+
+		for (Point pt : unmatchedOld) {
+			if (!_movedPoints.containsKey(pt)) _removedPoints.add(pt);
+		}
+	}
+
+	private void diffSegments(Collection<Segment> oldSegments, Collection<Segment> newSegments)
+	{
+		// Segment equality is on endpoint coordinates (either order)
+		Set<Segment> oldSet = new HashSet<Segment>(oldSegments);
+		Set<Segment> newSet = new HashSet<Segment>(newSegments);
+
+		for (Segment s : newSegments) if (!oldSet.contains(s)) _addedSegments.add(s);
+		for (Segment s : oldSegments) if (!newSet.contains(s)) _removedSegments.add(s);
+	}
+
+	public Set<Point> getAddedPoints() { return Collections.unmodifiableSet(_addedPoints); }
+	public Set<Point> getRemovedPoints() { return Collections.unmodifiableSet(_removedPoints); }
+
+	/**
+	 * @return points whose name is unchanged but whose coordinates changed (old --> new)
+	 */
+	public Map<Point, Point> getMovedPoints() { return Collections.unmodifiableMap(_movedPoints); }
+
+	/**
+	 * @return points whose coordinates are unchanged but whose name changed (old --> new)
+	 */
+	public Map<Point, Point> getRenamedPoints() { return Collections.unmodifiableMap(_renamedPoints); }
+
+	public Set<Segment> getAddedSegments() { return Collections.unmodifiableSet(_addedSegments); }
+	public Set<Segment> getRemovedSegments() { return Collections.unmodifiableSet(_removedSegments); }
+
+	/**
+	 * @return true if the geometry differs (renaming alone does not change the geometry)
+	 */
+	public boolean changesGeometry()
+	{
+		return !_addedPoints.isEmpty() || !_removedPoints.isEmpty() || !_movedPoints.isEmpty() ||
+			   !_addedSegments.isEmpty() || !_removedSegments.isEmpty();
+	}
+
+	/**
+	 * @return true if the two versions are identical, names included
+	 */
+	public boolean isEmpty() { return !changesGeometry() && _renamedPoints.isEmpty(); }
+
+	@Override
+	public String toString()
+	{
+		return "points +" + _addedPoints.size() + " -" + _removedPoints.size() + " moved " + _movedPoints.size() +
+			   " renamed " + _renamedPoints.size() + "; segments +" + _addedSegments.size() + " -" + _removedSegments.size();
+	}
+
+	private static List<Point> points(FigureNode figure)
+	{
+		List<Point> points = new ArrayList<Point>();
+		for (PointNode node : figure.getPointsDatabase().getPoints()) points.add(toPoint(node));
+
+		return points;
+	}
+
+	private static List<Segment> segments(FigureNode figure)
+	{
+		List<Segment> segments = new ArrayList<Segment>();
+		for (SegmentNode node : figure.getSegments().asSegmentList()) {
+			segments.add(new Segment(toPoint(node.getPoint1()), toPoint(node.getPoint2())));
+		}
+
+		return segments;
+	}
+
+	private static Point toPoint(PointNode node) { return new Point(node.getName(), node.getX(), node.getY()); }
+}
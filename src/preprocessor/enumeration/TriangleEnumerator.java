@@ -0,0 +1,357 @@
+package preprocessor.enumeration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import geometry_objects.Quadrilateral;
+import geometry_objects.Segment;
+import geometry_objects.Triangle;
+import geometry_objects.points.Point;
+import preprocessor.Preprocessor;
+import preprocessor.SegmentDatabase;
+import preprocessor.delegates.PartitionedLoop;
+import utilities.ArrayUtilities;
+
+/**
+ * Lists every triangle formed by the segments of a figure.
+ *
+ * A triangle is three points pairwise joined by segments of the segment database
+ * whose sides are not all on one line. Rather than testing segment triples, we
+ * work on the point-adjacency graph:
+ *
+ *    (1) rank the points by degree; orient each edge from lower to higher rank
+ *    (2) for each edge (u, v), the triangles on it are the common out-neighbors of
+ *        u and v: a word-wise AND of two bitsets
+ *
+ * Each triangle is produced exactly once. Collinear triples (e.g., A, B, C on
+ * A--B--C, where AC is also a segment) are rejected by comparing canonical lines.
+ *
+ * Quadrilaterals are the 4-cycles of the same graph. For each point u, every
+ * path u - v - w through higher-ranked v and w is bucketed by w; each pair of
+ * paths in a bucket closes a cycle u - v1 - w - v2 whose lowest-ranked point
+ * is u, so each cycle is produced exactly once. A cycle is a quadrilateral
+ * unless two consecutive sides share a line (it is really a triangle or a
+ * segment) or two opposite sides meet (it crosses itself).
+ */
+public class TriangleEnumerator
+{
+	// Points ordered by rank
+	protected Point[] _points;
+
+	// _higher[u] = bitset of the higher-ranked neighbors of u (the out-neighbors)
+	protected long[][] _higher;
+
+	// _neighbors[u] = all neighbors of u, by ascending rank
+	protected int[][] _neighbors;
+
+	protected SegmentDatabase _segments;
+
+	public TriangleEnumerator(Preprocessor pp)
+	{
+		this(pp.getSegmentDatabase());
+	}
+
+	public TriangleEnumerator(SegmentDatabase segments)
+	{
+		_segments = segments;
+
+		buildGraph(segments.getSegments());
+	}
+
+	public int getPointCount() { return _points.length; }
+
+	/**
+	 * @return all triangles (sequential)
+	 */
+	public List<Triangle> getTriangles()
+	{
+		List<Triangle> triangles = new ArrayList<Triangle>();
+
+		forEachTriangle(triangles::add);
+
+		return triangles;
+	}
+
+	/**
+	 * @param executor -- partitions the points across threads; null for sequential
+	 * @return all triangles, in the same order as getTriangles()
+	 */
+	public List<Triangle> getTriangles(ExecutorService executor)
+	{
+		List<Integer> ranks = IntStream.range(0, _points.length).boxed().toList();
+		List<List<Triangle>> perPoint = PartitionedLoop.map(ranks, this::trianglesAt, executor);
+
+		List<Triangle> triangles = new ArrayList<Triangle>();
+		perPoint.forEach(triangles::addAll);
+
+		return triangles;
+	}
+
+	/**
+	 * Stream the triangles to @consumer without collecting them.
+	 */
+	public void forEachTriangle(Consumer<Triangle> consumer)
+	{
+		for (int u = 0; u < _points.length; u++) {
+			enumerateAt(u, consumer);
+		}
+	}
+
+	/**
+	 * @return a lazy stream of all triangles; may be made parallel()
+	 */
+	public Stream<Triangle> stream()
+	{
+		return IntStream.range(0, _points.length).boxed().flatMap((u) -> trianglesAt(u).stream());
+	}
+
+	public long count()
+	{
+		long[] count = { 0 };
+
+		forEachTriangle((triangle) -> count[0]++);
+
+		return count[0];
+	}
+
+	/**
+	 * @return all (simple) quadrilaterals (sequential)
+	 */
+	public List<Quadrilateral> getQuadrilaterals()
+	{
+		List<Quadrilateral> quadrilaterals = new ArrayList<Quadrilateral>();
+
+		forEachQuadrilateral(quadrilaterals::add);
+
+		return quadrilaterals;
+	}
+
+	/**
+	 * @param executor -- partitions the points across threads; null for sequential
+	 * @return all quadrilaterals, in the same order as getQuadrilaterals()
+	 */
+	public List<Quadrilateral> getQuadrilaterals(ExecutorService executor)
+	{
+		List<Integer> ranks = IntStream.range(0, _points.length).boxed().toList();
+		List<List<Quadrilateral>> perPoint = PartitionedLoop.map(ranks, this::quadrilateralsAt, executor);
+
+		List<Quadrilateral> quadrilaterals = new ArrayList<Quadrilateral>();
+		perPoint.forEach(quadrilaterals::addAll);
+
+		return quadrilaterals;
+	}
+
+	/**
+	 * Stream the quadrilaterals to @consumer without collecting them.
+	 */
+	public void forEachQuadrilateral(Consumer<Quadrilateral> consumer)
+	{
+		for (int u = 0; u < _points.length; u++) {
+			enumerateQuadrilateralsAt(u, consumer);
+		}
+	}
+
+	private List<Triangle> trianglesAt(int u)
+	{
+		List<Triangle> triangles = new ArrayList<Triangle>();
+
+		enumerateAt(u, triangles::add);
+
+		return triangles;
+	}
+
+	//
+	// Triangles whose lowest-ranked point is u:
+	//     for each out-neighbor v of u, each w in out(u) AND out(v)
+	//
+	private void enumerateAt(int u, Consumer<Triangle> consumer)
+	{
+		long[] outU = _higher[u];
+
+		for (int v = nextSetBit(outU, u + 1); v >= 0; v = nextSetBit(outU, v + 1)) {
+			long[] outV = _higher[v];
+
+			// out(v) only holds ranks above v
+			for (int word = (v + 1) >>> 6; word < outU.length; word++) {
+				long common = outU[word] & outV[word];
+
+				while (common != 0) {
+					int w = (word << 6) + Long.numberOfTrailingZeros(common);
+					common &= common - 1;
+
+					Triangle triangle = makeTriangle(_points[u], _points[v], _points[w]);
+					if (triangle != null) consumer.accept(triangle);
+				}
+			}
+		}
+	}
+
+	private List<Quadrilateral> quadrilateralsAt(int u)
+	{
+		List<Quadrilateral> quadrilaterals = new ArrayList<Quadrilateral>();
+
+		enumerateQuadrilateralsAt(u, quadrilaterals::add);
+
+		return quadrilaterals;
+	}
+
+	//
+	// 4-cycles whose lowest-ranked point is u: paths u - v - w with v, w above u,
+	// grouped by w; any two paths to the same w close a cycle u - v1 - w - v2
+	//
+	private void enumerateQuadrilateralsAt(int u, Consumer<Quadrilateral> consumer)
+	{
+		Map<Integer, List<Integer>> paths = new HashMap<Integer, List<Integer>>();
+
+		for (int v : _neighbors[u]) {
+			if (v < u) continue;
+
+			for (int w : _neighbors[v]) {
+				if (w > u) paths.computeIfAbsent(w, (key) -> new ArrayList<Integer>()).add(v);
+			}
+		}
+
+		for (Map.Entry<Integer, List<Integer>> entry : paths.entrySet()) {
+			List<Integer> middles = entry.getValue();
+
+			for (int i = 0; i < middles.size(); i++) {
+				for (int j = i + 1; j < middles.size(); j++) {
+					Quadrilateral quadrilateral = makeQuadrilateral(_points[u], _points[middles.get(i)],
+							                                        _points[entry.getKey()], _points[middles.get(j)]);
+					if (quadrilateral != null) consumer.accept(quadrilateral);
+				}
+			}
+		}
+	}
+
+	private Quadrilateral makeQuadrilateral(Point a, Point b, Point c, Point d)
+	{
+		Segment ab = _segments.get(a, b);
+		Segment bc = _segments.get(b, c);
+		Segment cd = _segments.get(c, d);
+		Segment da = _segments.get(d, a);
+
+		// Consecutive sides on one line: a triangle (or segment) with an extra vertex
+		if (ab.getLine().equals(bc.getLine()) || bc.getLine().equals(cd.getLine()) ||
+			cd.getLine().equals(da.getLine()) || da.getLine().equals(ab.getLine())) return null;
+
+		// Opposite sides meeting: a self-crossing 'bow tie'
+		if (meet(a, b, c, d) || meet(b, c, d, a)) return null;
+
+		return new Quadrilateral(a, b, c, d, ab, bc, cd, da);
+	}
+
+	//
+	// Do segments pq and rs (no shared endpoint) meet, touching included? Opposite
+	// sides never share a line here: a side joining them would too, and consecutive
+	// collinear sides are rejected first.
+	//
+	private static boolean meet(Point p, Point q, Point r, Point s)
+	{
+		return orientation(p, q, r) * orientation(p, q, s) <= 0 && orientation(r, s, p) * orientation(r, s, q) <= 0;
+	}
+
+	// Sign of the cross product (q - p) x (r - p)
+	private static int orientation(Point p, Point q, Point r)
+	{
+		return (int) Math.signum((q.getX() - p.getX()) * (r.getY() - p.getY()) - (q.getY() - p.getY()) * (r.getX() - p.getX()));
+	}
+
+	private Triangle makeTriangle(Point a, Point b, Point c)
+	{
+		Segment ab = _segments.get(a, b);
+		Segment bc = _segments.get(b, c);
+		Segment ca = _segments.get(c, a);
+
+		// Three points on one line: the 'triangle' is a segment
+		if (ab.getLine().equals(bc.getLine())) return null;
+
+		return new Triangle(a, b, c, ab, bc, ca);
+	}
+
+	private void buildGraph(Collection<Segment> segments)
+	{
+		//
+		// Distinct endpoints and their degrees
+		//
+		Map<Point, Integer> ids = new HashMap<Point, Integer>();
+		List<Point> points = new ArrayList<Point>();
+		List<int[]> edges = new ArrayList<int[]>(segments.size());
+
+		for (Segment segment : segments) {
+			int a = ids.computeIfAbsent(segment.getPoint1(), (pt) -> { points.add(pt); return points.size() - 1; });
+			int b = ids.computeIfAbsent(segment.getPoint2(), (pt) -> { points.add(pt); return points.size() - 1; });
+
+			if (a != b) edges.add(new int[] { a, b });
+		}
+
+		int n = points.size();
+		double[] degree = new double[n];
+		int[] byDegree = new int[n];
+		for (int i = 0; i < n; i++) byDegree[i] = i;
+		for (int[] edge : edges) {
+			degree[edge[0]]++;
+			degree[edge[1]]++;
+		}
+
+		//
+		// Rank by degree (low degree first) so high-degree points have few out-neighbors
+		//
+		ArrayUtilities.sortByKey(degree, byDegree, n);
+
+		int[] rank = new int[n];
+		_points = new Point[n];
+		for (int r = 0; r < n; r++) {
+			rank[byDegree[r]] = r;
+			_points[r] = points.get(byDegree[r]);
+		}
+
+		int words = (n + 63) >>> 6;
+		_higher = new long[n][words];
+
+		for (int[] edge : edges) {
+			int u = Math.min(rank[edge[0]], rank[edge[1]]);
+			int v = Math.max(rank[edge[0]], rank[edge[1]]);
+
+			_higher[u][v >>> 6] |= 1L << v;
+		}
+
+		// Full adjacency (for quadrilaterals), read off the bitsets so duplicate edges collapse
+		List<List<Integer>> neighbors = new ArrayList<List<Integer>>(n);
+		for (int u = 0; u < n; u++) neighbors.add(new ArrayList<Integer>());
+
+		for (int u = 0; u < n; u++) {
+			for (int v = nextSetBit(_higher[u], u + 1); v >= 0; v = nextSetBit(_higher[u], v + 1)) {
+				neighbors.get(u).add(v);
+				neighbors.get(v).add(u);
+			}
+		}
+
+		_neighbors = new int[n][];
+		for (int u = 0; u < n; u++) {
+			_neighbors[u] = neighbors.get(u).stream().mapToInt(Integer::intValue).sorted().toArray();
+		}
+	}
+
+	private static int nextSetBit(long[] bits, int from)
+	{
+		int word = from >>> 6;
+		if (word >= bits.length) return -1;
+
+		long current = bits[word] & (-1L << from);
+
+		while (true) {
+			if (current != 0) return (word << 6) + Long.numberOfTrailingZeros(current);
+
+			if (++word == bits.length) return -1;
+			current = bits[word];
+		}
+	}
+}
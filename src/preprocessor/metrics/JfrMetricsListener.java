@@ -0,0 +1,82 @@
+package preprocessor.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Publishes preprocessor measurements as Java Flight Recorder events:
+ *     preprocessor.Phase    -- one per phase of each analysis
+ *     preprocessor.Analysis -- one per analysis (counters)
+ *
+ * Events are only built when a recording has them enabled.
+ */
+public class JfrMetricsListener implements MetricsListener
+{
+	@Name("preprocessor.Phase")
+	@Label("Preprocessor Phase")
+	@Category("Geometry")
+	@StackTrace(false)
+	static class PhaseEvent extends Event
+	{
+		@Label("Phase")
+		String phase;
+
+		@Label("Wall Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long nanos;
+
+		@Label("Allocated Bytes")
+		@Description("-1 if allocation could not be measured")
+		long allocatedBytes;
+	}
+
+	@Name("preprocessor.Analysis")
+	@Label("Preprocessor Analysis")
+	@Category("Geometry")
+	@StackTrace(false)
+	static class AnalysisEvent extends Event
+	{
+		@Label("Wall Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long nanos;
+
+		@Label("Intersection Tests")
+		long intersectionTests;
+
+		@Label("pointLiesOn Calls")
+		long pointLiesOnCalls;
+
+		@Label("Max Recursion Depth")
+		int maxRecursionDepth;
+	}
+
+	@Override
+	public void phaseCompleted(PreprocessorPhase phase, long nanos, long allocatedBytes)
+	{
+		PhaseEvent event = new PhaseEvent();
+		if (!event.isEnabled()) return;
+
+		event.phase = phase.name();
+		event.nanos = nanos;
+		event.allocatedBytes = allocatedBytes;
+		event.commit();
+	}
+
+	@Override
+	public void analysisCompleted(PreprocessorStatistics statistics)
+	{
+		AnalysisEvent event = new AnalysisEvent();
+		if (!event.isEnabled()) return;
+
+		event.nanos = statistics.getTotalNanos();
+		event.intersectionTests = statistics.getIntersectionTests();
+		event.pointLiesOnCalls = statistics.getPointLiesOnCalls();
+		event.maxRecursionDepth = statistics.getMaxRecursionDepth();
+		event.commit();
+	}
+}
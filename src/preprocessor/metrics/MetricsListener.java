@@ -0,0 +1,22 @@
+package preprocessor.metrics;
+
+/**
+ * Receives instrumentation from Preprocessor.analyze().
+ * 
+ * A Preprocessor without a listener collects nothing.
+ */
+public interface MetricsListener
+{
+	/**
+	 * @param phase -- the phase that just finished
+	 * @param nanos -- wall time of the phase in nanoseconds
+	 * @param allocatedBytes -- bytes allocated by the analyzing thread during the phase;
+	 *                          -1 if the platform cannot measure allocation
+	 */
+	void phaseCompleted(PreprocessorPhase phase, long nanos, long allocatedBytes);
+
+	/**
+	 * @param statistics -- all statistics gathered over the analysis
+	 */
+	default void analysisCompleted(PreprocessorStatistics statistics) { }
+}
@@ -0,0 +1,13 @@
+package preprocessor.metrics;
+
+/**
+ * The phases of Preprocessor.analyze() in the order they are executed.
+ */
+public enum PreprocessorPhase
+{
+	IMPLICIT_POINTS,
+	IMPLICIT_BASE_SEGMENTS,
+	MINIMAL_SEGMENTS,
+	NON_MINIMAL_SEGMENTS,
+	SEGMENT_DATABASE
+}
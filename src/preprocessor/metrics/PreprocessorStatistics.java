@@ -0,0 +1,105 @@
+package preprocessor.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and per-phase measurements gathered during one Preprocessor.analyze().
+ *
+ * Counters may be updated concurrently (parallel analysis); phases are
+ * begun and ended by the analyzing thread only.
+ */
+public class PreprocessorStatistics
+{
+	private static final PreprocessorPhase[] PHASES = PreprocessorPhase.values();
+
+	// Allocation is only measurable on HotSpot-derived JVMs
+	private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+	protected final long[] _phaseNanos = new long[PHASES.length];
+	protected final long[] _phaseBytes = new long[PHASES.length];
+
+	protected long _startNanos;
+	protected long _startBytes;
+
+	protected final LongAdder _intersectionTests = new LongAdder();
+	protected final LongAdder _pointLiesOnCalls = new LongAdder();
+	protected final AtomicInteger _maxRecursionDepth = new AtomicInteger();
+
+	public long getIntersectionTests() { return _intersectionTests.sum(); }
+	public long getPointLiesOnCalls() { return _pointLiesOnCalls.sum(); }
+	public int getMaxRecursionDepth() { return _maxRecursionDepth.get(); }
+
+	public long getNanos(PreprocessorPhase phase) { return _phaseNanos[phase.ordinal()]; }
+	public long getAllocatedBytes(PreprocessorPhase phase) { return _phaseBytes[phase.ordinal()]; }
+
+	public long getTotalNanos()
+	{
+		long total = 0;
+		for (long nanos : _phaseNanos) total += nanos;
+
+		return total;
+	}
+
+	public void addIntersectionTests(long count) { _intersectionTests.add(count); }
+	public void addPointLiesOnCalls(long count) { _pointLiesOnCalls.add(count); }
+	public void recordRecursionDepth(int depth) { _maxRecursionDepth.accumulateAndGet(depth, Math::max); }
+
+	/**
+	 * Mark the start of a phase (phases do not nest).
+	 */
+	public void begin(PreprocessorPhase phase)
+	{
+		_startBytes = allocatedBytes();
+		_startNanos = System.nanoTime();
+	}
+
+	/**
+	 * Mark the end of a phase, recording its wall time and allocation.
+	 */
+	public void end(PreprocessorPhase phase)
+	{
+		_phaseNanos[phase.ordinal()] = System.nanoTime() - _startNanos;
+
+		long bytes = allocatedBytes();
+		_phaseBytes[phase.ordinal()] = bytes < 0 ? -1 : bytes - _startBytes;
+	}
+
+	private static long allocatedBytes()
+	{
+		if (ALLOCATION_BEAN == null) return -1;
+
+		return ALLOCATION_BEAN.getCurrentThreadAllocatedBytes();
+	}
+
+	private static com.sun.management.ThreadMXBean allocationBean()
+	{
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+		if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+
+		com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+		if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) return null;
+
+		return sunBean;
+	}
+
+	@Override
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+
+		for (PreprocessorPhase phase : PHASES) {
+			sb.append(phase).append(": ").append(getNanos(phase) / 1000).append(" us, ")
+			  .append(getAllocatedBytes(phase)).append(" bytes\n");
+		}
+
+		sb.append("intersection tests: ").append(getIntersectionTests()).append('\n');
+		sb.append("pointLiesOn calls: ").append(getPointLiesOnCalls()).append('\n');
+		sb.append("max recursion depth: ").append(getMaxRecursionDepth()).append('\n');
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,168 @@
+package preprocessor.spatial;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import geometry_objects.points.Point;
+
+/**
+ * A static 2-d tree over a set of points for nearest / k-nearest queries.
+ *
+ * The tree is implicit: the points are permuted in place so that the median of
+ * each range [lo, hi) sits at (lo + hi) / 2, split alternately on x and y.
+ * Coordinates are held in primitive arrays; no node objects are allocated.
+ */
+public class PointKdTree
+{
+	protected final Point[] _points;
+	protected final double[] _xs;
+	protected final double[] _ys;
+
+	public PointKdTree(Collection<Point> points)
+	{
+		int n = points.size();
+		_points = points.toArray(new Point[n]);
+		_xs = new double[n];
+		_ys = new double[n];
+
+		for (int i = 0; i < n; i++) {
+			_xs[i] = _points[i].getX();
+			_ys[i] = _points[i].getY();
+		}
+
+		build(0, n, 0);
+	}
+
+	public int size() { return _points.length; }
+
+	//
+	// Place the median (by axis) of [lo, hi) at the middle, then recurse on either side
+	//
+	private void build(int lo, int hi, int depth)
+	{
+		if (hi - lo <= 1) return;
+
+		int mid = (lo + hi) >>> 1;
+		select(lo, hi - 1, mid, depth & 1);
+
+		build(lo, mid, depth + 1);
+		build(mid + 1, hi, depth + 1);
+	}
+
+	// Quickselect: the k-th smallest on the axis ends up at index k
+	private void select(int lo, int hi, int k, int axis)
+	{
+		double[] keys = axis == 0 ? _xs : _ys;
+
+		while (lo < hi) {
+			double pivot = keys[(lo + hi) >>> 1];
+
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (keys[i] < pivot) i++;
+				while (keys[j] > pivot) j--;
+				if (i <= j) swap(i++, j--);
+			}
+
+			if (k <= j) hi = j;
+			else if (k >= i) lo = i;
+			else return;
+		}
+	}
+
+	private void swap(int i, int j)
+	{
+		Point p = _points[i]; _points[i] = _points[j]; _points[j] = p;
+		double x = _xs[i]; _xs[i] = _xs[j]; _xs[j] = x;
+		double y = _ys[i]; _ys[i] = _ys[j]; _ys[j] = y;
+	}
+
+	/**
+	 * @return the point nearest (x, y); null if the tree is empty
+	 */
+	public Point nearest(double x, double y)
+	{
+		List<Point> nearest = nearest(x, y, 1);
+
+		return nearest.isEmpty() ? null : nearest.get(0);
+	}
+
+	/**
+	 * @param k -- number of points requested
+	 * @return the (up to) k points nearest (x, y), nearest first
+	 */
+	public List<Point> nearest(double x, double y, int k)
+	{
+		k = Math.min(k, _points.length);
+
+		Neighbors neighbors = new Neighbors(k);
+		if (k > 0) search(0, _points.length, 0, x, y, neighbors);
+
+		List<Point> result = new ArrayList<Point>(neighbors._size);
+		for (int i = 0; i < neighbors._size; i++) result.add(_points[neighbors._indices[i]]);
+
+		return result;
+	}
+
+	private void search(int lo, int hi, int depth, double x, double y, Neighbors neighbors)
+	{
+		if (lo >= hi) return;
+
+		int mid = (lo + hi) >>> 1;
+		double dx = _xs[mid] - x;
+		double dy = _ys[mid] - y;
+		neighbors.offer(mid, dx * dx + dy * dy);
+
+		// Signed distance from the query to the splitting line
+		double split = (depth & 1) == 0 ? x - _xs[mid] : y - _ys[mid];
+
+		// Visit the query's side first; the far side only if the ball crosses the split
+		if (split < 0) {
+			search(lo, mid, depth + 1, x, y, neighbors);
+			if (split * split < neighbors.bound()) search(mid + 1, hi, depth + 1, x, y, neighbors);
+		}
+		else {
+			search(mid + 1, hi, depth + 1, x, y, neighbors);
+			if (split * split < neighbors.bound()) search(lo, mid, depth + 1, x, y, neighbors);
+		}
+	}
+
+	/**
+	 * The k best candidates so far, kept sorted by squared distance (k is small).
+	 */
+	private static class Neighbors
+	{
+		final int[] _indices;
+		final double[] _distances;
+		int _size;
+
+		Neighbors(int k)
+		{
+			_indices = new int[k];
+			_distances = new double[k];
+		}
+
+		// Squared radius a candidate must beat
+		double bound()
+		{
+			return _size < _indices.length ? Double.POSITIVE_INFINITY : _distances[_size - 1];
+		}
+
+		void offer(int index, double distance)
+		{
+			if (distance >= bound()) return;
+
+			int i = _size < _indices.length ? _size++ : _size - 1;
+			while (i > 0 && _distances[i - 1] > distance) {
+				_distances[i] = _distances[i - 1];
+				_indices[i] = _indices[i - 1];
+				i--;
+			}
+
+			_distances[i] = distance;
+			_indices[i] = index;
+		}
+	}
+}
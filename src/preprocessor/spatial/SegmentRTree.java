@@ -0,0 +1,312 @@
+package preprocessor.spatial;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import utilities.ArrayUtilities;
+import utilities.math.MathUtilities;
+
+/**
+ * A static R-tree over segments, bulk loaded with Sort-Tile-Recursive packing.
+ *
+ * Level 0 holds the segments' bounding boxes; each level above packs
+ * NODE_CAPACITY consecutive entries of the level below into one node. STR
+ * ordering makes the children of a node contiguous, so a node is just its
+ * box and a [start, end) range into the level below. All boxes are primitives.
+ */
+public class SegmentRTree
+{
+	protected static final int NODE_CAPACITY = 16;
+
+	protected final Segment[] _segments;
+
+	// _minX[level][i] ... : bounding box of entry i on a level (level 0: segments)
+	protected final double[][] _minX;
+	protected final double[][] _minY;
+	protected final double[][] _maxX;
+	protected final double[][] _maxY;
+
+	// _children[level]: children (on level - 1) of node i are [_children[level][i], _children[level][n + i])
+	protected final int[][] _children;
+
+	public SegmentRTree(Collection<Segment> segments)
+	{
+		int n = segments.size();
+		Segment[] input = segments.toArray(new Segment[n]);
+
+		double[] minX = new double[n];
+		double[] minY = new double[n];
+		double[] maxX = new double[n];
+		double[] maxY = new double[n];
+		for (int i = 0; i < n; i++) {
+			Segment s = input[i];
+			minX[i] = Math.min(s.getPoint1().getX(), s.getPoint2().getX());
+			maxX[i] = Math.max(s.getPoint1().getX(), s.getPoint2().getX());
+			minY[i] = Math.min(s.getPoint1().getY(), s.getPoint2().getY());
+			maxY[i] = Math.max(s.getPoint1().getY(), s.getPoint2().getY());
+		}
+
+		List<double[][]> boxes = new ArrayList<double[][]>();
+		List<int[]> starts = new ArrayList<int[]>();
+
+		// Level 0: the segments themselves, in STR order
+		int[] order = strOrder(minX, minY, maxX, maxY, n);
+		_segments = new Segment[n];
+		for (int i = 0; i < n; i++) _segments[i] = input[order[i]];
+		boxes.add(permute(order, minX, minY, maxX, maxY));
+		starts.add(null);
+
+		// Pack until a single root remains
+		while (boxes.get(boxes.size() - 1)[0].length > 1) {
+			double[][] below = boxes.get(boxes.size() - 1);
+			int count = below[0].length;
+			int nodes = (count + NODE_CAPACITY - 1) / NODE_CAPACITY;
+
+			double[][] level = new double[4][nodes];
+			int[] children = new int[2 * nodes];
+			for (int node = 0; node < nodes; node++) {
+				int from = node * NODE_CAPACITY;
+				int to = Math.min(from + NODE_CAPACITY, count);
+				children[node] = from;
+				children[nodes + node] = to;
+
+				level[0][node] = level[1][node] = Double.POSITIVE_INFINITY;
+				level[2][node] = level[3][node] = Double.NEGATIVE_INFINITY;
+				for (int c = from; c < to; c++) {
+					level[0][node] = Math.min(level[0][node], below[0][c]);
+					level[1][node] = Math.min(level[1][node], below[1][c]);
+					level[2][node] = Math.max(level[2][node], below[2][c]);
+					level[3][node] = Math.max(level[3][node], below[3][c]);
+				}
+			}
+			// Nodes of the next level up must themselves be in STR order; reorder the
+			// nodes (carrying their child ranges) rather than the children.
+			if (nodes > NODE_CAPACITY) {
+				int[] nodeOrder = strOrder(level[0], level[1], level[2], level[3], nodes);
+				level = permute(nodeOrder, level[0], level[1], level[2], level[3]);
+				children = permuteRanges(nodeOrder, children);
+			}
+
+			boxes.add(level);
+			starts.add(children);
+		}
+
+		int levels = boxes.size();
+		_minX = new double[levels][];
+		_minY = new double[levels][];
+		_maxX = new double[levels][];
+		_maxY = new double[levels][];
+		_children = new int[levels][];
+		for (int l = 0; l < levels; l++) {
+			_minX[l] = boxes.get(l)[0];
+			_minY[l] = boxes.get(l)[1];
+			_maxX[l] = boxes.get(l)[2];
+			_maxY[l] = boxes.get(l)[3];
+			_children[l] = starts.get(l);
+		}
+	}
+
+	public int size() { return _segments.length; }
+
+	/**
+	 * @return all segments passing within @tolerance of (x, y)
+	 */
+	public List<Segment> stab(double x, double y, double tolerance)
+	{
+		List<Segment> result = new ArrayList<Segment>();
+		if (_segments.length == 0) return result;
+
+		for (int root = 0; root < _minX[top()].length; root++) {
+			stab(top(), root, x, y, tolerance, result);
+		}
+
+		return result;
+	}
+
+	private void stab(int level, int i, double x, double y, double tolerance, List<Segment> result)
+	{
+		if (x < _minX[level][i] - tolerance || x > _maxX[level][i] + tolerance ||
+			y < _minY[level][i] - tolerance || y > _maxY[level][i] + tolerance) return;
+
+		if (level == 0) {
+			if (distanceSquared(_segments[i], x, y) <= tolerance * tolerance) result.add(_segments[i]);
+			return;
+		}
+
+		int[] ranges = _children[level];
+		int end = childEnd(level, i);
+		for (int c = ranges[i]; c < end; c++) stab(level - 1, c, x, y, tolerance, result);
+	}
+
+	/**
+	 * @return all segments on which @pt lies, by Segment.pointLiesOnSegment
+	 */
+	public List<Segment> stab(Point pt)
+	{
+		List<Segment> result = new ArrayList<Segment>();
+		if (_segments.length == 0) return result;
+
+		for (int root = 0; root < _minX[top()].length; root++) {
+			stab(top(), root, pt, result);
+		}
+
+		return result;
+	}
+
+	private void stab(int level, int i, Point pt, List<Segment> result)
+	{
+		// pointLiesOnSegment compares lengths (|AM| + |MB| = |AB| within EPSILON), so
+		// it accepts points up to about sqrt(EPSILON * |AB| / 2) off a segment; no
+		// segment in a box is longer than its width plus its height
+		double tolerance = Math.sqrt(MathUtilities.EPSILON * (_maxX[level][i] - _minX[level][i] +
+				                                              _maxY[level][i] - _minY[level][i])) + MathUtilities.EPSILON;
+
+		if (pt.getX() < _minX[level][i] - tolerance || pt.getX() > _maxX[level][i] + tolerance ||
+			pt.getY() < _minY[level][i] - tolerance || pt.getY() > _maxY[level][i] + tolerance) return;
+
+		if (level == 0) {
+			if (_segments[i].pointLiesOnSegment(pt)) result.add(_segments[i]);
+			return;
+		}
+
+		int[] ranges = _children[level];
+		int end = childEnd(level, i);
+		for (int c = ranges[i]; c < end; c++) stab(level - 1, c, pt, result);
+	}
+
+	/**
+	 * @return all segments that intersect the (closed) axis-aligned window
+	 */
+	public List<Segment> window(double minX, double minY, double maxX, double maxY)
+	{
+		List<Segment> result = new ArrayList<Segment>();
+		if (_segments.length == 0) return result;
+
+		for (int root = 0; root < _minX[top()].length; root++) {
+			window(top(), root, minX, minY, maxX, maxY, result);
+		}
+
+		return result;
+	}
+
+	private void window(int level, int i, double minX, double minY, double maxX, double maxY, List<Segment> result)
+	{
+		if (_maxX[level][i] < minX || _minX[level][i] > maxX ||
+			_maxY[level][i] < minY || _minY[level][i] > maxY) return;
+
+		if (level == 0) {
+			if (intersectsWindow(_segments[i], minX, minY, maxX, maxY)) result.add(_segments[i]);
+			return;
+		}
+
+		int[] ranges = _children[level];
+		int end = childEnd(level, i);
+		for (int c = ranges[i]; c < end; c++) window(level - 1, c, minX, minY, maxX, maxY, result);
+	}
+
+	private int top() { return _minX.length - 1; }
+
+	private int childEnd(int level, int i) { return _children[level][_minX[level].length + i]; }
+
+	//
+	// Squared distance from (x, y) to a (finite) segment
+	//
+	private static double distanceSquared(Segment s, double x, double y)
+	{
+		double x1 = s.getPoint1().getX(), y1 = s.getPoint1().getY();
+		double dx = s.getPoint2().getX() - x1, dy = s.getPoint2().getY() - y1;
+
+		double lengthSquared = dx * dx + dy * dy;
+		double t = lengthSquared == 0 ? 0 : ((x - x1) * dx + (y - y1) * dy) / lengthSquared;
+		t = Math.max(0, Math.min(1, t));
+
+		double px = x1 + t * dx - x, py = y1 + t * dy - y;
+		return px * px + py * py;
+	}
+
+	//
+	// Liang-Barsky clip: does any part of the segment fall inside the window?
+	//
+	private static boolean intersectsWindow(Segment s, double minX, double minY, double maxX, double maxY)
+	{
+		double x1 = s.getPoint1().getX(), y1 = s.getPoint1().getY();
+		double dx = s.getPoint2().getX() - x1, dy = s.getPoint2().getY() - y1;
+
+		double[] p = { -dx, dx, -dy, dy };
+		double[] q = { x1 - minX, maxX - x1, y1 - minY, maxY - y1 };
+
+		double t0 = 0, t1 = 1;
+		for (int i = 0; i < 4; i++) {
+			if (p[i] == 0) {
+				if (q[i] < 0) return false;
+				continue;
+			}
+
+			double t = q[i] / p[i];
+			if (p[i] < 0) t0 = Math.max(t0, t);
+			else t1 = Math.min(t1, t);
+
+			if (t0 > t1) return false;
+		}
+
+		return true;
+	}
+
+	//
+	// Sort-Tile-Recursive order: sort by center x, cut into vertical slices of
+	// sqrt(P) nodes each, then sort each slice by center y
+	//
+	private static int[] strOrder(double[] minX, double[] minY, double[] maxX, double[] maxY, int n)
+	{
+		int[] order = new int[n];
+		double[] keys = new double[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+			keys[i] = minX[i] + maxX[i];
+		}
+		ArrayUtilities.sortByKey(keys, order, n);
+
+		int nodes = (n + NODE_CAPACITY - 1) / NODE_CAPACITY;
+		int sliceSize = (int)Math.ceil(Math.sqrt(nodes)) * NODE_CAPACITY;
+
+		for (int from = 0; from < n; from += sliceSize) {
+			int to = Math.min(from + sliceSize, n);
+			for (int i = from; i < to; i++) keys[i] = minY[order[i]] + maxY[order[i]];
+			ArrayUtilities.sortByKey(keys, order, from, to);
+		}
+
+		return order;
+	}
+
+	private static double[][] permute(int[] order, double[] minX, double[] minY, double[] maxX, double[] maxY)
+	{
+		int n = order.length;
+		double[][] boxes = new double[4][n];
+		for (int i = 0; i < n; i++) {
+			boxes[0][i] = minX[order[i]];
+			boxes[1][i] = minY[order[i]];
+			boxes[2][i] = maxX[order[i]];
+			boxes[3][i] = maxY[order[i]];
+		}
+
+		return boxes;
+	}
+
+	//
+	// Reorder child ranges with their nodes: starts in [0, n), ends in [n, 2n)
+	//
+	private static int[] permuteRanges(int[] order, int[] children)
+	{
+		int n = order.length;
+		int[] ranges = new int[2 * n];
+		for (int i = 0; i < n; i++) {
+			ranges[i] = children[order[i]];
+			ranges[n + i] = children[n + order[i]];
+		}
+
+		return ranges;
+	}
+}
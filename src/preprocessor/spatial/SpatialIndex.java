@@ -0,0 +1,78 @@
+package preprocessor.spatial;
+
+import java.util.Collection;
+import java.util.List;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import preprocessor.Preprocessor;
+
+/**
+ * Spatial queries over an analyzed figure:
+ *
+ *    * nearest / k-nearest point           (k-d tree over the point database)
+ *    * segments passing through a point    (R-tree stabbing query)
+ *    * segments meeting a rectangle        (R-tree window query)
+ *
+ * Both structures are static and bulk loaded once; build a new index if the
+ * figure changes.
+ */
+public class SpatialIndex
+{
+	protected final PointKdTree _points;
+	protected final SegmentRTree _segments;
+
+	public SpatialIndex(Preprocessor pp)
+	{
+		this(pp.getPointDatabase(), pp.getSegmentDatabase().getSegments());
+	}
+
+	/**
+	 * @param points -- all points of the figure (explicit and implicit)
+	 * @param segments -- all segments of the figure
+	 */
+	public SpatialIndex(PointDatabase points, Collection<Segment> segments)
+	{
+		_points = new PointKdTree(points.getPoints());
+		_segments = new SegmentRTree(segments);
+	}
+
+	/**
+	 * @return the point nearest (x, y); null for an empty figure
+	 */
+	public Point nearestPoint(double x, double y) { return _points.nearest(x, y); }
+
+	/**
+	 * @return the (up to) k points nearest (x, y), nearest first
+	 */
+	public List<Point> nearestPoints(double x, double y, int k) { return _points.nearest(x, y, k); }
+
+	/**
+	 * Points are truncated to a grid coarser than EPSILON, so an implicit point
+	 * is generally not within EPSILON of the segments that cross at it; the
+	 * query uses the same test as Segment.pointLiesOnSegment instead of a
+	 * distance.
+	 *
+	 * @return all segments through @pt
+	 */
+	public List<Segment> segmentsThrough(Point pt) { return _segments.stab(pt); }
+
+	/**
+	 * @return all segments through the point (x, y)
+	 */
+	public List<Segment> segmentsThrough(double x, double y) { return segmentsThrough(new Point(x, y)); }
+
+	/**
+	 * @return all segments passing within @tolerance of (x, y)
+	 */
+	public List<Segment> segmentsNear(double x, double y, double tolerance) { return _segments.stab(x, y, tolerance); }
+
+	/**
+	 * @return all segments intersecting the closed rectangle [minX, maxX] x [minY, maxY]
+	 */
+	public List<Segment> segmentsInWindow(double minX, double minY, double maxX, double maxY)
+	{
+		return _segments.window(minX, minY, maxX, maxY);
+	}
+}
@@ -0,0 +1,274 @@
+package preprocessor.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import preprocessor.Preprocessor;
+
+/**
+ * A preprocessed figure persisted as a single file and opened read-only with
+ * FileChannel.map: no JSON parsing and no analysis on startup.
+ *
+ * File layout (little endian):
+ *
+ *    header
+ *        int magic | int version | long crc32 (of header bytes 16.. and everything after the header)
+ *        int pointBytes | int segmentBytes
+ *        int given | int implicitPoints | int implicitSegments | int minimal   (counts)
+ *    OffHeapPointStore       (all points, including generated names)
+ *    OffHeapSegmentStore     (the segment database, with the line of each segment)
+ *    int id                  x implicitPoints                (point ids)
+ *    int point1, int point2  x given                         (point id pairs)
+ *    int id                  x implicitSegments + minimal    (segment ids)
+ *
+ * Computed segments are saved by segment id so that they keep the line they
+ * inherited from their given segment; given segments are rebuilt from their
+ * endpoints exactly as the input produced them.
+ *
+ * Queries go straight to the mapped bytes through the point and segment stores;
+ * restore() materializes a full Preprocessor when the object API is needed.
+ */
+public class FigureSnapshot
+{
+	public static final int MAGIC = 0x47534E50; // "GSNP"
+
+	// Bumped whenever the layout changes
+	public static final int FORMAT_VERSION = 3;
+
+	protected static final int HEADER_BYTES = 40;
+
+	// The checksum covers the header from the section sizes on
+	protected static final int CHECKED_HEADER_OFFSET = 16;
+
+	protected final OffHeapPointStore _points;
+	protected final OffHeapSegmentStore _segments;
+
+	protected final ByteBuffer _ids;
+	protected final int _givenCount;
+	protected final int _implicitPointCount;
+	protected final int _implicitSegmentCount;
+	protected final int _minimalCount;
+
+	protected FigureSnapshot(ByteBuffer buffer)
+	{
+		int pointBytes = buffer.getInt(16);
+		int segmentBytes = buffer.getInt(20);
+		_givenCount = buffer.getInt(24);
+		_implicitPointCount = buffer.getInt(28);
+		_implicitSegmentCount = buffer.getInt(32);
+		_minimalCount = buffer.getInt(36);
+
+		int offset = HEADER_BYTES;
+		_points = new OffHeapPointStore(buffer.slice(offset, pointBytes));
+		offset += pointBytes;
+		_segments = new OffHeapSegmentStore(buffer.slice(offset, segmentBytes), _points);
+		offset += segmentBytes;
+		_ids = buffer.slice(offset, buffer.capacity() - offset).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Persist the results of an analysis.
+	 *
+	 * @param pp -- an analyzed preprocessor
+	 * @param path -- the snapshot file (replaced if it exists)
+	 */
+	public static void write(Preprocessor pp, Path path) throws IOException
+	{
+		OffHeapPointStore points = OffHeapPointStore.of(pp.getPointDatabase());
+		OffHeapSegmentStore segments = OffHeapSegmentStore.of(pp.getSegmentDatabase(), points);
+
+		Collection<Segment> given = pp.getGivenSegments();
+		Set<Point> implicitPoints = pp.getImplicitPoints();
+		Set<Segment> implicitSegments = pp.getImplicitSegments();
+		Set<Segment> minimal = pp.getMinimalSegments();
+
+		ByteBuffer ids = ByteBuffer.allocate(4 * implicitPoints.size() + 8 * given.size() +
+				                             4 * (implicitSegments.size() + minimal.size())).order(ByteOrder.LITTLE_ENDIAN);
+		for (Point pt : implicitPoints) ids.putInt(points.indexOf(pt));
+		for (Segment s : given) putPair(ids, points, s);
+		for (Segment s : implicitSegments) putId(ids, points, segments, s);
+		for (Segment s : minimal) putId(ids, points, segments, s);
+		ids.flip();
+
+		ByteBuffer pointBytes = points.asReadOnlyBuffer();
+		ByteBuffer segmentBytes = segments.asReadOnlyBuffer();
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(0);
+		header.putInt(pointBytes.remaining()).putInt(segmentBytes.remaining());
+		header.putInt(given.size()).putInt(implicitPoints.size()).putInt(implicitSegments.size()).putInt(minimal.size());
+
+		CRC32 crc = new CRC32();
+		crc.update(header.slice(CHECKED_HEADER_OFFSET, HEADER_BYTES - CHECKED_HEADER_OFFSET));
+		for (ByteBuffer section : new ByteBuffer[] { pointBytes, segmentBytes, ids }) {
+			crc.update(section.duplicate());
+		}
+
+		header.putLong(8, crc.getValue());
+		header.flip();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (ByteBuffer section : new ByteBuffer[] { header, pointBytes, segmentBytes, ids }) {
+				while (section.hasRemaining()) channel.write(section);
+			}
+		}
+	}
+
+	/**
+	 * Map a snapshot read-only, verifying its header and checksum.
+	 *
+	 * @throws IOException if the file is not a snapshot, is of another version, or is corrupt
+	 */
+	public static FigureSnapshot open(Path path) throws IOException
+	{
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_BYTES) throw new IOException("Not a figure snapshot: " + path);
+
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		if (buffer.getInt(0) != MAGIC) throw new IOException("Not a figure snapshot: " + path);
+
+		int version = buffer.getInt(4);
+		if (version != FORMAT_VERSION) throw new IOException("Unsupported snapshot format version: " + version);
+
+		CRC32 crc = new CRC32();
+		crc.update(buffer.slice(CHECKED_HEADER_OFFSET, buffer.capacity() - CHECKED_HEADER_OFFSET));
+		if (crc.getValue() != buffer.getLong(8)) throw new IOException("Snapshot checksum mismatch: " + path);
+
+		// The sections must account for the file exactly
+		long expected = HEADER_BYTES + count(buffer, 16) + count(buffer, 20) + 4L * count(buffer, 28) +
+				        8L * count(buffer, 24) + 4L * (count(buffer, 32) + count(buffer, 36));
+		if (expected != buffer.capacity()) throw new IOException("Snapshot size does not match its header: " + path);
+
+		try {
+			return new FigureSnapshot(buffer);
+		}
+		catch (IllegalArgumentException e) {
+			throw new IOException("Corrupt snapshot: " + path, e);
+		}
+	}
+
+	// A size or count from the header; negative values never describe a valid file
+	private static long count(ByteBuffer buffer, int offset) throws IOException
+	{
+		int value = buffer.getInt(offset);
+		if (value < 0) throw new IOException("Corrupt snapshot header");
+
+		return value;
+	}
+
+	/**
+	 * @return all points of the figure (explicit and implicit) with their names
+	 */
+	public OffHeapPointStore getPoints() { return _points; }
+
+	/**
+	 * @return the segment database
+	 */
+	public OffHeapSegmentStore getSegments() { return _segments; }
+
+	public List<Point> getImplicitPoints()
+	{
+		List<Point> points = new ArrayList<Point>(_implicitPointCount);
+		for (int i = 0; i < _implicitPointCount; i++) points.add(_points.getPoint(_ids.getInt(4 * i)));
+
+		return points;
+	}
+
+	public List<Segment> getGivenSegments() { return pairs(4 * _implicitPointCount, _givenCount); }
+
+	public List<Segment> getImplicitSegments() { return segments(4 * _implicitPointCount + 8 * _givenCount, _implicitSegmentCount); }
+
+	public List<Segment> getMinimalSegments()
+	{
+		return segments(4 * (_implicitPointCount + _implicitSegmentCount) + 8 * _givenCount, _minimalCount);
+	}
+
+	/**
+	 * Materialize the snapshot as heap objects.
+	 *
+	 * @return a preprocessor equivalent to the one the snapshot was written from
+	 */
+	public Preprocessor restore()
+	{
+		PointDatabase database = new PointDatabase();
+		for (int id = 0; id < _points.size(); id++) {
+			database.put(_points.getName(id), _points.getX(id), _points.getY(id));
+		}
+
+		Set<Point> implicitPoints = new LinkedHashSet<Point>();
+		for (Point pt : getImplicitPoints()) implicitPoints.add(database.getPoint(pt));
+
+		Set<Segment> minimal = resolve(database, getMinimalSegments());
+		Set<Segment> nonMinimal = new LinkedHashSet<Segment>();
+		for (Segment s : resolve(database, _segments.getSegments())) {
+			if (!minimal.contains(s)) nonMinimal.add(s);
+		}
+
+		return new Preprocessor(database, resolve(database, getGivenSegments()), implicitPoints,
+				                resolve(database, getImplicitSegments()), minimal, nonMinimal);
+	}
+
+	private List<Segment> pairs(int offset, int count)
+	{
+		List<Segment> segments = new ArrayList<Segment>(count);
+		for (int i = 0; i < count; i++) {
+			segments.add(new Segment(_points.getPoint(_ids.getInt(offset + 8 * i)),
+					                 _points.getPoint(_ids.getInt(offset + 8 * i + 4))));
+		}
+
+		return segments;
+	}
+
+	private List<Segment> segments(int offset, int count)
+	{
+		List<Segment> segments = new ArrayList<Segment>(count);
+		for (int i = 0; i < count; i++) segments.add(_segments.getSegment(_ids.getInt(offset + 4 * i)));
+
+		return segments;
+	}
+
+	// Rebuild segments on the database's point objects, keeping their lines
+	private static Set<Segment> resolve(PointDatabase database, List<Segment> segments)
+	{
+		Set<Segment> resolved = new LinkedHashSet<Segment>();
+		for (Segment s : segments) {
+			resolved.add(new Segment(database.getPoint(s.getPoint1()), database.getPoint(s.getPoint2()), s.getLine()));
+		}
+
+		return resolved;
+	}
+
+	private static void putPair(ByteBuffer ids, OffHeapPointStore points, Segment s)
+	{
+		ids.putInt(points.indexOf(s.getPoint1()));
+		ids.putInt(points.indexOf(s.getPoint2()));
+	}
+
+	/**
+	 * @throws IllegalArgumentException if @s is not in the segment database
+	 */
+	private static void putId(ByteBuffer ids, OffHeapPointStore points, OffHeapSegmentStore segments, Segment s)
+	{
+		int id = segments.indexOf(points.indexOf(s.getPoint1()), points.indexOf(s.getPoint2()));
+		if (id < 0) throw new IllegalArgumentException("Segment not in the segment database: " + s);
+
+		ids.putInt(id);
+	}
+}
@@ -0,0 +1,247 @@
+package preprocessor.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import utilities.math.MathUtilities;
+
+/**
+ * The points section of a FigureSnapshot: the points of a figure encoded as
+ * bytes and queried in place.
+ *
+ * Layout of the backing buffer (little endian):
+ *
+ *    int count | int capacity | int nameBytes
+ *    double x, double y                     x count      (packed coordinates)
+ *    int slot                               x capacity   (open-addressing index: point id + 1; 0 empty)
+ *    int nameOffset                         x count + 1
+ *    byte name                              x nameBytes  (UTF-8; an empty name is anonymous)
+ *
+ * A point is identified by its position in the store (its id). The lookup
+ * methods mirror those of PointDatabase; each returns a fresh Point built from
+ * the stored coordinates, so no Point objects are retained.
+ *
+ * This is a file encoding, not a storage backend: PointDatabase keeps its heap
+ * objects. The bytes live outside the heap only when a snapshot is mapped, so
+ * a reopened figure can be queried without analysis or materializing points.
+ *
+ * The buffer is a ByteBuffer rather than a MemorySegment: the Foreign Function
+ * & Memory API is a preview in Java 21, and a mapped ByteBuffer gives the same
+ * zero-copy reads for sections well under 2 GB.
+ */
+public class OffHeapPointStore
+{
+	protected static final int HEADER_BYTES = 12;
+
+	protected final ByteBuffer _buffer;
+	protected final int _count;
+	protected final int _capacity;
+
+	protected final int _coordinatesOffset;
+	protected final int _tableOffset;
+	protected final int _nameOffsetsOffset;
+	protected final int _namesOffset;
+
+	/**
+	 * @param buffer -- a buffer laid out as above, starting at position 0
+	 * @throws IllegalArgumentException if the header does not describe the buffer
+	 */
+	protected OffHeapPointStore(ByteBuffer buffer)
+	{
+		if (buffer.capacity() < HEADER_BYTES) throw new IllegalArgumentException("Point store too short");
+
+		_buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+		_count = _buffer.getInt(0);
+		_capacity = _buffer.getInt(4);
+		int nameBytes = _buffer.getInt(8);
+
+		// The sections must account for the buffer exactly; the table must never fill
+		if (_count < 0 || nameBytes < 0 || _capacity != tableSizeFor(_count) ||
+			HEADER_BYTES + 16L * _count + 4L * _capacity + 4L * (_count + 1) + nameBytes != buffer.capacity()) {
+			throw new IllegalArgumentException("Point store header does not match its size");
+		}
+
+		_coordinatesOffset = HEADER_BYTES;
+		_tableOffset = _coordinatesOffset + 16 * _count;
+		_nameOffsetsOffset = _tableOffset + 4 * _capacity;
+		_namesOffset = _nameOffsetsOffset + 4 * (_count + 1);
+	}
+
+	/**
+	 * Encode the points of a database.
+	 */
+	static OffHeapPointStore of(PointDatabase points)
+	{
+		return of(points.getPoints());
+	}
+
+	/**
+	 * Encode points; ids follow iteration order.
+	 */
+	static OffHeapPointStore of(Collection<Point> points)
+	{
+		int count = points.size();
+		int capacity = tableSizeFor(count);
+
+		List<byte[]> names = new ArrayList<byte[]>(count);
+		int nameBytes = 0;
+		for (Point pt : points) {
+			byte[] name = pt.isUnnamed() ? new byte[0] : pt.getName().getBytes(StandardCharsets.UTF_8);
+			names.add(name);
+			nameBytes += name.length;
+		}
+
+		int size = HEADER_BYTES + 16 * count + 4 * capacity + 4 * (count + 1) + nameBytes;
+		ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(0, count);
+		buffer.putInt(4, capacity);
+		buffer.putInt(8, nameBytes);
+
+		OffHeapPointStore store = new OffHeapPointStore(buffer);
+
+		int id = 0;
+		int nameOffset = 0;
+		for (Point pt : points) {
+			buffer.putDouble(store._coordinatesOffset + 16 * id, pt.getX());
+			buffer.putDouble(store._coordinatesOffset + 16 * id + 8, pt.getY());
+
+			buffer.putInt(store._nameOffsetsOffset + 4 * id, nameOffset);
+			buffer.put(store._namesOffset + nameOffset, names.get(id));
+			nameOffset += names.get(id).length;
+
+			store.index(id, pt.getFixedX(), pt.getFixedY());
+			id++;
+		}
+		buffer.putInt(store._nameOffsetsOffset + 4 * count, nameOffset);
+
+		return store;
+	}
+
+	/**
+	 * @return a read-only view of the encoded bytes, for writing a snapshot
+	 */
+	ByteBuffer asReadOnlyBuffer()
+	{
+		return _buffer.asReadOnlyBuffer().position(0).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	public int size() { return _count; }
+
+	public double getX(int id) { return _buffer.getDouble(_coordinatesOffset + 16 * id); }
+	public double getY(int id) { return _buffer.getDouble(_coordinatesOffset + 16 * id + 8); }
+
+	public String getName(int id)
+	{
+		int from = _buffer.getInt(_nameOffsetsOffset + 4 * id);
+		int to = _buffer.getInt(_nameOffsetsOffset + 4 * (id + 1));
+		if (from == to) return Point.ANONYMOUS;
+
+		byte[] bytes = new byte[to - from];
+		_buffer.get(_namesOffset + from, bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return the point with the given id
+	 */
+	public Point getPoint(int id) { return new Point(getName(id), getX(id), getY(id)); }
+
+	/**
+	 * @return the id of the point at (x, y); -1 if there is none
+	 */
+	public int indexOf(double x, double y)
+	{
+		long fx = MathUtilities.toFixedPoint(x);
+		long fy = MathUtilities.toFixedPoint(y);
+
+		int mask = _capacity - 1;
+		for (int i = hash(fx, fy) & mask; ; i = (i + 1) & mask) {
+			int id = _buffer.getInt(_tableOffset + 4 * i) - 1;
+			if (id < 0) return -1;
+
+			if (MathUtilities.toFixedPoint(getX(id)) == fx && MathUtilities.toFixedPoint(getY(id)) == fy) return id;
+		}
+	}
+
+	public int indexOf(Point pt) { return pt == null ? -1 : indexOf(pt.getX(), pt.getY()); }
+
+	public boolean contains(Point pt) { return indexOf(pt) >= 0; }
+
+	/**
+	 * @return the stored point at (x, y); null if there is none
+	 */
+	public Point getPoint(double x, double y)
+	{
+		int id = indexOf(x, y);
+
+		return id < 0 ? null : getPoint(id);
+	}
+
+	public Point getPoint(Point pt) { return pt == null ? null : getPoint(pt.getX(), pt.getY()); }
+
+	/**
+	 * @return the stored point with the given name (linear search, as in PointDatabase)
+	 */
+	public Point getPoint(String name)
+	{
+		for (int id = 0; id < _count; id++) {
+			if (getName(id).equals(name)) return getPoint(id);
+		}
+
+		return null;
+	}
+
+	public String getName(double x, double y)
+	{
+		int id = indexOf(x, y);
+
+		return id < 0 ? null : getName(id);
+	}
+
+	public String getName(Point pt) { return pt == null ? null : getName(pt.getX(), pt.getY()); }
+
+	/**
+	 * @return all points, in id order
+	 */
+	public List<Point> getPoints()
+	{
+		List<Point> points = new ArrayList<Point>(_count);
+		for (int id = 0; id < _count; id++) points.add(getPoint(id));
+
+		return points;
+	}
+
+	private void index(int id, long fx, long fy)
+	{
+		int mask = _capacity - 1;
+		int i = hash(fx, fy) & mask;
+		while (_buffer.getInt(_tableOffset + 4 * i) != 0) i = (i + 1) & mask;
+
+		_buffer.putInt(_tableOffset + 4 * i, id + 1);
+	}
+
+	// Part of the stored format (the table is written to disk): do not change it
+	// along with Point.hashCode
+	private static int hash(long fx, long fy)
+	{
+		int h = 31 * Long.hashCode(fx) + Long.hashCode(fy);
+
+		return h ^ (h >>> 16);
+	}
+
+	// A power of two with load factor at most one half
+	static int tableSizeFor(int count)
+	{
+		int capacity = 2;
+		while (capacity < 2 * count) capacity <<= 1;
+
+		return capacity;
+	}
+}
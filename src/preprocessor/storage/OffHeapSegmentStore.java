@@ -0,0 +1,226 @@
+package preprocessor.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import geometry_objects.Line;
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import preprocessor.SegmentDatabase;
+
+/**
+ * The segments section of a FigureSnapshot: the segment database encoded as
+ * pairs of point ids into an OffHeapPointStore, together with the id of the
+ * line each segment lies on.
+ *
+ * Layout of the backing buffer (little endian):
+ *
+ *    int count | int capacity | int lines
+ *    int point1, int point2, int line       x count      (packed ids)
+ *    int slot                               x capacity   (open-addressing index: segment id + 1; 0 empty)
+ *    double a, double b, double c           x lines      (canonical coefficients, see Line)
+ *
+ * The line is saved rather than recomputed from the endpoints: a piece of a
+ * segment shares the line of its parent, and a line through truncated
+ * (implicit) endpoints may snap to a different key.
+ *
+ * The lookup methods mirror those of SegmentDatabase; segments are built on
+ * demand from the point store. As with OffHeapPointStore, this is a file
+ * encoding queried in place, not a storage backend behind SegmentDatabase.
+ */
+public class OffHeapSegmentStore
+{
+	protected static final int HEADER_BYTES = 12;
+
+	// point1, point2, line
+	protected static final int RECORD_BYTES = 12;
+
+	protected final ByteBuffer _buffer;
+	protected final OffHeapPointStore _points;
+	protected final int _count;
+	protected final int _capacity;
+	protected final int _lineCount;
+
+	protected final int _pairsOffset;
+	protected final int _tableOffset;
+	protected final int _linesOffset;
+
+	// Decoded once: segments on the same line share one Line object
+	protected final Line[] _lines;
+
+	/**
+	 * @param buffer -- a buffer laid out as above, starting at position 0
+	 * @param points -- the store the ids refer to
+	 * @throws IllegalArgumentException if the header does not describe the buffer
+	 */
+	protected OffHeapSegmentStore(ByteBuffer buffer, OffHeapPointStore points)
+	{
+		if (buffer.capacity() < HEADER_BYTES) throw new IllegalArgumentException("Segment store too short");
+
+		_buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+		_points = points;
+		_count = _buffer.getInt(0);
+		_capacity = _buffer.getInt(4);
+		_lineCount = _buffer.getInt(8);
+
+		// The sections must account for the buffer exactly; the table must never fill
+		if (_count < 0 || _lineCount < 0 || _capacity != OffHeapPointStore.tableSizeFor(_count) ||
+			HEADER_BYTES + (long)RECORD_BYTES * _count + 4L * _capacity + 24L * _lineCount != buffer.capacity()) {
+			throw new IllegalArgumentException("Segment store header does not match its size");
+		}
+
+		_pairsOffset = HEADER_BYTES;
+		_tableOffset = _pairsOffset + RECORD_BYTES * _count;
+		_linesOffset = _tableOffset + 4 * _capacity;
+
+		_lines = new Line[_lineCount];
+		for (int i = 0; i < _lineCount; i++) {
+			int offset = _linesOffset + 24 * i;
+			_lines[i] = new Line(_buffer.getDouble(offset), _buffer.getDouble(offset + 8), _buffer.getDouble(offset + 16));
+		}
+	}
+
+	static OffHeapSegmentStore of(SegmentDatabase segments, OffHeapPointStore points)
+	{
+		return of(segments.getSegments(), points);
+	}
+
+	/**
+	 * Encode segments; ids follow iteration order.
+	 *
+	 * @throws IllegalArgumentException if an endpoint is not in @points
+	 */
+	static OffHeapSegmentStore of(Collection<Segment> segments, OffHeapPointStore points)
+	{
+		int count = segments.size();
+		int capacity = OffHeapPointStore.tableSizeFor(count);
+
+		// Number the distinct lines in order of first use
+		Map<Line, Integer> lineIds = new HashMap<Line, Integer>();
+		List<Line> lines = new ArrayList<Line>();
+		for (Segment segment : segments) {
+			if (lineIds.putIfAbsent(segment.getLine(), lines.size()) == null) lines.add(segment.getLine());
+		}
+
+		int linesOffset = HEADER_BYTES + RECORD_BYTES * count + 4 * capacity;
+
+		ByteBuffer buffer = ByteBuffer.allocate(linesOffset + 24 * lines.size()).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(0, count);
+		buffer.putInt(4, capacity);
+		buffer.putInt(8, lines.size());
+
+		for (int i = 0; i < lines.size(); i++) {
+			buffer.putDouble(linesOffset + 24 * i, lines.get(i).getA());
+			buffer.putDouble(linesOffset + 24 * i + 8, lines.get(i).getB());
+			buffer.putDouble(linesOffset + 24 * i + 16, lines.get(i).getC());
+		}
+
+		int id = 0;
+		for (Segment segment : segments) {
+			int p1 = points.indexOf(segment.getPoint1());
+			int p2 = points.indexOf(segment.getPoint2());
+			if (p1 < 0 || p2 < 0) throw new IllegalArgumentException("Segment endpoint not in the point store: " + segment);
+
+			buffer.putInt(HEADER_BYTES + RECORD_BYTES * id, p1);
+			buffer.putInt(HEADER_BYTES + RECORD_BYTES * id + 4, p2);
+			buffer.putInt(HEADER_BYTES + RECORD_BYTES * id + 8, lineIds.get(segment.getLine()));
+			id++;
+		}
+
+		OffHeapSegmentStore store = new OffHeapSegmentStore(buffer, points);
+		for (id = 0; id < count; id++) store.index(id, store.getPoint1(id), store.getPoint2(id));
+
+		return store;
+	}
+
+	/**
+	 * @return a read-only view of the encoded bytes, for writing a snapshot
+	 */
+	ByteBuffer asReadOnlyBuffer()
+	{
+		return _buffer.asReadOnlyBuffer().position(0).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	public int size() { return _count; }
+
+	public int getPoint1(int id) { return _buffer.getInt(_pairsOffset + RECORD_BYTES * id); }
+	public int getPoint2(int id) { return _buffer.getInt(_pairsOffset + RECORD_BYTES * id + 4); }
+
+	/**
+	 * @return the line the segment with the given id lies on
+	 */
+	public Line getLine(int id) { return _lines[_buffer.getInt(_pairsOffset + RECORD_BYTES * id + 8)]; }
+
+	/**
+	 * @return the segment with the given id, on its saved line
+	 */
+	public Segment getSegment(int id) { return new Segment(_points.getPoint(getPoint1(id)), _points.getPoint(getPoint2(id)), getLine(id)); }
+
+	/**
+	 * @return the id of the segment between two point ids (either order); -1 if there is none
+	 */
+	public int indexOf(int p1, int p2)
+	{
+		int mask = _capacity - 1;
+		for (int i = hash(p1, p2) & mask; ; i = (i + 1) & mask) {
+			int id = _buffer.getInt(_tableOffset + 4 * i) - 1;
+			if (id < 0) return -1;
+
+			int q1 = getPoint1(id);
+			int q2 = getPoint2(id);
+			if ((q1 == p1 && q2 == p2) || (q1 == p2 && q2 == p1)) return id;
+		}
+	}
+
+	/**
+	 * @return the stored segment between two points (either order); null if there is none
+	 */
+	public Segment get(Point p1, Point p2)
+	{
+		int id1 = _points.indexOf(p1);
+		int id2 = _points.indexOf(p2);
+		if (id1 < 0 || id2 < 0) return null;
+
+		int id = indexOf(id1, id2);
+
+		return id < 0 ? null : getSegment(id);
+	}
+
+	public Segment get(Segment segment) { return get(segment.getPoint1(), segment.getPoint2()); }
+
+	public boolean contains(Segment segment) { return get(segment) != null; }
+
+	/**
+	 * @return all segments, in id order
+	 */
+	public List<Segment> getSegments()
+	{
+		List<Segment> segments = new ArrayList<Segment>(_count);
+		for (int id = 0; id < _count; id++) segments.add(getSegment(id));
+
+		return segments;
+	}
+
+	private void index(int id, int p1, int p2)
+	{
+		int mask = _capacity - 1;
+		int i = hash(p1, p2) & mask;
+		while (_buffer.getInt(_tableOffset + 4 * i) != 0) i = (i + 1) & mask;
+
+		_buffer.putInt(_tableOffset + 4 * i, id + 1);
+	}
+
+	// Symmetric in its arguments: (p1, p2) and (p2, p1) hash alike
+	private static int hash(int p1, int p2)
+	{
+		long key = ((long)Math.min(p1, p2) << 32) | (Math.max(p1, p2) & 0xffffffffL);
+		long h = key * 0x9E3779B97F4A7C15L;
+
+		return (int)(h ^ (h >>> 32));
+	}
+}
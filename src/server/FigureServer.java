@@ -0,0 +1,131 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.json.JSONObject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local HTTP front end to a FigureService, bound to the loopback interface only.
+ *
+ *    POST /analyze   body: figure JSON  -->  implicit points and segment database (JSON)
+ *    GET  /stats                        -->  request / batch counters and p50 / p99 latency
+ *
+ * Usage: java server.FigureServer [port] [workers]
+ */
+public class FigureServer implements AutoCloseable
+{
+	public static final int DEFAULT_PORT = 8223;
+
+	// Longest a connection waits for its analysis
+	public static final long RESPONSE_TIMEOUT_SECONDS = 60;
+
+	protected final FigureService _service;
+	protected final HttpServer _http;
+
+	// Connection handlers only wait on the service; analysis runs on its workers
+	protected final ExecutorService _handlers;
+
+	/**
+	 * @param port -- local port; 0 for any free port
+	 * @param service -- analyzes the figures (closed with this server)
+	 */
+	public FigureServer(int port, FigureService service) throws IOException
+	{
+		_service = service;
+		_http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		_handlers = Executors.newCachedThreadPool();
+
+		_http.createContext("/analyze", this::analyze);
+		_http.createContext("/stats", this::stats);
+		_http.setExecutor(_handlers);
+		_http.start();
+	}
+
+	/**
+	 * @return the bound port (useful when constructed with port 0)
+	 */
+	public int getPort() { return _http.getAddress().getPort(); }
+
+	public FigureService getService() { return _service; }
+
+	private void analyze(HttpExchange exchange) throws IOException
+	{
+		if (!exchange.getRequestMethod().equals("POST")) {
+			send(exchange, 405, error("POST a figure"));
+			return;
+		}
+
+		String figure;
+		try (InputStream in = exchange.getRequestBody()) {
+			figure = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+
+		try {
+			send(exchange, 200, _service.submit(figure).get(RESPONSE_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		}
+		catch (ExecutionException e) {
+			// The figure did not parse (or could not be analyzed)
+			send(exchange, 400, error(String.valueOf(e.getCause().getMessage())));
+		}
+		catch (TimeoutException e) {
+			send(exchange, 503, error("analysis timed out"));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			send(exchange, 503, error("interrupted"));
+		}
+	}
+
+	private static String error(String message)
+	{
+		return new JSONObject().put("error", message).toString();
+	}
+
+	private void stats(HttpExchange exchange) throws IOException
+	{
+		send(exchange, 200, _service.statistics().toString());
+	}
+
+	private static void send(HttpExchange exchange, int status, String body) throws IOException
+	{
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		_http.stop(0);
+		_handlers.shutdown();
+		_service.close();
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int workers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+		FigureServer server = new FigureServer(port, new FigureService(workers));
+		Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+
+		System.out.println("Listening on http://localhost:" + server.getPort() + "/analyze");
+	}
+}
@@ -0,0 +1,291 @@
+package server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import input.exception.ParseException;
+import preprocessor.Preprocessor;
+import preprocessor.cache.PreprocessorCache;
+
+/**
+ * Analyzes figures submitted concurrently (as JSON text).
+ *
+ * Requests are queued; a dispatcher drains the queue into batches (up to
+ * maxBatch requests, waiting at most maxDelay for a batch to fill). Identical
+ * figures within a batch are analyzed once. Distinct figures of a batch run on
+ * a fixed worker pool.
+ *
+ * Two warm tiers avoid repeat work across batches:
+ *    * responses by figure text (a bounded LRU)
+ *    * preprocessed figures by content hash (PreprocessorCache), so a figure
+ *      that differs only in formatting or names is not re-analyzed
+ */
+public class FigureService implements AutoCloseable
+{
+	public static final int DEFAULT_MAX_BATCH = 64;
+	public static final long DEFAULT_MAX_DELAY_MICROS = 1000;
+	public static final int DEFAULT_RESPONSE_CAPACITY = 1024;
+
+	protected final BlockingQueue<Request> _queue;
+	protected final ExecutorService _workers;
+	protected final Thread _dispatcher;
+	protected volatile boolean _running;
+
+	protected final int _maxBatch;
+	protected final long _maxDelayMicros;
+
+	protected final PreprocessorCache _cache;
+	protected final Map<String, String> _responses;
+
+	protected final LatencyRecorder _latency = new LatencyRecorder();
+	protected final AtomicLong _batches = new AtomicLong();
+	protected final AtomicLong _analyses = new AtomicLong();
+
+	public LatencyRecorder getLatency() { return _latency; }
+	public PreprocessorCache getCache() { return _cache; }
+	public long getBatches() { return _batches.get(); }
+	public long getRequests() { return _latency.getCount(); }
+	public long getAnalyses() { return _analyses.get(); }
+
+	public FigureService(int workers)
+	{
+		this(workers, DEFAULT_MAX_BATCH, DEFAULT_MAX_DELAY_MICROS, new PreprocessorCache());
+	}
+
+	/**
+	 * @param workers -- size of the analysis pool
+	 * @param maxBatch -- most requests taken from the queue at once
+	 * @param maxDelayMicros -- longest wait for a batch to fill once a request is waiting
+	 * @param cache -- warm preprocessed figures
+	 */
+	public FigureService(int workers, int maxBatch, long maxDelayMicros, PreprocessorCache cache)
+	{
+		_queue = new LinkedBlockingQueue<Request>();
+		_workers = Executors.newFixedThreadPool(workers);
+		_maxBatch = maxBatch;
+		_maxDelayMicros = maxDelayMicros;
+		_cache = cache;
+
+		// Access-ordered: the eldest entry is the least recently used
+		_responses = new LinkedHashMap<String, String>(16, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+			{
+				return size() > DEFAULT_RESPONSE_CAPACITY;
+			}
+		};
+
+		_running = true;
+		_dispatcher = new Thread(this::dispatch, "figure-service-dispatcher");
+		_dispatcher.setDaemon(true);
+		_dispatcher.start();
+	}
+
+	/**
+	 * @param figureJson -- the JSON text of a figure
+	 * @return the analysis as JSON (see toJSON); completes exceptionally if the figure does not parse
+	 */
+	public CompletableFuture<String> submit(String figureJson)
+	{
+		Request request = new Request(figureJson);
+		if (!_running) {
+			request.fail(new IllegalStateException("Service is closed"));
+			return request._result;
+		}
+
+		_queue.add(request);
+
+		// Closed meanwhile: the dispatcher may have drained the queue already;
+		// whoever removes the request (here or the dispatcher) fails it
+		if (!_running && _queue.remove(request)) request.fail(new IllegalStateException("Service is closed"));
+
+		return request._result;
+	}
+
+	/**
+	 * A single queued figure and its pending result.
+	 */
+	protected class Request
+	{
+		final String _figure;
+		final long _start = System.nanoTime();
+		final CompletableFuture<String> _result = new CompletableFuture<String>();
+
+		Request(String figure)
+		{
+			_figure = figure;
+		}
+
+		//
+		// Latency is measured from submission to completion; it is recorded
+		// before the future completes, so it is counted once the caller sees the result
+		//
+		void complete(String response)
+		{
+			_latency.record(System.nanoTime() - _start);
+			_result.complete(response);
+		}
+
+		void fail(Throwable error)
+		{
+			_latency.record(System.nanoTime() - _start);
+			_result.completeExceptionally(error);
+		}
+	}
+
+	//
+	// Drain the queue into batches: block for the first request, then gather more
+	// until the batch is full or the delay has elapsed
+	//
+	private void dispatch()
+	{
+		while (_running) {
+			List<Request> batch = new ArrayList<Request>();
+
+			try {
+				Request first = _queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) continue;
+				batch.add(first);
+
+				long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(_maxDelayMicros);
+				while (batch.size() < _maxBatch) {
+					long remaining = deadline - System.nanoTime();
+					if (remaining <= 0) break;
+
+					Request next = _queue.poll(remaining, TimeUnit.NANOSECONDS);
+					if (next == null) break;
+					batch.add(next);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+
+			runBatch(batch);
+		}
+
+		// Anything left behind on shutdown
+		List<Request> abandoned = new ArrayList<Request>();
+		_queue.drainTo(abandoned);
+		abandoned.forEach((request) -> request.fail(new IllegalStateException("Service is closed")));
+	}
+
+	private void runBatch(List<Request> batch)
+	{
+		_batches.incrementAndGet();
+
+		// Coalesce identical figures: one analysis per distinct text
+		Map<String, List<Request>> byFigure = new LinkedHashMap<String, List<Request>>();
+		for (Request request : batch) {
+			byFigure.computeIfAbsent(request._figure, (figure) -> new ArrayList<Request>()).add(request);
+		}
+
+		for (Map.Entry<String, List<Request>> entry : byFigure.entrySet()) {
+			_workers.execute(() -> {
+				try {
+					String response = respond(entry.getKey());
+					entry.getValue().forEach((request) -> request.complete(response));
+				}
+				// Errors too (e.g. a StackOverflowError on a deep figure): every waiting request must complete
+				catch (Throwable e) {
+					entry.getValue().forEach((request) -> request.fail(e));
+				}
+			});
+		}
+	}
+
+	private String respond(String figureJson)
+	{
+		synchronized (_responses) {
+			String cached = _responses.get(figureJson);
+			if (cached != null) return cached;
+		}
+
+		FigureNode fig = InputFacade.parseFigure(figureJson);
+		if (fig == null) throw new ParseException("Not a figure");
+
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+
+		_analyses.incrementAndGet();
+		String response = toJSON(_cache.analyze(pair.getKey(), pair.getValue())).toString();
+
+		synchronized (_responses) { _responses.put(figureJson, response); }
+
+		return response;
+	}
+
+	/**
+	 * {
+	 *    "ImplicitPoints" : [ { "name" : ..., "x" : ..., "y" : ... }, ... ],
+	 *    "Segments"       : [ { "x1" : ..., "y1" : ..., "x2" : ..., "y2" : ... }, ... ]
+	 * }
+	 *
+	 * @param pp -- an analyzed figure
+	 * @return the implicit points and the segment database
+	 */
+	public static JSONObject toJSON(Preprocessor pp)
+	{
+		JSONArray points = new JSONArray();
+		for (Point pt : pp.getImplicitPoints()) {
+			points.put(new JSONObject().put("name", pt.getName()).put("x", pt.getX()).put("y", pt.getY()));
+		}
+
+		JSONArray segments = new JSONArray();
+		for (Segment s : pp.getSegmentDatabase().getSegments()) {
+			segments.put(new JSONObject().put("x1", s.getPoint1().getX()).put("y1", s.getPoint1().getY())
+					                     .put("x2", s.getPoint2().getX()).put("y2", s.getPoint2().getY()));
+		}
+
+		return new JSONObject().put("ImplicitPoints", points).put("Segments", segments);
+	}
+
+	/**
+	 * @return counters and latency percentiles (microseconds) as JSON
+	 */
+	public JSONObject statistics()
+	{
+		return new JSONObject().put("requests", getRequests())
+				               .put("batches", getBatches())
+				               .put("analyses", getAnalyses())
+				               .put("cacheHits", _cache.getHits())
+				               .put("p50Micros", _latency.getPercentile(50) / 1000)
+				               .put("p99Micros", _latency.getPercentile(99) / 1000);
+	}
+
+	/**
+	 * Stop accepting requests; queued requests fail, running analyses finish.
+	 */
+	@Override
+	public void close()
+	{
+		_running = false;
+		_dispatcher.interrupt();
+
+		try { _dispatcher.join(); }
+		catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+
+		_workers.shutdown();
+	}
+}
@@ -0,0 +1,56 @@
+package server;
+
+import java.util.Arrays;
+
+/**
+ * Request latencies over a sliding window of the most recent samples.
+ */
+public class LatencyRecorder
+{
+	public static final int DEFAULT_WINDOW = 10_000;
+
+	protected final long[] _samples;
+	protected long _count;
+
+	public LatencyRecorder()
+	{
+		this(DEFAULT_WINDOW);
+	}
+
+	/**
+	 * @param window -- number of most recent samples kept for percentiles
+	 */
+	public LatencyRecorder(int window)
+	{
+		_samples = new long[window];
+	}
+
+	public synchronized void record(long nanos)
+	{
+		_samples[(int)(_count % _samples.length)] = nanos;
+		_count++;
+	}
+
+	/**
+	 * @return total samples recorded (including those no longer in the window)
+	 */
+	public synchronized long getCount() { return _count; }
+
+	/**
+	 * @param percentile -- in [0, 100]
+	 * @return the latency (nanoseconds) at the percentile over the window; 0 with no samples
+	 */
+	public synchronized long getPercentile(double percentile)
+	{
+		int n = (int)Math.min(_count, _samples.length);
+		if (n == 0) return 0;
+
+		long[] sorted = Arrays.copyOf(_samples, n);
+		Arrays.sort(sorted);
+
+		// Nearest-rank percentile
+		int rank = (int)Math.ceil(percentile / 100 * n);
+
+		return sorted[Math.max(0, Math.min(n - 1, rank - 1))];
+	}
+}
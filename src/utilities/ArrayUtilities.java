@@ -0,0 +1,92 @@
+package utilities;
+
+/**
+ * Primitive array helpers that avoid boxing and comparator objects.
+ */
+public class ArrayUtilities
+{
+	// Ranges at most this long are finished with insertion sort
+	private static final int INSERTION_THRESHOLD = 16;
+
+	/**
+	 * Sort keys[0 .. n) ascending, applying the same permutation to values[0 .. n).
+	 * Not stable.
+	 *
+	 * @param keys -- sort keys (NaN not permitted)
+	 * @param values -- payload paired with each key (e.g., indices)
+	 * @param n -- number of entries to sort
+	 */
+	public static void sortByKey(double[] keys, int[] values, int n)
+	{
+		quicksort(keys, values, 0, n - 1);
+	}
+
+	/**
+	 * Sort keys[from .. to) ascending, applying the same permutation to values[from .. to).
+	 * Not stable.
+	 */
+	public static void sortByKey(double[] keys, int[] values, int from, int to)
+	{
+		quicksort(keys, values, from, to - 1);
+	}
+
+	private static void quicksort(double[] keys, int[] values, int lo, int hi)
+	{
+		while (hi - lo > INSERTION_THRESHOLD) {
+			// median of three as the pivot
+			int mid = (lo + hi) >>> 1;
+			if (keys[mid] < keys[lo]) swap(keys, values, mid, lo);
+			if (keys[hi] < keys[lo]) swap(keys, values, hi, lo);
+			if (keys[hi] < keys[mid]) swap(keys, values, hi, mid);
+			double pivot = keys[mid];
+
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (keys[i] < pivot) i++;
+				while (keys[j] > pivot) j--;
+				if (i <= j) swap(keys, values, i++, j--);
+			}
+
+			// recurse into the smaller half; loop on the larger
+			if (j - lo < hi - i) {
+				quicksort(keys, values, lo, j);
+				lo = i;
+			} else {
+				quicksort(keys, values, i, hi);
+				hi = j;
+			}
+		}
+
+		insertionSort(keys, values, lo, hi);
+	}
+
+	private static void insertionSort(double[] keys, int[] values, int lo, int hi)
+	{
+		for (int i = lo + 1; i <= hi; i++) {
+			double key = keys[i];
+			int value = values[i];
+
+			int j = i - 1;
+			while (j >= lo && keys[j] > key) {
+				keys[j + 1] = keys[j];
+				values[j + 1] = values[j];
+				j--;
+			}
+
+			keys[j + 1] = key;
+			values[j + 1] = value;
+		}
+	}
+
+	private static void swap(double[] keys, int[] values, int i, int j)
+	{
+		double k = keys[i];
+		keys[i] = keys[j];
+		keys[j] = k;
+
+		int v = values[i];
+		values[i] = values[j];
+		values[j] = v;
+	}
+}
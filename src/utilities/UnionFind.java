@@ -0,0 +1,53 @@
+package utilities;
+
+/**
+ * Disjoint sets over the integers 0 .. n-1 (union by size, path halving).
+ */
+public class UnionFind
+{
+	protected final int[] _parent;
+	protected final int[] _size;
+
+	public UnionFind(int n)
+	{
+		_parent = new int[n];
+		_size = new int[n];
+
+		for (int i = 0; i < n; i++) {
+			_parent[i] = i;
+			_size[i] = 1;
+		}
+	}
+
+	/**
+	 * @return the representative of the set containing @i
+	 */
+	public int find(int i)
+	{
+		while (_parent[i] != i) {
+			_parent[i] = _parent[_parent[i]];
+			i = _parent[i];
+		}
+
+		return i;
+	}
+
+	/**
+	 * Merge the sets containing @i and @j.
+	 *
+	 * @return true if they were distinct sets
+	 */
+	public boolean union(int i, int j)
+	{
+		int a = find(i);
+		int b = find(j);
+		if (a == b) return false;
+
+		if (_size[a] < _size[b]) { int t = a; a = b; b = t; }
+
+		_parent[b] = a;
+		_size[a] += _size[b];
+
+		return true;
+	}
+}
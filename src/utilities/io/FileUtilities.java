@@ -1,15 +1,77 @@
 package utilities.io;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 public class FileUtilities
 {
+	// Files with this extension are read and written through gzip
+	public static final String GZIP_EXTENSION = ".gz";
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
 	/**
 	 * @param filepath -- path to a specific file
+	 * @return true if the file is (to be) gzip-compressed, judged by its extension
+	 */
+	public static boolean isCompressed(String filepath)
+	{
+		return filepath.endsWith(GZIP_EXTENSION);
+	}
+
+	/**
+	 * @param filepath -- path to a specific file; decompressed while streaming if it ends in .gz
+	 * @return a UTF-8 reader over the (uncompressed) contents
+	 */
+	public static BufferedReader openReader(String filepath) throws IOException
+	{
+		InputStream in = Files.newInputStream(Path.of(filepath));
+		if (isCompressed(filepath)) in = new GZIPInputStream(in, BUFFER_SIZE);
+
+		return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	/**
+	 * @param filepath -- path to a specific file; compressed while streaming if it ends in .gz
+	 * @return a UTF-8 writer to the file (created or truncated)
+	 */
+	public static Writer openWriter(String filepath) throws IOException
+	{
+		OutputStream out = Files.newOutputStream(Path.of(filepath));
+		if (isCompressed(filepath)) out = new GZIPOutputStream(out, BUFFER_SIZE);
+
+		return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param filepath -- path to a specific file; compressed if it ends in .gz
+	 * @param content -- the complete contents of the file
+	 * @return true if the file was written
+	 */
+	public static boolean writeFile(String filepath, String content)
+	{
+		try (Writer writer = openWriter(filepath)) { writer.write(content); }
+		catch (IOException e)
+		{
+			System.err.println("Unexpected file I/O problem with " + filepath);
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * @param filepath -- path to a specific file (gzip-compressed if it ends in .gz)
 	 * @return string corresponding to the complete contents of the file
 	 */
 	public static String readFile(String filepath)
@@ -17,7 +79,17 @@ public class FileUtilities
 		Path filePath = Path.of(filepath);
 		String content = "";
 
-		try { content = Files.readString(filePath); }
+		try
+		{
+			if (isCompressed(filepath))
+			{
+				try (InputStream in = new GZIPInputStream(Files.newInputStream(filePath), BUFFER_SIZE))
+				{
+					content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+				}
+			}
+			else content = Files.readString(filePath);
+		}
 		catch (IOException e)
 		{
 			System.err.println("Unexpected file I/O problem with " + filePath);
@@ -30,13 +102,13 @@ public class FileUtilities
 	 * Filter all comments using    // ...
 	 * Must read the file 
 	 * 
-	 * @param filepath -- path to a specific file
+	 * @param filepath -- path to a specific file (gzip-compressed if it ends in .gz)
 	 * @return string corresponding to the complete contents of the file (minus comments)
 	 */
 	public static String readFileFilterComments(String filepath)
 	{
 		StringBuilder builder = new StringBuilder();
-		try (BufferedReader br = new BufferedReader(new FileReader(filepath))) 
+		try (BufferedReader br = openReader(filepath)) 
 		{
 		    String line;
 		    while ((line = br.readLine()) != null) 
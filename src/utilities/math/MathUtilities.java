@@ -24,6 +24,9 @@ public class MathUtilities
         return a > b + EPSILON;
     }
     
+    // Coordinates are kept to (EPSILON_POWER - 1) decimal places: 10^5 fixed-point units per 1.0
+    public static final double FIXED_POINT_SCALE = Math.pow(10, EPSILON_POWER - 1);
+
     /**
      * Given a value like 0.123456789
      * we return a double with only the epsilon precision we want:
@@ -34,7 +37,35 @@ public class MathUtilities
      */
     public static double removeLessEpsilon(double x)
     {
-    	int value = (int)(x * Math.pow(10, EPSILON_POWER - 1));
-    	return value / Math.pow(10, EPSILON_POWER - 1);
+    	return fromFixedPoint(toFixedPoint(x));
+    }
+
+    /**
+     * The fixed-point representation of x: x truncated to (EPSILON_POWER - 1) decimal places
+     * and scaled to an integer, e.g. 0.123456789 --> 12345
+     * 
+     * @param x
+     * @return x in fixed-point units
+     */
+    public static long toFixedPoint(double x)
+    {
+    	double scaled = x * FIXED_POINT_SCALE;
+
+    	// A value already at this precision may scale to just under an integer
+    	// (1.14285 * 10^5 = 114284.99999999999); snap it so truncation is idempotent.
+    	// Large magnitudes carry a few ulps of representation error of their own.
+    	double nearest = Math.rint(scaled);
+    	if (Math.abs(scaled - nearest) < Math.max(EPSILON, 4 * Math.ulp(scaled))) return (long)nearest;
+
+    	return (long)scaled;
+    }
+
+    /**
+     * @param fixed -- a value in fixed-point units (see toFixedPoint)
+     * @return the corresponding double
+     */
+    public static double fromFixedPoint(long fixed)
+    {
+    	return fixed / FIXED_POINT_SCALE;
     }
 }
@@ -0,0 +1,76 @@
+package geometry_objects;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import preprocessor.Preprocessor;
+import preprocessor.PreprocessorOptions;
+
+public class GeometryPoolTest {
+    @Test
+    public void internTest() {
+        GeometryPool pool = new GeometryPool();
+
+        Point a = pool.intern(new Point("A", 1, 2));
+        assertSame(a, pool.intern(new Point("A", 1, 2)));
+
+        // the name is part of the value
+        Point b = pool.intern(new Point("B", 1, 2));
+        assertNotSame(a, b);
+        assertEquals(a, b);
+
+        // segment endpoints are pooled points
+        Segment s = pool.intern(new Segment(new Point("A", 1, 2), new Point("C", 5, 5)));
+        assertSame(a, s.getPoint1());
+        assertSame(s, pool.intern(new Segment(new Point("A", 1, 2), new Point("C", 5, 5))));
+
+        assertEquals(3, pool.pointCount());
+        assertEquals(1, pool.segmentCount());
+        assertEquals(1, pool.getSegmentHits());
+        assertTrue(pool.getDedupRatio() > 0);
+    }
+
+    @Test
+    public void weakTest() throws InterruptedException {
+        GeometryPool pool = new GeometryPool();
+
+        for (int i = 0; i < 1000; i++) pool.intern(new Point("P" + i, i, i));
+
+        // nothing holds the pooled points: they are collected and dropped
+        for (int attempt = 0; attempt < 50 && pool.pointCount() > 0; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, pool.pointCount());
+    }
+
+    @Test
+    public void figuresShareTest() {
+        GeometryPool pool = new GeometryPool();
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+
+        Map.Entry<PointDatabase, Set<Segment>> first = InputFacade.toGeometryRepresentation(fig, pool);
+        Map.Entry<PointDatabase, Set<Segment>> second = InputFacade.toGeometryRepresentation(fig, pool);
+
+        assertSame(first.getKey().getPoint("A"), second.getKey().getPoint("A"));
+        for (Segment s : second.getValue()) assertSame(s, pool.intern(s));
+
+        Preprocessor plain = new Preprocessor(first.getKey(), first.getValue());
+        Preprocessor pooled = new Preprocessor(second.getKey(), second.getValue(), new PreprocessorOptions().pool(pool));
+        Preprocessor again = new Preprocessor(InputFacade.toGeometryRepresentation(fig, pool).getKey(), second.getValue(),
+                                              new PreprocessorOptions().pool(pool));
+
+        // the same analysis, on shared objects
+        assertEquals(plain.getAllSegments().keySet(), pooled.getAllSegments().keySet());
+        for (Segment s : pooled.getNonMinimalSegments()) assertSame(s, again.getAllSegments().get(s));
+
+        assertTrue(pool.getDedupRatio() > 0.4);
+    }
+}
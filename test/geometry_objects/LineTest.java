@@ -0,0 +1,53 @@
+package geometry_objects;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import geometry_objects.points.Point;
+
+public class LineTest {
+    @Test
+    public void equalsTest() {
+        Point a = new Point(0, 0);
+        Point b = new Point(2, 1);
+        Point c = new Point(6, 3);
+        Point d = new Point(-4, -2);
+
+        // direction and choice of points do not matter
+        assertEquals(new Line(a, b), new Line(b, a));
+        assertEquals(new Line(a, b), new Line(c, d));
+        assertEquals(new Line(a, b).hashCode(), new Line(d, c).hashCode());
+
+        assertNotEquals(new Line(a, b), new Line(a, new Point(2, 1.1)));
+        assertNotEquals(new Line(a, b), new Line(new Point(0, 1), new Point(2, 2)));
+    }
+
+    @Test
+    public void verticalHorizontalTest() {
+        Line vertical = new Line(new Point(3, -1), new Point(3, 5));
+        Line horizontal = new Line(new Point(-1, 4), new Point(7, 4));
+
+        assertTrue(vertical.isVertical());
+        assertFalse(vertical.isHorizontal());
+        assertTrue(horizontal.isHorizontal());
+
+        assertEquals(vertical, new Line(new Point(3, 10), new Point(3, 2)));
+        assertNotEquals(vertical, new Line(new Point(4, 10), new Point(4, 2)));
+
+        // horizontal segments compare symmetrically
+        Segment left = new Segment(new Point(0, 4), new Point(2, 4));
+        Segment right = new Segment(new Point(9, 4), new Point(5, 4));
+        assertTrue(left.isCollinearWith(right));
+        assertTrue(right.isCollinearWith(left));
+        assertFalse(left.isCollinearWith(new Segment(new Point(0, 3), new Point(2, 3))));
+    }
+
+    @Test
+    public void containsTest() {
+        Line line = new Line(new Point(0, 0), new Point(2, 1));
+
+        assertTrue(line.contains(new Point(4, 2)));
+        assertTrue(line.contains(new Point(-2, -1)));
+        assertFalse(line.contains(new Point(4, 2.1)));
+    }
+}
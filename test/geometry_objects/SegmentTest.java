@@ -3,6 +3,10 @@ package geometry_objects;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.util.List;
+
+import geometry_objects.points.Point;
+
 public class SegmentTest {
     @Test
     public void hasSubSegmentTest() {
@@ -23,4 +27,23 @@ public class SegmentTest {
     public void collectOrderedPointsOnSegmentTest() {
 
     }
+
+    @Test
+    public void orderPointsOnSegmentTest() {
+        Point a = new Point("A", 10, 5);
+        Point b = new Point("B", 7, 3.5);
+        Point c = new Point("C", 2, 1);
+        Point d = new Point("D", 0, 0);
+        Point e = new Point("E", 12, 6);
+        Point q = new Point("Q", 5, 5);
+
+        Segment ad = new Segment(a, d);
+
+        // ordered from point1 to point2; off-segment points dropped; duplicates collapsed
+        List<Point> ordered = ad.orderPointsOnSegment(List.of(d, q, c, e, a, b, new Point(2, 1)));
+        assertEquals(List.of(a, b, c, d), ordered);
+
+        assertEquals(List.of(d, c, b, a), new Segment(d, a).orderPointsOnSegment(List.of(a, b, c, d)));
+        assertTrue(ad.orderPointsOnSegment(List.of(q, e)).isEmpty());
+    }
 }
@@ -2,7 +2,10 @@ package geometry_objects.points;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.Test;
@@ -240,4 +243,75 @@ public class PointNamingFactoryTest {
             assertEquals(pnf.get(pt)._name, "*_" + String.valueOf(ALPHABET.charAt(i % len)).repeat((i / len) + 1));
         }
     }
+
+    @Test
+    public void putAllTest() {
+        // duplicates, renames of generated names and single-letter names, in random order
+        Random random = new Random(47);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            double x = random.nextInt(30);
+            double y = random.nextInt(30);
+
+            switch (random.nextInt(3)) {
+            case 0: points.add(new Point(x, y)); break;
+            case 1: points.add(new Point("" + (char) ('A' + random.nextInt(26)), x, y)); break;
+            default: points.add(new Point("P" + i, x, y)); break;
+            }
+        }
+
+        PointNamingFactory sequential = new PointNamingFactory();
+        sequential.put(new Point(1, 1));
+        for (Point pt : points) sequential.put(pt);
+
+        PointNamingFactory bulk = new PointNamingFactory();
+        bulk.put(new Point(1, 1));
+        bulk.putAll(points);
+
+        List<Point> expected = new ArrayList<>(sequential.getAllPoints());
+        List<Point> actual = new ArrayList<>(bulk.getAllPoints());
+        assertEquals(expected, actual);
+        for (int i = 0; i < expected.size(); i++) assertEquals(expected.get(i).getName(), actual.get(i).getName());
+
+        // both continue generating the same names
+        assertEquals(sequential.put(new Point(100, 100)).getName(), bulk.put(new Point(100, 100)).getName());
+
+        // points are immutable: the input is never renamed
+        for (Point pt : points) assertTrue(pt.isUnnamed() || !pt.isGenerated());
+    }
+
+    @Test
+    public void getNameTest() {
+        PointNamingFactory pnf = new PointNamingFactory(List.of(new Point(0, 0), new Point("A", 1, 1), new Point("A", 2, 2)));
+
+        assertEquals(new Point(0, 0), pnf.get("*_A"));
+        assertEquals(new Point(1, 1), pnf.get("A"));
+        assertNull(pnf.get("B"));
+
+        // a generated name is replaced by a valid one
+        pnf.put("B", 0, 0);
+        assertNull(pnf.get("*_A"));
+        assertEquals(new Point(0, 0), pnf.get("B"));
+
+        pnf.put(new Point(3, 3));
+        assertEquals(new Point(3, 3), pnf.get("*_B"));
+    }
+
+    @Test
+    public void renameReplacesTest() {
+        PointNamingFactory pnf = new PointNamingFactory();
+
+        Point generated = pnf.put(new Point(1, 2));
+        assertEquals("*_A", generated.getName());
+
+        // the stored point is replaced; the one handed out earlier is unchanged
+        Point named = pnf.put(new Point("Q", 1, 2));
+        assertEquals("Q", named.getName());
+        assertEquals("*_A", generated.getName());
+        assertSame(named, pnf.get(1, 2));
+
+        // a named point is shared as given
+        Point r = new Point("R", 3, 4);
+        assertSame(r, pnf.put(r));
+    }
 }
@@ -0,0 +1,46 @@
+package geometry_objects.points;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PointTest {
+    @Test
+    public void equalsTest() {
+        assertEquals(new Point(1, 2), new Point("A", 1, 2));
+        assertEquals(new Point(1, 2).hashCode(), new Point("A", 1, 2).hashCode());
+
+        // below the coordinate resolution
+        assertEquals(new Point(1.000001, 2), new Point(1, 2));
+        assertNotEquals(new Point(1.00001, 2), new Point(1, 2));
+
+        // symmetric coordinates do not collide
+        assertNotEquals(new Point(1, 2), new Point(2, 1));
+        assertNotEquals(new Point(1, 2).hashCode(), new Point(2, 1).hashCode());
+    }
+
+    @Test
+    public void largeCoordinatesTest() {
+        Point far = new Point(40000.25, -99999.5);
+
+        assertEquals(40000.25, far.getX(), 0);
+        assertEquals(-99999.5, far.getY(), 0);
+        assertEquals(far, new Point(40000.25, -99999.5));
+        assertNotEquals(far, new Point(40000.26, -99999.5));
+        assertEquals("(40000.25, -99999.5)", far.toString());
+        assertEquals("(30000, -50000)", new Point(30000, -50000).toString());
+    }
+
+    @Test
+    public void compareToTest() {
+        Point a = new Point(0, 0);
+        Point b = new Point(0, 1);
+        Point c = new Point(1, -5);
+
+        assertTrue(a.compareTo(b) < 0);
+        assertTrue(b.compareTo(c) < 0);
+        assertTrue(c.compareTo(a) > 0);
+        assertEquals(0, a.compareTo(new Point("A", 0, 0)));
+        assertEquals(1, a.compareTo(null));
+    }
+}
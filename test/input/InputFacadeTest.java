@@ -0,0 +1,38 @@
+package input;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.PointDatabase;
+import input.components.FigureNode;
+import utilities.io.FileUtilities;
+
+public class InputFacadeTest {
+    @Test
+    public void compressedFigureTest() throws IOException {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+
+        String json = Files.createTempFile("figure", ".json").toString();
+        String gz = Files.createTempFile("figure", ".json.gz").toString();
+        assertTrue(InputFacade.exportFigure(fig, json));
+        assertTrue(InputFacade.exportFigure(fig, gz));
+        assertTrue(Files.size(Path.of(gz)) < Files.size(Path.of(json)));
+
+        Map.Entry<PointDatabase, Set<Segment>> original = InputFacade.toGeometryRepresentation(fig);
+        Map.Entry<PointDatabase, Set<Segment>> fromGz = InputFacade.toGeometryRepresentation(InputFacade.extractFigure(gz));
+
+        assertEquals(original.getKey().getPoints(), fromGz.getKey().getPoints());
+        assertEquals(original.getValue(), fromGz.getValue());
+
+        String unparsed = Files.createTempFile("figure", ".txt.gz").toString();
+        assertTrue(InputFacade.unparseFigure(fig, unparsed));
+        assertTrue(FileUtilities.readFile(unparsed).startsWith("Figure"));
+    }
+}
@@ -0,0 +1,102 @@
+package input.parser;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONArray;
+import org.json.JSONTokener;
+
+import input.InputFacade;
+import input.components.FigureNode;
+import input.exception.ParseException;
+import utilities.io.FileUtilities;
+
+public class JSONParserTest {
+    private static String largeFigure(int n) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{ \"Figure\" : { \"Description\" : \"A \\\"Points\\\" [chain], of points\",\n  \"Points\" : [\n");
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(",\n");
+            sb.append("    { \"name\" : \"P").append(i).append("\", \"x\" : ").append(i).append(", \"y\" : ").append(i % 7).append(" }");
+        }
+        sb.append("\n  ],\n  \"Segments\" : [\n");
+        for (int i = 0; i + 1 < n; i++) {
+            if (i > 0) sb.append(",\n");
+            sb.append("    { \"P").append(i).append("\" : [\"P").append(i + 1).append("\"] }");
+        }
+        sb.append("\n  ]\n} }");
+
+        return sb.toString();
+    }
+
+    @Test
+    public void sectionsTest() {
+        String text = largeFigure(100);
+        JSONSections sections = new JSONSections(text, List.of("Points", "Segments"), 200);
+
+        JSONSections.Section points = sections.get("Points");
+        assertTrue(points.chunkCount() > 1);
+
+        // the chunks are exactly the elements of the array
+        List<String> names = new ArrayList<>();
+        for (int k = 0; k < points.chunkCount(); k++) {
+            String chunk = points.chunk(text, k);
+            JSONArray array = (JSONArray) new JSONTokener("[" + chunk + "]").nextValue();
+            for (int i = 0; i < array.length(); i++) names.add(array.getJSONObject(i).getString("name"));
+        }
+        assertEquals(100, names.size());
+        assertEquals("P0", names.get(0));
+        assertEquals("P99", names.get(99));
+
+        // the description (containing a quoted "Points" and brackets) is untouched
+        assertTrue(sections.skeleton().contains("\"Points\" : []"));
+        assertTrue(sections.skeleton().contains("\"Segments\" : []"));
+        assertTrue(sections.skeleton().contains("[chain]"));
+    }
+
+    @Test
+    public void parallelParseTest() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            String[] files = { "fully_connected_irregular_polygon.json", "collinear_line_segments.json", "single_triangle.json" };
+            for (String file : files) {
+                String text = FileUtilities.readFileFilterComments(file);
+                assertSameFigure(InputFacade.parseFigure(text), InputFacade.parseFigure(text, executor));
+            }
+
+            // large enough to be split into several chunks
+            String text = largeFigure(6000);
+            assertTrue(text.length() > 4 * JSONParser.MIN_CHUNK_CHARS);
+
+            FigureNode sequential = InputFacade.parseFigure(text);
+            FigureNode parallel = InputFacade.parseFigure(text, executor);
+            assertSameFigure(sequential, parallel);
+            assertEquals(5999, parallel.getSegments().numUndirectedEdges());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = ParseException.class)
+    public void parallelErrorTest() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            InputFacade.parseFigure("{ \"Figure\" : { \"Description\" : \"bad\", \"Points\" : [ { \"name\" : \"A\", \"x\" : 0 } ], \"Segments\" : [] } }", executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void assertSameFigure(FigureNode expected, FigureNode actual) {
+        assertEquals(expected.getDescription(), actual.getDescription());
+
+        // same points in the same (insertion) order
+        assertEquals(new ArrayList<>(expected.getPointsDatabase().getPoints()), new ArrayList<>(actual.getPointsDatabase().getPoints()));
+        assertEquals(expected.getSegments().getAdjacencyMap(), actual.getSegments().getAdjacencyMap());
+    }
+}
@@ -0,0 +1,67 @@
+package pipeline;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FigurePipelineTest {
+    private static final String[] FIGURES = { "single_triangle.json", "crossing_symmetric_triangle.json",
+                                              "fully_connected_irregular_polygon.json", "collinear_line_segments.json" };
+
+    @Test
+    public void runTest() {
+        List<Path> files = new ArrayList<Path>();
+        for (int i = 0; i < 40; i++) files.add(Path.of(FIGURES[i % FIGURES.length]));
+
+        FigurePipeline pipeline = new FigurePipeline(new PipelineOptions().buffer(2)
+                                                                          .parallelism(PipelineStage.PARSE, 2)
+                                                                          .parallelism(PipelineStage.PREPROCESS, 3)
+                                                                          .exporter((job) -> job.getPreprocessor().getAllSegments().size()));
+
+        List<FigureJob> jobs = pipeline.run(files);
+        assertEquals(40, jobs.size());
+
+        Map<Path, Object> outputs = new HashMap<Path, Object>();
+        for (FigureJob job : jobs) {
+            assertFalse(job.toString(), job.failed());
+
+            // Every copy of a figure gives the same result
+            Object previous = outputs.putIfAbsent(job.getPath(), job.getOutput());
+            if (previous != null) assertEquals(previous, job.getOutput());
+        }
+        assertEquals(35, outputs.get(Path.of("fully_connected_irregular_polygon.json")));
+        assertEquals(3, outputs.get(Path.of("single_triangle.json")));
+
+        for (PipelineStage stage : PipelineStage.values()) {
+            StageMetrics metrics = pipeline.getMetrics().get(stage);
+            assertEquals(40, metrics.getProcessed());
+            assertEquals(0, metrics.getQueueDepth());
+
+            // Bounded: never more queued than parallelism + buffer
+            assertTrue(metrics.toString(), metrics.getMaxQueueDepth() <= metrics.getParallelism() + 2);
+        }
+    }
+
+    @Test
+    public void failureTest() {
+        List<Path> files = List.of(Path.of("single_triangle.json"), Path.of("no_such_figure.json"));
+
+        List<FigureJob> jobs = new FigurePipeline().run(files);
+        assertEquals(2, jobs.size());
+
+        for (FigureJob job : jobs) {
+            if (job.getPath().equals(Path.of("single_triangle.json"))) {
+                assertFalse(job.failed());
+                assertTrue(job.getOutput().toString().contains("Figure"));
+            } else {
+                assertTrue(job.failed());
+                assertEquals(PipelineStage.PARSE, job.getFailedStage());
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package pipeline;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import input.InputFacade;
+import preprocessor.cache.PreprocessorCache;
+import preprocessor.diff.FigureDiff;
+import utilities.io.FileUtilities;
+
+public class FigureWatcherTest {
+    @Test
+    public void watchTest() throws Exception {
+        Path dir = Files.createTempDirectory("watch");
+        Path file = dir.resolve("figure.json");
+        String triangle = FileUtilities.readFile("single_triangle.json");
+        Files.writeString(file, triangle);
+
+        BlockingQueue<Object> events = new LinkedBlockingQueue<Object>();
+        try (FigureWatcher watcher = new FigureWatcher(dir, new PreprocessorCache(), 50)) {
+            watcher.addListener(new FigureListener() {
+                @Override
+                public void figureUpdated(FigureUpdate update) { events.add(update); }
+
+                @Override
+                public void figureRemoved(Path path) { events.add(path); }
+
+                @Override
+                public void figureFailed(Path path, Throwable error) { events.add(error); }
+            });
+            watcher.start();
+
+            // The existing figure is analyzed on start
+            FigureUpdate initial = (FigureUpdate) events.poll(5, TimeUnit.SECONDS);
+            assertTrue(initial.isNew());
+            assertEquals(3, initial.getPreprocessor().getAllSegments().size());
+            assertEquals(3, initial.getDiff().getAddedSegments().size());
+
+            // A comment-only edit: same geometry, no update
+            Files.writeString(file, "// edited\n" + triangle);
+            assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+            assertEquals(1, watcher.getUnchanged());
+
+            // A real edit, written in several bursts: one (debounced) update
+            String polygon = FileUtilities.readFile("fully_connected_irregular_polygon.json");
+            for (int i = 0; i < 3; i++) Files.writeString(file, polygon);
+
+            FigureUpdate changed = (FigureUpdate) events.poll(5, TimeUnit.SECONDS);
+            assertEquals(initial.getHash(), changed.getPreviousHash());
+            assertTrue(changed.getDiff().changesGeometry());
+            assertEquals(35, changed.getPreprocessor().getAllSegments().size());
+            assertNull(events.poll(300, TimeUnit.MILLISECONDS));
+
+            // The diff is between the figures as given: the implicit points of
+            // the previous analysis are not reported as removed
+            Files.writeString(file, FileUtilities.readFile("collinear_line_segments.json"));
+            FigureUpdate collinear = (FigureUpdate) events.poll(5, TimeUnit.SECONDS);
+            FigureDiff expected = FigureDiff.of(InputFacade.extractFigure("fully_connected_irregular_polygon.json"),
+                                                InputFacade.extractFigure("collinear_line_segments.json"));
+            assertEquals(expected.getRemovedPoints(), collinear.getDiff().getRemovedPoints());
+            assertEquals(expected.getRemovedSegments(), collinear.getDiff().getRemovedSegments());
+
+            Files.delete(file);
+            assertEquals(file, events.poll(5, TimeUnit.SECONDS));
+            assertNull(watcher.getHash(file));
+        }
+    }
+
+    @Test
+    public void errorTest() throws Exception {
+        Path dir = Files.createTempDirectory("watch");
+        Path file = dir.resolve("figure.json");
+        Files.writeString(file, FileUtilities.readFile("single_triangle.json"));
+
+        BlockingQueue<Object> events = new LinkedBlockingQueue<Object>();
+        AtomicInteger updates = new AtomicInteger();
+        try (FigureWatcher watcher = new FigureWatcher(dir, new PreprocessorCache(), 50)) {
+            watcher.addListener(new FigureListener() {
+                @Override
+                public void figureUpdated(FigureUpdate update) {
+                    // An Error on the watch thread (the second update) must not stop it
+                    if (updates.incrementAndGet() == 2) throw new AssertionError("listener failure");
+                    events.add(update);
+                }
+
+                @Override
+                public void figureFailed(Path path, Throwable error) { events.add(error); }
+            });
+            watcher.start();
+            assertTrue(events.poll(5, TimeUnit.SECONDS) instanceof FigureUpdate);
+
+            Files.writeString(file, FileUtilities.readFile("fully_connected_irregular_polygon.json"));
+            assertTrue(events.poll(5, TimeUnit.SECONDS) instanceof AssertionError);
+
+            Files.writeString(file, FileUtilities.readFile("collinear_line_segments.json"));
+            assertTrue(events.poll(5, TimeUnit.SECONDS) instanceof FigureUpdate);
+        }
+    }
+}
@@ -4,9 +4,14 @@ import static org.junit.Assert.*;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import geometry_objects.Segment;
 import geometry_objects.points.Point;
@@ -176,4 +181,122 @@ public class PreprocessorTest
 	public void constructAllNonMinimalSegmentsTest() {
 
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void parallelMatchesSequentialTest()
+	{
+		// A fully connected, irregular 14-gon: many crossings and collinear pieces
+		List<Point> vertices = new ArrayList<Point>();
+		for (int i = 0; i < 14; i++) {
+			double angle = 2 * Math.PI * i / 14;
+			double radius = 10 + (i % 3);
+			vertices.add(new Point("P" + i, radius * Math.cos(angle), radius * Math.sin(angle)));
+		}
+
+		Set<Segment> segments = new LinkedHashSet<Segment>();
+		for (int i = 0; i < vertices.size(); i++) {
+			for (int j = i + 1; j < vertices.size(); j++) {
+				segments.add(new Segment(vertices.get(i), vertices.get(j)));
+			}
+		}
+
+		PointDatabase sequentialPoints = new PointDatabase(vertices);
+		Preprocessor sequential = new Preprocessor(sequentialPoints, segments);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			PointDatabase parallelPoints = new PointDatabase(vertices);
+			Preprocessor parallel = new Preprocessor(parallelPoints, segments, new PreprocessorOptions().executor(executor));
+
+			assertEquals(new ArrayList<Point>(sequentialPoints.getPoints()), new ArrayList<Point>(parallelPoints.getPoints()));
+			assertEquals(new ArrayList<Point>(sequential.getImplicitPoints()), new ArrayList<Point>(parallel.getImplicitPoints()));
+			assertEquals(new ArrayList<Segment>(sequential.getImplicitSegments()), new ArrayList<Segment>(parallel.getImplicitSegments()));
+			assertEquals(new ArrayList<Segment>(sequential.getMinimalSegments()), new ArrayList<Segment>(parallel.getMinimalSegments()));
+			assertEquals(new ArrayList<Segment>(sequential.getNonMinimalSegments()), new ArrayList<Segment>(parallel.getNonMinimalSegments()));
+			assertEquals(sequential.getAllSegments().keySet(), parallel.getAllSegments().keySet());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void incidenceMatchesGeometryTest()
+	{
+		FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+
+		Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+		SegmentIncidence incidence = pp.getIncidence();
+
+		// The incidence structure agrees with the point-on-segment predicates
+		for (Segment segment : pair.getValue())
+		{
+			List<Point> expected = new ArrayList<Point>();
+			for (Point pt : segment.orderPointsOnSegment(pp.getImplicitPoints()))
+			{
+				if (segment.pointLiesBetweenEndpoints(pt)) expected.add(pt);
+			}
+
+			assertEquals(expected, incidence.getPointsOn(segment));
+		}
+
+		// ... and so the phases built on each agree
+		assertEquals(pp.computeImplicitBaseSegments(pp.getImplicitPoints()), pp.getImplicitSegments());
+		assertEquals(pp.identifyAllMinimalSegments(pp.getImplicitPoints(), pair.getValue(), pp.getImplicitSegments()),
+				     pp.getMinimalSegments());
+	}
+
+	@Test
+	public void previousAnalysisTest()
+	{
+		// A fully connected 14-gon, then an edit: one chord removed, a point and a segment added
+		List<Point> vertices = new ArrayList<Point>();
+		for (int i = 0; i < 14; i++) {
+			double angle = 2 * Math.PI * i / 14;
+			double radius = 10 + (i % 3);
+			vertices.add(new Point("P" + i, radius * Math.cos(angle), radius * Math.sin(angle)));
+		}
+
+		Set<Segment> segments = new LinkedHashSet<Segment>();
+		for (int i = 0; i < vertices.size(); i++) {
+			for (int j = i + 1; j < vertices.size(); j++) {
+				segments.add(new Segment(vertices.get(i), vertices.get(j)));
+			}
+		}
+
+		Preprocessor before = new Preprocessor(new PointDatabase(vertices), segments);
+
+		List<Point> editedVertices = new ArrayList<Point>(vertices);
+		Point q = new Point("Q", 30, 1);
+		editedVertices.add(q);
+
+		Set<Segment> edited = new LinkedHashSet<Segment>(segments);
+		edited.remove(new Segment(vertices.get(0), vertices.get(7)));
+		edited.add(new Segment(vertices.get(3), q));
+
+		Preprocessor full = new Preprocessor(new PointDatabase(editedVertices), edited);
+		Preprocessor incremental = new Preprocessor(new PointDatabase(editedVertices), edited, new PreprocessorOptions().previous(before));
+
+		assertEquals(full.getImplicitPoints(), incremental.getImplicitPoints());
+		assertEquals(full.getMinimalSegments(), incremental.getMinimalSegments());
+		assertEquals(full.getNonMinimalSegments(), incremental.getNonMinimalSegments());
+		assertEquals(full.getAllSegments().keySet(), incremental.getAllSegments().keySet());
+		assertEquals(new LineIndex(full.getSegmentDatabase().getSegments()).size(),
+				     new LineIndex(incremental.getSegmentDatabase().getSegments()).size());
+
+		// Reused segments are rebuilt on the edited figure's point objects
+		Set<Point> endpoints = Collections.newSetFromMap(new IdentityHashMap<Point, Boolean>());
+		for (Segment segment : incremental.getMinimalSegments())
+		{
+			endpoints.add(segment.getPoint1());
+			endpoints.add(segment.getPoint2());
+		}
+		for (Segment segment : incremental.getNonMinimalSegments())
+		{
+			assertTrue(endpoints.contains(segment.getPoint1()) && endpoints.contains(segment.getPoint2()));
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package preprocessor;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Map;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+public class SegmentDatabaseTest {
+    @Test
+    public void putGetTest() {
+        SegmentDatabase db = new SegmentDatabase();
+
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 1, 0);
+        Point c = new Point("C", 0, 1);
+
+        Segment ab = new Segment(a, b);
+        assertSame(ab, db.put(ab));
+        assertEquals(1, db.size());
+
+        // endpoint order and point identity do not matter
+        assertSame(ab, db.put(new Segment(new Point(1, 0), new Point(0, 0))));
+        assertEquals(1, db.size());
+        assertSame(ab, db.get(b, a));
+        assertSame(ab, db.get(new Segment(b, a)));
+
+        assertNull(db.get(a, c));
+        assertNull(db.get(new Point(5, 5), a));
+        assertFalse(db.contains(new Segment(b, c)));
+    }
+
+    @Test
+    public void growthTest() {
+        SegmentDatabase db = new SegmentDatabase();
+
+        // every pair of 60 points: forces several rehashes
+        int n = 60;
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                db.put(new Segment(new Point(i, i * i), new Point(j, j * j)));
+            }
+        }
+
+        assertEquals(n * (n - 1) / 2, db.size());
+
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                Segment stored = db.get(new Point(j, j * j), new Point(i, i * i));
+                assertNotNull(stored);
+                assertEquals(new Point(i, i * i), stored.getPoint1());
+            }
+        }
+    }
+
+    @Test
+    public void mapViewTest() {
+        SegmentDatabase db = new SegmentDatabase();
+
+        Segment ab = new Segment(new Point(0, 0), new Point(1, 0));
+        Segment bc = new Segment(new Point(1, 0), new Point(2, 2));
+        db.put(ab);
+        db.put(bc);
+
+        Map<Segment, Segment> view = db.asMap();
+
+        assertEquals(2, view.size());
+        assertSame(bc, view.get(new Segment(new Point(2, 2), new Point(1, 0))));
+        assertTrue(view.containsKey(ab));
+        assertFalse(view.containsKey(new Segment(new Point(0, 0), new Point(2, 2))));
+        assertNull(view.get("not a segment"));
+
+        for (Map.Entry<Segment, Segment> entry : view.entrySet()) {
+            assertSame(entry.getKey(), entry.getValue());
+        }
+    }
+}
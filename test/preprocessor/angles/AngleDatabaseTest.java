@@ -0,0 +1,94 @@
+package preprocessor.angles;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+public class AngleDatabaseTest {
+    @Test
+    public void measureTest() {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 1, 0);
+        Point c = new Point("C", 1, 1);
+        Point d = new Point("D", -1, 0);
+
+        Segment ab = new Segment(a, b);
+        Segment ac = new Segment(a, c);
+        Segment ad = new Segment(a, d);
+        Segment bc = new Segment(b, c);
+
+        AngleDatabase angles = new AngleDatabase(Set.of(ab, ac, ad, bc));
+
+        assertEquals(45, angles.getAngle(ab, ac).getMeasureDegrees(), 1e-9);
+        assertEquals(45, angles.getAngle(ac, ab).getMeasureDegrees(), 1e-9);
+        assertEquals(135, angles.getAngle(ad, ac).getMeasureDegrees(), 1e-9);
+        assertTrue(angles.getAngle(ab, ad).isStraight());
+        assertEquals(90, Math.toDegrees(angles.getMeasure(ab, bc)), 1e-9);
+
+        assertEquals(angles.getAngle(ab, ac), angles.getAngle(ac, ab));
+        assertNull(angles.getAngle(ad, bc));
+        assertTrue(Double.isNaN(angles.getMeasure(ad, bc)));
+
+        assertEquals(3, angles.getRayCount(a));
+        assertEquals(3, angles.getAngles(a).size());
+        assertEquals(0, angles.getRayCount(new Point(7, 7)));
+    }
+
+    @Test
+    public void sameRayTest() {
+        // A--B--C with AB, BC, AC: at A, AB and AC are one ray
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 2, 2);
+        Point c = new Point("C", 5, 5);
+        Point d = new Point("D", 0, 3);
+
+        Segment ab = new Segment(a, b);
+        Segment ac = new Segment(a, c);
+        Segment bc = new Segment(b, c);
+        Segment ad = new Segment(a, d);
+
+        AngleDatabase angles = new AngleDatabase(List.of(ab, bc, ac, ad));
+
+        assertEquals(2, angles.getRayCount(a));
+        assertNull(angles.getAngle(ab, ac));
+        assertEquals(angles.getAngle(ab, ad), angles.getAngle(ac, ad));
+        assertEquals(45, angles.getAngle(ac, ad).getMeasureDegrees(), 1e-9);
+    }
+
+    @Test
+    public void wrapAroundTest() {
+        // Directions just either side of +/- pi
+        Point o = new Point(0, 0);
+        Segment up = new Segment(o, new Point(-10, 0.001));
+        Segment down = new Segment(o, new Point(-10, -0.001));
+        Segment right = new Segment(o, new Point(10, 0));
+
+        AngleDatabase angles = new AngleDatabase(List.of(up, down, right));
+
+        assertEquals(3, angles.getRayCount(o));
+        assertEquals(Math.toDegrees(2 * Math.atan2(0.001, 10)), angles.getAngle(up, down).getMeasureDegrees(), 1e-9);
+        assertEquals(180 - Math.toDegrees(Math.atan2(0.001, 10)), angles.getAngle(up, right).getMeasureDegrees(), 1e-9);
+    }
+
+    @Test
+    public void nearlyCollinearTest() {
+        // Directions 5e-5 radians apart are distinct rays: the lines differ
+        Point o = new Point(0, 0);
+        Segment flat = new Segment(o, new Point(10, 0));
+        Segment tilted = new Segment(o, new Point(10, 0.0005));
+        Segment back = new Segment(o, new Point(-10, 0));
+
+        AngleDatabase angles = new AngleDatabase(List.of(flat, tilted, back));
+
+        assertEquals(3, angles.getRayCount(o));
+        assertNotNull(angles.getAngle(flat, tilted));
+        assertFalse(angles.getAngle(flat, tilted).isStraight());
+        assertFalse(angles.getAngle(tilted, back).isStraight());
+        assertTrue(angles.getAngle(flat, back).isStraight());
+    }
+}
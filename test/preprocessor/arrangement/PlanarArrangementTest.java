@@ -0,0 +1,188 @@
+package preprocessor.arrangement;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import preprocessor.Preprocessor;
+
+public class PlanarArrangementTest {
+    @Test
+    public void triangleTest() {
+        FigureNode fig = InputFacade.extractFigure("single_triangle.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+        PlanarArrangement arrangement = PlanarArrangement.build(pp);
+
+        assertEquals(3, arrangement.getVertices().size());
+        assertEquals(6, arrangement.getHalfEdges().size());
+        assertEquals(2, arrangement.getFaces().size());
+
+        List<Face> bounded = arrangement.getBoundedFaces();
+        assertEquals(1, bounded.size());
+        assertEquals(0.5, bounded.get(0).getSignedArea(), 1e-9);
+        assertEquals(3, bounded.get(0).getVertices().size());
+
+        Vertex a = arrangement.getVertex(new Point(0, 0));
+        assertEquals(2, a.degree());
+        assertSame(a, a.getIncidentEdge().getOrigin());
+    }
+
+    @Test
+    public void ringOrderTest() {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+        PlanarArrangement arrangement = PlanarArrangement.build(pp);
+
+        for (Vertex vertex : arrangement.getVertices()) {
+            List<HalfEdge> ring = vertex.getOutgoing();
+
+            for (int i = 1; i < ring.size(); i++) {
+                assertTrue(ring.get(i - 1).getAngle() <= ring.get(i).getAngle());
+            }
+
+            for (HalfEdge edge : ring) {
+                assertSame(edge, edge.getTwin().getTwin());
+                assertSame(edge, edge.getNext().getPrev());
+                assertSame(vertex, edge.getOrigin());
+                assertSame(edge.getDestination(), edge.getNext().getOrigin());
+            }
+        }
+    }
+
+    @Test
+    public void eulerTest() {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+        // 5 explicit + 5 implicit points + isolated F(26, 0); 20 minimal segments
+        PlanarArrangement arrangement = PlanarArrangement.build(pp);
+
+        int v = arrangement.getVertices().size();
+        int e = arrangement.getHalfEdges().size() / 2;
+        int f = arrangement.getFaces().size();
+
+        assertEquals(11, v);
+        assertEquals(20, e);
+        assertEquals(0, arrangement.getVertex(new Point(26, 0)).degree());
+
+        // Euler's formula for a planar graph with C = 2 components: V - E + F = 1 + C
+        assertEquals(3, v - e + f);
+        assertEquals(f - 1, arrangement.getBoundedFaces().size());
+
+        double total = 0;
+        for (Face face : arrangement.getBoundedFaces()) total += face.getSignedArea();
+
+        // The bounded faces tile the pentagon
+        double pentagon = 0;
+        for (Face face : arrangement.getFaces()) {
+            if (!face.isBounded()) pentagon = -face.getSignedArea();
+        }
+        assertEquals(pentagon, total, 1e-6);
+    }
+
+    @Test
+    public void tJunctionTest() {
+        // C is an endpoint of CD and lies inside AB, which is never split there
+        List<Point> points = List.of(new Point("A", 0, 0), new Point("B", 2, 0), new Point("C", 1, 0), new Point("D", 1, 1));
+        Set<Segment> segments = new LinkedHashSet<Segment>();
+        segments.add(new Segment(points.get(0), points.get(1)));
+        segments.add(new Segment(points.get(2), points.get(3)));
+
+        Preprocessor pp = new Preprocessor(new PointDatabase(points), segments);
+
+        PlanarArrangement arrangement = PlanarArrangement.build(pp);
+
+        // AB is split at C: AC, CB and CD
+        assertEquals(4, arrangement.getVertices().size());
+        assertEquals(6, arrangement.getHalfEdges().size());
+        assertEquals(1, arrangement.getFaces().size());
+        assertEquals(3, arrangement.getVertex(points.get(2)).degree());
+        assertPlanar(arrangement);
+    }
+
+    @Test
+    public void overlappingCollinearTest() {
+        // AB and CE overlap between C and B
+        List<Point> points = List.of(new Point("A", 0, 0), new Point("B", 2, 0), new Point("C", 1, 0), new Point("E", 3, 0));
+        Set<Segment> segments = new LinkedHashSet<Segment>();
+        segments.add(new Segment(points.get(0), points.get(1)));
+        segments.add(new Segment(points.get(2), points.get(3)));
+
+        Preprocessor pp = new Preprocessor(new PointDatabase(points), segments);
+
+        PlanarArrangement arrangement = PlanarArrangement.build(pp);
+
+        // AC, CB and BE; the shared piece CB only once
+        assertEquals(6, arrangement.getHalfEdges().size());
+        assertEquals(2, arrangement.getVertex(points.get(2)).degree());
+        assertEquals(2, arrangement.getVertex(points.get(1)).degree());
+        assertPlanar(arrangement);
+    }
+
+    @Test
+    public void bundledFigureTest() {
+        // Point F lies inside segment IG of GeometryFigureTest3
+        for (String figure : List.of("GeometryFigureTest1.json", "GeometryFigureTest3.json")) {
+            FigureNode fig = InputFacade.extractFigure(figure);
+            Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+            Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+            PlanarArrangement arrangement = PlanarArrangement.build(pp);
+
+            assertEquals(pp.getPointDatabase().size(), arrangement.getVertices().size());
+            assertPlanar(arrangement);
+        }
+    }
+
+    //
+    // No vertex inside an edge, every ring closes, and Euler's formula holds:
+    // each component with edges has V - E + F = 2 counting its own outer face
+    // (components are not nested); an isolated vertex has no face
+    //
+    private static void assertPlanar(PlanarArrangement arrangement) {
+        for (HalfEdge edge : arrangement.getHalfEdges()) {
+            for (Vertex vertex : arrangement.getVertices()) {
+                assertFalse(edge.getSegment().pointLiesBetweenEndpoints(vertex.getPoint()));
+            }
+            assertSame(edge.getDestination(), edge.getNext().getOrigin());
+        }
+
+        Set<Vertex> visited = new HashSet<Vertex>();
+        int components = 0;
+        int isolated = 0;
+        for (Vertex start : arrangement.getVertices()) {
+            if (!visited.add(start)) continue;
+            if (start.degree() == 0) isolated++;
+            else components++;
+
+            Deque<Vertex> stack = new ArrayDeque<Vertex>(List.of(start));
+            while (!stack.isEmpty()) {
+                for (HalfEdge edge : stack.pop().getOutgoing()) {
+                    if (visited.add(edge.getDestination())) stack.push(edge.getDestination());
+                }
+            }
+        }
+
+        int v = arrangement.getVertices().size();
+        int e = arrangement.getHalfEdges().size() / 2;
+        int f = arrangement.getFaces().size();
+        assertEquals(2 * components + isolated, v - e + f);
+    }
+}
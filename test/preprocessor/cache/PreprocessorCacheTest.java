@@ -0,0 +1,106 @@
+package preprocessor.cache;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import preprocessor.LineIndex;
+import preprocessor.Preprocessor;
+import preprocessor.enumeration.TriangleEnumerator;
+
+public class PreprocessorCacheTest {
+    @Test
+    public void figureHashTest() {
+        Map.Entry<PointDatabase, Set<Segment>> first = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+        Map.Entry<PointDatabase, Set<Segment>> second = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+        Map.Entry<PointDatabase, Set<Segment>> other = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("single_triangle.json"));
+
+        String key = FigureHash.of(first.getKey(), first.getValue());
+
+        assertEquals(key, FigureHash.of(second.getKey(), second.getValue()));
+        assertNotEquals(key, FigureHash.of(other.getKey(), other.getValue()));
+    }
+
+    @Test
+    public void memoryTierTest() {
+        PreprocessorCache cache = new PreprocessorCache();
+
+        Map.Entry<PointDatabase, Set<Segment>> first = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+        Preprocessor expected = cache.analyze(first.getKey(), first.getValue());
+
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        Map.Entry<PointDatabase, Set<Segment>> second = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+        Preprocessor actual = cache.analyze(second.getKey(), second.getValue());
+
+        assertEquals(1, cache.getMemoryHits());
+        assertEquals(1, cache.getMisses());
+
+        assertSameAnalysis(expected, actual);
+        assertEquals(first.getKey().size(), second.getKey().size());
+    }
+
+    @Test
+    public void evictionTest() {
+        PreprocessorCache cache = new PreprocessorCache(1, null);
+
+        Map.Entry<PointDatabase, Set<Segment>> polygon = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+        Map.Entry<PointDatabase, Set<Segment>> triangle = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("single_triangle.json"));
+
+        cache.analyze(polygon.getKey(), polygon.getValue());
+        cache.analyze(triangle.getKey(), triangle.getValue());
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        polygon = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+        cache.analyze(polygon.getKey(), polygon.getValue());
+
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void diskTierTest() throws IOException {
+        Path directory = Files.createTempDirectory("preprocessor-cache");
+
+        Map.Entry<PointDatabase, Set<Segment>> first = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+        Preprocessor expected = new PreprocessorCache(4, directory).analyze(first.getKey(), first.getValue());
+
+        // A fresh cache (e.g., another job) only has the on-disk tier available
+        PreprocessorCache cache = new PreprocessorCache(4, directory);
+
+        Map.Entry<PointDatabase, Set<Segment>> second = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+        Preprocessor actual = cache.analyze(second.getKey(), second.getValue());
+
+        assertEquals(1, cache.getDiskHits());
+        assertEquals(0, cache.getMisses());
+        assertSameAnalysis(expected, actual);
+
+        second = InputFacade.toGeometryRepresentation(InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+        cache.analyze(second.getKey(), second.getValue());
+        assertEquals(1, cache.getMemoryHits());
+    }
+
+    private static void assertSameAnalysis(Preprocessor expected, Preprocessor actual) {
+        assertEquals(expected.getImplicitPoints(), actual.getImplicitPoints());
+        assertEquals(expected.getImplicitSegments(), actual.getImplicitSegments());
+        assertEquals(expected.getMinimalSegments(), actual.getMinimalSegments());
+        assertEquals(expected.getNonMinimalSegments(), actual.getNonMinimalSegments());
+        assertEquals(expected.getAllSegments().keySet(), actual.getAllSegments().keySet());
+
+        // Collinearity: pieces of a segment must keep their parent's line
+        assertEquals(new LineIndex(expected.getSegmentDatabase().getSegments()).size(),
+                     new LineIndex(actual.getSegmentDatabase().getSegments()).size());
+        assertEquals(new TriangleEnumerator(expected).count(), new TriangleEnumerator(actual).count());
+    }
+}
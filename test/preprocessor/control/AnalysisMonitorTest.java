@@ -0,0 +1,117 @@
+package preprocessor.control;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import preprocessor.Preprocessor;
+import preprocessor.PreprocessorOptions;
+import preprocessor.metrics.PreprocessorPhase;
+
+public class AnalysisMonitorTest {
+    /**
+     * n collinear minimal segments: the non-minimal construction is cubic in n.
+     */
+    private static Preprocessor collinear(int n, PreprocessorOptions options) {
+        List<Point> points = new ArrayList<Point>();
+        for (int i = 0; i <= n; i++) points.add(new Point("P" + i, i, 0));
+
+        Set<Segment> segments = new LinkedHashSet<Segment>();
+        for (int i = 0; i < n; i++) segments.add(new Segment(points.get(i), points.get(i + 1)));
+
+        return new Preprocessor(new PointDatabase(points), segments, options);
+    }
+
+    @Test
+    public void deadlineTest() {
+        long start = System.nanoTime();
+        try {
+            collinear(600, new PreprocessorOptions().timeout(Duration.ofMillis(50)));
+            fail("expected the analysis to exceed its deadline");
+        } catch (AnalysisAbortedException e) {
+            assertEquals(AnalysisAbortedException.Reason.DEADLINE_EXCEEDED, e.getReason());
+            assertNotNull(e.getPhase());
+
+            // partial statistics, including the time spent in the interrupted phase
+            assertTrue(e.getStatistics().getIntersectionTests() > 0);
+            assertTrue(e.getStatistics().getNanos(e.getPhase()) > 0);
+        }
+
+        // fails fast (generously bounded for slow machines)
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    }
+
+    @Test
+    public void cancellationTest() {
+        CancellationToken token = new CancellationToken();
+        PreprocessorOptions options = new PreprocessorOptions().cancellation(token).progress((phase, fraction) -> {
+            if (phase == PreprocessorPhase.MINIMAL_SEGMENTS) token.cancel();
+        });
+
+        try {
+            collinear(20, options);
+            fail("expected the analysis to be cancelled");
+        } catch (AnalysisAbortedException e) {
+            assertEquals(AnalysisAbortedException.Reason.CANCELLED, e.getReason());
+            assertEquals(PreprocessorPhase.MINIMAL_SEGMENTS, e.getPhase());
+        }
+    }
+
+    @Test
+    public void progressTest() {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+
+        List<PreprocessorPhase> phases = new ArrayList<PreprocessorPhase>();
+        List<Double> fractions = new ArrayList<Double>();
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue(), new PreprocessorOptions().progress((phase, fraction) -> {
+            phases.add(phase);
+            fractions.add(fraction);
+        }));
+
+        assertEquals(35, pp.getAllSegments().size());
+
+        // every phase reports 0 first and 1 last, never decreasing in between
+        for (PreprocessorPhase phase : PreprocessorPhase.values()) {
+            int first = phases.indexOf(phase);
+            int last = phases.lastIndexOf(phase);
+
+            assertEquals(0.0, fractions.get(first), 0);
+            assertEquals(1.0, fractions.get(last), 0);
+            for (int i = first + 1; i <= last; i++) assertTrue(fractions.get(i) >= fractions.get(i - 1));
+        }
+    }
+
+    @Test
+    public void concurrentProgressTest() throws InterruptedException {
+        // Unsynchronized on purpose: reports must never overlap
+        List<Double> fractions = new ArrayList<Double>();
+        AnalysisMonitor monitor = new AnalysisMonitor(null, Long.MAX_VALUE, (phase, fraction) -> fractions.add(fraction), null);
+        monitor.begin(PreprocessorPhase.IMPLICIT_POINTS, 4 * 10_000);
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) monitor.advance(1);
+            }));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        monitor.end();
+
+        assertEquals(0.0, fractions.get(0), 0);
+        assertEquals(1.0, fractions.get(fractions.size() - 1), 0);
+        for (int i = 1; i < fractions.size(); i++) assertTrue(fractions.get(i) > fractions.get(i - 1));
+    }
+}
@@ -3,9 +3,108 @@ package preprocessor.delegates;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+
 public class ImplicitPointPreprocessorTest {
     @Test
     public void computeTest() {
+        // X: two crossing segments
+        PointDatabase points = new PointDatabase();
+        points.put("A", 0, 0);
+        points.put("B", 2, 2);
+        points.put("C", 0, 2);
+        points.put("D", 2, 0);
+
+        List<Segment> segments = List.of(new Segment(points.getPoint("A"), points.getPoint("B")),
+                                         new Segment(points.getPoint("C"), points.getPoint("D")));
+
+        Set<Point> implicit = ImplicitPointPreprocessor.compute(points, segments);
+
+        assertEquals(Set.of(new Point(1, 1)), implicit);
+        assertEquals(5, points.size());
+    }
+
+    @Test
+    public void starClusterTest() {
+        // k segments all crossing at the center: k(k-1)/2 candidates, one point
+        int[][] directions = { { 1, 0 }, { 0, 1 }, { 1, 1 }, { 1, -1 }, { 2, 1 }, { 1, 2 }, { 3, -1 }, { 1, -3 } };
+        double cx = 0.33333, cy = 0.66667;
+
+        PointDatabase points = new PointDatabase();
+        List<Segment> segments = new ArrayList<Segment>();
+        for (int i = 0; i < directions.length; i++) {
+            points.put("P" + i, cx + directions[i][0], cy + directions[i][1]);
+            points.put("Q" + i, cx - directions[i][0], cy - directions[i][1]);
+            segments.add(new Segment(points.getPoint("P" + i), points.getPoint("Q" + i)));
+        }
+        int explicit = points.size();
+
+        ImplicitPointClusters clusters = ImplicitPointPreprocessor.cluster(points, segments, null, null);
+
+        assertEquals(1, clusters.size());
+        assertEquals(explicit + 1, points.size());
+
+        Point center = clusters.getPoints().iterator().next();
+        assertEquals(new Point(cx, cy), center);
+
+        assertEquals(segments, clusters.getSegmentsThrough(center));
+        assertEquals(directions.length, clusters.getSegmentIndicesThrough(center).length);
+        assertTrue(clusters.getSegmentsThrough(new Point(5, 5)).isEmpty());
+    }
+
+    @Test
+    public void neighborCellTest() {
+        // Round-off of one crossing computed from different pairs: adjacent grid cells merge
+        List<Point> candidates = List.of(new Point(1.00001, 2), new Point(7, 7), new Point(1, 2.00001), new Point(1.00002, 2.00001));
+        List<Segment> segments = new ArrayList<Segment>();
+        for (int i = 0; i < 5; i++) segments.add(new Segment(new Point(i, 0), new Point(i, 1)));
+
+        ImplicitPointClusters clusters = new ImplicitPointClusters(new PointDatabase(), segments, candidates,
+                                                                   new int[] { 0, 1, 3, 4, 0, 2, 1, 2 });
+
+        assertEquals(2, clusters.size());
+        assertEquals(List.of(new Point(1.00001, 2), new Point(7, 7)), new ArrayList<Point>(clusters.getPoints()));
+        assertArrayEquals(new int[] { 0, 1, 2 }, clusters.getSegmentIndicesThrough(new Point(1.00001, 2)));
+        assertArrayEquals(new int[] { 3, 4 }, clusters.getSegmentIndicesThrough(new Point(7, 7)));
+    }
+
+    @Test
+    public void neighborChainTest() {
+        // A chain of adjacent cells does not merge points further than one unit from the first
+        List<Point> candidates = List.of(new Point(1, 2), new Point(1.00001, 2), new Point(1.00002, 2), new Point(1.00003, 2));
+        List<Segment> segments = new ArrayList<Segment>();
+        for (int i = 0; i < 8; i++) segments.add(new Segment(new Point(i, 0), new Point(i, 1)));
+
+        ImplicitPointClusters clusters = new ImplicitPointClusters(new PointDatabase(), segments, candidates,
+                                                                   new int[] { 0, 1, 2, 3, 4, 5, 6, 7 });
+
+        assertEquals(List.of(new Point(1, 2), new Point(1.00002, 2)), new ArrayList<Point>(clusters.getPoints()));
+        assertArrayEquals(new int[] { 0, 1, 2, 3 }, clusters.getSegmentIndicesThrough(new Point(1, 2)));
+        assertArrayEquals(new int[] { 4, 5, 6, 7 }, clusters.getSegmentIndicesThrough(new Point(1.00002, 2)));
+    }
+
+    @Test
+    public void canonicalDatabasePointTest() {
+        // Two segments crossing exactly at a named (isolated) point: that point is canonical
+        PointDatabase points = new PointDatabase();
+        points.put("A", 0, 0);
+        points.put("B", 2, 2);
+        points.put("C", 0, 2);
+        points.put("D", 2, 0);
+        points.put("M", 1, 1);
+
+        List<Segment> segments = List.of(new Segment(points.getPoint("A"), points.getPoint("B")),
+                                         new Segment(points.getPoint("C"), points.getPoint("D")));
+
+        ImplicitPointClusters clusters = ImplicitPointPreprocessor.cluster(points, segments, null, null);
 
+        assertSame(points.getPoint("M"), clusters.getPoints().iterator().next());
+        assertEquals(5, points.size());
     }
 }
@@ -0,0 +1,71 @@
+package preprocessor.diff;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+
+public class FigureDiffTest {
+    @Test
+    public void identicalTest() {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        FigureDiff diff = FigureDiff.of(fig, InputFacade.extractFigure("fully_connected_irregular_polygon.json"));
+
+        assertTrue(diff.isEmpty());
+        assertFalse(diff.changesGeometry());
+
+        Map.Entry<PointDatabase, Set<Segment>> geometry = InputFacade.toGeometryRepresentation(fig);
+        assertTrue(FigureDiff.of(geometry.getKey(), geometry.getValue(), geometry.getKey(), geometry.getValue()).isEmpty());
+    }
+
+    @Test
+    public void pointChangesTest() {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 4, 0);
+        Point c = new Point("C", 0, 3);
+        Point d = new Point("D", 5, 5);
+
+        // B is renamed, C moves, D is removed, E is added
+        Point bRenamed = new Point("X", 4, 0);
+        Point cMoved = new Point("C", 1, 3);
+        Point e = new Point("E", 7, 7);
+
+        List<Segment> before = Arrays.asList(new Segment(a, b), new Segment(b, c), new Segment(c, a), new Segment(a, d));
+        List<Segment> after = Arrays.asList(new Segment(bRenamed, a), new Segment(bRenamed, cMoved), new Segment(cMoved, a), new Segment(a, e));
+
+        FigureDiff diff = new FigureDiff(Arrays.asList(a, b, c, d), before, Arrays.asList(a, bRenamed, cMoved, e), after);
+
+        assertEquals(Map.of(b, bRenamed), diff.getRenamedPoints());
+        assertEquals("X", diff.getRenamedPoints().get(b).getName());
+        assertEquals(Map.of(c, cMoved), diff.getMovedPoints());
+        assertEquals(Set.of(d), diff.getRemovedPoints());
+        assertEquals(Set.of(e), diff.getAddedPoints());
+
+        // AB is unchanged despite the rename and the reversed endpoints
+        assertEquals(Set.of(new Segment(b, cMoved), new Segment(cMoved, a), new Segment(a, e)), diff.getAddedSegments());
+        assertEquals(Set.of(new Segment(b, c), new Segment(c, a), new Segment(a, d)), diff.getRemovedSegments());
+        assertTrue(diff.changesGeometry());
+    }
+
+    @Test
+    public void renameOnlyTest() {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 1, 1);
+
+        FigureDiff diff = new FigureDiff(Arrays.asList(a, b), Arrays.asList(new Segment(a, b)),
+                                         Arrays.asList(new Point("P", 0, 0), new Point("Q", 1, 1)), Arrays.asList(new Segment(new Point(1, 1), new Point(0, 0))));
+
+        assertFalse(diff.changesGeometry());
+        assertFalse(diff.isEmpty());
+        assertEquals(2, diff.getRenamedPoints().size());
+    }
+}
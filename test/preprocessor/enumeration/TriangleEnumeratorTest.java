@@ -0,0 +1,185 @@
+package preprocessor.enumeration;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import geometry_objects.Quadrilateral;
+import geometry_objects.Segment;
+import geometry_objects.Triangle;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import preprocessor.Preprocessor;
+import preprocessor.SegmentDatabase;
+
+public class TriangleEnumeratorTest {
+    @Test
+    public void singleTriangleTest() {
+        FigureNode fig = InputFacade.extractFigure("single_triangle.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+        List<Triangle> triangles = new TriangleEnumerator(pp).getTriangles();
+
+        assertEquals(1, triangles.size());
+        assertEquals(new Triangle(new Point(0, 0), new Point(1, 1), new Point(1, 0), null, null, null), triangles.get(0));
+    }
+
+    @Test
+    public void collinearTest() {
+        FigureNode fig = InputFacade.extractFigure("collinear_line_segments.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+        // Every segment is on one line: no triangles at all
+        assertEquals(0, new TriangleEnumerator(pp).count());
+    }
+
+    @Test
+    public void bruteForceTest() {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+        TriangleEnumerator enumerator = new TriangleEnumerator(pp);
+
+        Set<Triangle> expected = bruteForce(pp.getSegmentDatabase());
+        List<Triangle> actual = enumerator.getTriangles();
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, new HashSet<Triangle>(actual));
+
+        assertEquals(actual.size(), enumerator.count());
+        assertEquals(expected, enumerator.stream().parallel().collect(Collectors.toSet()));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertEquals(actual, enumerator.getTriangles(executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void squareTest() {
+        // A square with one diagonal: the square itself (the two triangles are not quadrilaterals)
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 1, 0);
+        Point c = new Point("C", 1, 1);
+        Point d = new Point("D", 0, 1);
+
+        Set<Segment> segments = Set.of(new Segment(a, b), new Segment(b, c), new Segment(c, d), new Segment(d, a), new Segment(a, c));
+        Preprocessor pp = new Preprocessor(new PointDatabase(List.of(a, b, c, d)), segments);
+
+        List<Quadrilateral> quadrilaterals = new TriangleEnumerator(pp).getQuadrilaterals();
+
+        assertEquals(1, quadrilaterals.size());
+        assertEquals(new Quadrilateral(a, b, c, d, null, null, null, null), quadrilaterals.get(0));
+        assertNotEquals(new Quadrilateral(a, c, b, d, null, null, null, null), quadrilaterals.get(0));
+    }
+
+    @Test
+    public void quadrilateralBruteForceTest() {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+        TriangleEnumerator enumerator = new TriangleEnumerator(pp);
+
+        Set<Quadrilateral> expected = bruteForceQuadrilaterals(pp.getSegmentDatabase());
+        List<Quadrilateral> actual = enumerator.getQuadrilaterals();
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, new HashSet<Quadrilateral>(actual));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertEquals(actual, enumerator.getQuadrilaterals(executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    //
+    // Every ordered 4-tuple of distinct points joined end to end, tested with the
+    // segment delegates (no side collinear with the next, opposite sides not crossing)
+    //
+    private static Set<Quadrilateral> bruteForceQuadrilaterals(SegmentDatabase db) {
+        List<Point> points = endpoints(db);
+
+        Set<Quadrilateral> quadrilaterals = new HashSet<Quadrilateral>();
+        for (Point a : points) {
+            for (Point b : points) {
+                for (Point c : points) {
+                    for (Point d : points) {
+                        if (new HashSet<Point>(List.of(a, b, c, d)).size() < 4) continue;
+
+                        Segment ab = db.get(a, b);
+                        Segment bc = db.get(b, c);
+                        Segment cd = db.get(c, d);
+                        Segment da = db.get(d, a);
+
+                        if (ab == null || bc == null || cd == null || da == null) continue;
+                        if (ab.isCollinearWith(bc) || bc.isCollinearWith(cd) || cd.isCollinearWith(da) || da.isCollinearWith(ab)) continue;
+                        if (touches(ab, cd) || touches(bc, da)) continue;
+
+                        quadrilaterals.add(new Quadrilateral(a, b, c, d, ab, bc, cd, da));
+                    }
+                }
+            }
+        }
+
+        return quadrilaterals;
+    }
+
+    private static boolean touches(Segment s1, Segment s2) {
+        return s1.segmentIntersection(s2) != null || s1.pointLiesOnSegment(s2.getPoint1()) || s1.pointLiesOnSegment(s2.getPoint2()) ||
+               s2.pointLiesOnSegment(s1.getPoint1()) || s2.pointLiesOnSegment(s1.getPoint2());
+    }
+
+    private static List<Point> endpoints(SegmentDatabase db) {
+        List<Point> points = new ArrayList<Point>();
+        for (Segment segment : db.getSegments()) {
+            if (!points.contains(segment.getPoint1())) points.add(segment.getPoint1());
+            if (!points.contains(segment.getPoint2())) points.add(segment.getPoint2());
+        }
+
+        return points;
+    }
+
+    private static Set<Triangle> bruteForce(SegmentDatabase db) {
+        List<Point> points = new ArrayList<Point>();
+        for (Segment segment : db.getSegments()) {
+            if (!points.contains(segment.getPoint1())) points.add(segment.getPoint1());
+            if (!points.contains(segment.getPoint2())) points.add(segment.getPoint2());
+        }
+
+        Set<Triangle> triangles = new HashSet<Triangle>();
+        for (int i = 0; i < points.size(); i++) {
+            for (int j = i + 1; j < points.size(); j++) {
+                for (int k = j + 1; k < points.size(); k++) {
+                    Segment ab = db.get(points.get(i), points.get(j));
+                    Segment bc = db.get(points.get(j), points.get(k));
+                    Segment ca = db.get(points.get(k), points.get(i));
+
+                    if (ab == null || bc == null || ca == null) continue;
+                    if (ab.isCollinearWith(bc)) continue;
+
+                    triangles.add(new Triangle(points.get(i), points.get(j), points.get(k), ab, bc, ca));
+                }
+            }
+        }
+
+        return triangles;
+    }
+}
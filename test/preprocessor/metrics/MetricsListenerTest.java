@@ -0,0 +1,59 @@
+package preprocessor.metrics;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import preprocessor.Preprocessor;
+
+public class MetricsListenerTest {
+    @Test
+    public void phasesAndCountersTest() {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+
+        List<PreprocessorPhase> phases = new ArrayList<PreprocessorPhase>();
+        List<PreprocessorStatistics> completed = new ArrayList<PreprocessorStatistics>();
+
+        MetricsListener listener = new MetricsListener() {
+            @Override
+            public void phaseCompleted(PreprocessorPhase phase, long nanos, long allocatedBytes) {
+                assertTrue(nanos >= 0);
+                phases.add(phase);
+            }
+
+            @Override
+            public void analysisCompleted(PreprocessorStatistics statistics) {
+                completed.add(statistics);
+            }
+        };
+
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue(), listener);
+
+        assertEquals(List.of(PreprocessorPhase.values()), phases);
+        assertEquals(1, completed.size());
+        assertSame(pp.getStatistics(), completed.get(0));
+
+        // 10 segments: 10 choose 2 pairs
+        assertEquals(45, pp.getStatistics().getIntersectionTests());
+        // segment phases read the incidence structure: no geometric point-on-segment tests
+        assertEquals(0, pp.getStatistics().getPointLiesOnCalls());
+        assertTrue(pp.getStatistics().getMaxRecursionDepth() >= 1);
+    }
+
+    @Test
+    public void disabledTest() {
+        FigureNode fig = InputFacade.extractFigure("single_triangle.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+
+        assertNull(new Preprocessor(pair.getKey(), pair.getValue()).getStatistics());
+    }
+}
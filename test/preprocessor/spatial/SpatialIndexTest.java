@@ -0,0 +1,167 @@
+package preprocessor.spatial;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import preprocessor.Preprocessor;
+import preprocessor.PreprocessorOptions;
+
+public class SpatialIndexTest {
+    @Test
+    public void nearestTest() {
+        Random random = new Random(223);
+        List<Point> points = new ArrayList<Point>();
+        for (int i = 0; i < 2000; i++) {
+            points.add(new Point(random.nextInt(1000) / 10.0, random.nextInt(1000) / 10.0));
+        }
+        PointKdTree tree = new PointKdTree(points);
+
+        for (int q = 0; q < 200; q++) {
+            double x = random.nextDouble() * 110 - 5;
+            double y = random.nextDouble() * 110 - 5;
+
+            Comparator<Point> byDistance = Comparator.comparingDouble((Point p) -> Math.hypot(p.getX() - x, p.getY() - y));
+            List<Point> expected = new ArrayList<Point>(points);
+            expected.sort(byDistance);
+
+            assertEquals(byDistance.compare(expected.get(0), tree.nearest(x, y)), 0);
+
+            List<Point> actual = tree.nearest(x, y, 7);
+            assertEquals(7, actual.size());
+            for (int i = 0; i < 7; i++) {
+                assertEquals(0, byDistance.compare(expected.get(i), actual.get(i)));
+            }
+        }
+
+        assertNull(new PointKdTree(List.of()).nearest(0, 0));
+        assertEquals(1, new PointKdTree(List.of(new Point(1, 1))).nearest(5, 5, 3).size());
+    }
+
+    @Test
+    public void segmentQueryTest() {
+        Random random = new Random(7);
+        List<Segment> segments = new ArrayList<Segment>();
+        for (int i = 0; i < 3000; i++) {
+            Point p1 = new Point(random.nextInt(1000), random.nextInt(1000));
+            Point p2 = new Point(p1.getX() + random.nextInt(41) - 20, p1.getY() + random.nextInt(41) - 20);
+            if (!p1.equals(p2)) segments.add(new Segment(p1, p2));
+        }
+        SegmentRTree tree = new SegmentRTree(segments);
+
+        for (int q = 0; q < 100; q++) {
+            // stab at a segment's midpoint: it must be found, along with anything else through it
+            Segment s = segments.get(random.nextInt(segments.size()));
+            double x = (s.getPoint1().getX() + s.getPoint2().getX()) / 2;
+            double y = (s.getPoint1().getY() + s.getPoint2().getY()) / 2;
+
+            List<Segment> stabbed = tree.stab(x, y, 1e-6);
+            assertTrue(stabbed.contains(s));
+
+            double minX = random.nextInt(1000), minY = random.nextInt(1000);
+            double maxX = minX + random.nextInt(60), maxY = minY + random.nextInt(60);
+            Set<Segment> expected = new HashSet<Segment>();
+            for (Segment candidate : segments) {
+                if (crossesWindow(candidate, minX, minY, maxX, maxY)) expected.add(candidate);
+            }
+
+            assertEquals(expected, new HashSet<Segment>(tree.window(minX, minY, maxX, maxY)));
+        }
+
+        assertTrue(new SegmentRTree(List.of()).stab(0, 0, 1).isEmpty());
+    }
+
+    // Brute force: an endpoint inside, or a crossing with one of the window's edges
+    private static boolean crossesWindow(Segment s, double minX, double minY, double maxX, double maxY) {
+        double x1 = s.getPoint1().getX(), y1 = s.getPoint1().getY();
+        double x2 = s.getPoint2().getX(), y2 = s.getPoint2().getY();
+
+        if (x1 >= minX && x1 <= maxX && y1 >= minY && y1 <= maxY) return true;
+        if (x2 >= minX && x2 <= maxX && y2 >= minY && y2 <= maxY) return true;
+
+        double[][] edges = { { minX, minY, maxX, minY }, { maxX, minY, maxX, maxY },
+                             { maxX, maxY, minX, maxY }, { minX, maxY, minX, minY } };
+        for (double[] e : edges) {
+            if (crosses(x1, y1, x2, y2, e[0], e[1], e[2], e[3])) return true;
+        }
+
+        return false;
+    }
+
+    private static boolean crosses(double ax, double ay, double bx, double by, double cx, double cy, double dx, double dy) {
+        double d1 = orient(cx, cy, dx, dy, ax, ay);
+        double d2 = orient(cx, cy, dx, dy, bx, by);
+        double d3 = orient(ax, ay, bx, by, cx, cy);
+        double d4 = orient(ax, ay, bx, by, dx, dy);
+
+        if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0))) return true;
+
+        return (d1 == 0 && onBox(cx, cy, dx, dy, ax, ay)) || (d2 == 0 && onBox(cx, cy, dx, dy, bx, by)) ||
+               (d3 == 0 && onBox(ax, ay, bx, by, cx, cy)) || (d4 == 0 && onBox(ax, ay, bx, by, dx, dy));
+    }
+
+    private static double orient(double ax, double ay, double bx, double by, double cx, double cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+    }
+
+    private static boolean onBox(double ax, double ay, double bx, double by, double px, double py) {
+        return Math.min(ax, bx) <= px && px <= Math.max(ax, bx) && Math.min(ay, by) <= py && py <= Math.max(ay, by);
+    }
+
+    @Test
+    public void figureTest() {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue(), new PreprocessorOptions().spatialIndex(true));
+        SpatialIndex index = pp.getSpatialIndex();
+
+        Point a = pp.getPointDatabase().getPoint("A");
+        assertEquals(a, index.nearestPoint(a.getX() + 0.1, a.getY() - 0.1));
+
+        // Every segment of the database through A
+        Set<Segment> expected = new HashSet<Segment>();
+        for (Segment s : pp.getSegmentDatabase().getSegments()) {
+            if (s.pointLiesOnSegment(a)) expected.add(s);
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, new HashSet<Segment>(index.segmentsThrough(a.getX(), a.getY())));
+    }
+
+    @Test
+    public void implicitPointTest() {
+        // Implicit points are truncated to the fixed-point grid: they are off the
+        // crossing segments by more than EPSILON
+        for (String figure : List.of("fully_connected_irregular_polygon.json", "GeometryFigureTest2.json")) {
+            FigureNode fig = InputFacade.extractFigure(figure);
+            Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+
+            Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue(), new PreprocessorOptions().spatialIndex(true));
+            SpatialIndex index = pp.getSpatialIndex();
+
+            assertFalse(pp.getImplicitPoints().isEmpty());
+            List<Point> queries = new ArrayList<Point>(pp.getImplicitPoints());
+            queries.add(new Point(0, 0));
+
+            for (Point pt : queries) {
+                Set<Segment> expected = new HashSet<Segment>();
+                for (Segment s : pp.getSegmentDatabase().getSegments()) {
+                    if (s.pointLiesOn(pt)) expected.add(s);
+                }
+                assertEquals(figure + " " + pt, expected, new HashSet<Segment>(index.segmentsThrough(pt)));
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package preprocessor.storage;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import preprocessor.LineIndex;
+import preprocessor.Preprocessor;
+import preprocessor.angles.AngleDatabase;
+import preprocessor.enumeration.TriangleEnumerator;
+
+public class FigureSnapshotTest {
+    @Test
+    public void roundTripTest() throws IOException {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+        Path file = Files.createTempFile("figure", ".snap");
+        FigureSnapshot.write(pp, file);
+        FigureSnapshot snapshot = FigureSnapshot.open(file);
+
+        // zero-copy queries
+        Point a = pp.getPointDatabase().getPoint("A");
+        assertEquals("A", snapshot.getPoints().getName(a.getX(), a.getY()));
+        assertEquals(pp.getPointDatabase().size(), snapshot.getPoints().size());
+        assertEquals(pp.getSegmentDatabase().size(), snapshot.getSegments().size());
+        assertEquals(pp.getMinimalSegments(), new HashSet<Segment>(snapshot.getMinimalSegments()));
+        assertEquals(pp.getImplicitPoints(), new HashSet<Point>(snapshot.getImplicitPoints()));
+
+        // full restoration
+        Preprocessor restored = snapshot.restore();
+        assertEquals(pp.getPointDatabase().getPoints(), restored.getPointDatabase().getPoints());
+        for (Point pt : pp.getPointDatabase().getPoints()) {
+            assertEquals(pt.getName(), restored.getPointDatabase().getName(pt));
+        }
+        assertEquals(pp.getGivenSegments(), restored.getGivenSegments());
+        assertEquals(pp.getImplicitPoints(), restored.getImplicitPoints());
+        assertEquals(pp.getImplicitSegments(), restored.getImplicitSegments());
+        assertEquals(pp.getMinimalSegments(), restored.getMinimalSegments());
+        assertEquals(pp.getNonMinimalSegments(), restored.getNonMinimalSegments());
+        assertEquals(pp.getAllSegments().keySet(), restored.getAllSegments().keySet());
+    }
+
+    @Test
+    public void collinearityTest() throws IOException {
+        // Pieces of a segment keep their parent's line: a restored figure must
+        // find the same lines, and so the same triangles, as a fresh analysis
+        for (String figure : List.of("fully_connected_irregular_polygon.json", "GeometryFigureTest1.json", "GeometryFigureTest2.json")) {
+            FigureNode fig = InputFacade.extractFigure(figure);
+            Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+            Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+            Path file = Files.createTempFile("figure", ".snap");
+            FigureSnapshot.write(pp, file);
+            Preprocessor restored = FigureSnapshot.open(file).restore();
+
+            assertEquals(figure, new LineIndex(pp.getMinimalSegments()).size(), new LineIndex(restored.getMinimalSegments()).size());
+            assertEquals(figure, new LineIndex(pp.getSegmentDatabase().getSegments()).size(),
+                         new LineIndex(restored.getSegmentDatabase().getSegments()).size());
+
+            TriangleEnumerator expected = new TriangleEnumerator(pp);
+            TriangleEnumerator actual = new TriangleEnumerator(restored);
+            assertEquals(figure, expected.count(), actual.count());
+            assertEquals(figure, expected.getQuadrilaterals().size(), actual.getQuadrilaterals().size());
+
+            assertEquals(figure, new AngleDatabase(pp).size(), new AngleDatabase(restored).size());
+        }
+    }
+
+    @Test
+    public void corruptionTest() throws IOException {
+        FigureNode fig = InputFacade.extractFigure("single_triangle.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+        Path file = Files.createTempFile("figure", ".snap");
+        FigureSnapshot.write(pp, file);
+
+        // flip a byte in the payload
+        flip(file, 50);
+        assertCorrupt(file);
+
+        // flip a header count (minimal segments)
+        FigureSnapshot.write(pp, file);
+        flip(file, 36);
+        assertCorrupt(file);
+
+        // a count that disagrees with the file size, even under a valid checksum
+        FigureSnapshot.write(pp, file);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putInt(36, bytes.getInt(36) + 1);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.slice(16, bytes.capacity() - 16));
+        bytes.putLong(8, crc.getValue());
+        Files.write(file, bytes.array());
+        assertCorrupt(file);
+
+        Path notSnapshot = Files.createTempFile("figure", ".json");
+        Files.writeString(notSnapshot, "{ \"Figure\" : { } } and then some more bytes to fill a header");
+        try {
+            FigureSnapshot.open(notSnapshot);
+            fail("non-snapshot opened");
+        } catch (IOException expected) {}
+    }
+
+    private static void flip(Path file, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, position);
+            b.put(0, (byte)(b.get(0) ^ 0xFF)).position(0);
+            channel.write(b, position);
+        }
+    }
+
+    private static void assertCorrupt(Path file) {
+        try {
+            FigureSnapshot.open(file);
+            fail("corrupt snapshot opened");
+        } catch (IOException expected) {}
+    }
+}
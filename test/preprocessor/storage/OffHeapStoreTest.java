@@ -0,0 +1,110 @@
+package preprocessor.storage;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import preprocessor.Preprocessor;
+
+public class OffHeapStoreTest {
+    private static void assertMirrors(Preprocessor pp, OffHeapPointStore points, OffHeapSegmentStore segments) {
+        PointDatabase db = pp.getPointDatabase();
+
+        assertEquals(db.size(), points.size());
+        for (Point pt : db.getPoints()) {
+            assertEquals(pt, points.getPoint(pt.getX(), pt.getY()));
+            assertEquals(db.getName(pt), points.getName(pt));
+            assertEquals(pt, points.getPoint(pt));
+        }
+        assertEquals(db.getPoint("A"), points.getPoint("A"));
+        assertNull(points.getPoint(-1000, -1000));
+        assertNull(points.getPoint("no such point"));
+
+        assertEquals(pp.getSegmentDatabase().size(), segments.size());
+        for (Segment s : pp.getSegmentDatabase().getSegments()) {
+            assertEquals(s, segments.get(s.getPoint2(), s.getPoint1()));
+            assertTrue(segments.contains(s));
+        }
+        assertEquals(new HashSet<Segment>(pp.getSegmentDatabase().getSegments()), new HashSet<Segment>(segments.getSegments()));
+
+        Point a = db.getPoint("A");
+        assertNull(segments.get(a, a));
+    }
+
+    @Test
+    public void directTest() {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+        OffHeapPointStore points = OffHeapPointStore.of(pp.getPointDatabase());
+        OffHeapSegmentStore segments = OffHeapSegmentStore.of(pp.getSegmentDatabase(), points);
+
+        assertMirrors(pp, points, segments);
+    }
+
+    @Test
+    public void mappedTest() throws IOException {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+        // The stores as sections of a mapped snapshot
+        Path file = Files.createTempFile("figure", ".snap");
+        FigureSnapshot.write(pp, file);
+        FigureSnapshot snapshot = FigureSnapshot.open(file);
+
+        assertMirrors(pp, snapshot.getPoints(), snapshot.getSegments());
+    }
+
+    @Test
+    public void corruptHeaderTest() {
+        FigureNode fig = InputFacade.extractFigure("fully_connected_irregular_polygon.json");
+        Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(fig);
+        Preprocessor pp = new Preprocessor(pair.getKey(), pair.getValue());
+
+        OffHeapPointStore points = OffHeapPointStore.of(pp.getPointDatabase());
+        OffHeapSegmentStore segments = OffHeapSegmentStore.of(pp.getSegmentDatabase(), points);
+
+        // A count larger than the section describes
+        ByteBuffer pointBytes = copy(points.asReadOnlyBuffer());
+        pointBytes.putInt(0, pointBytes.getInt(0) + 1);
+        try {
+            new OffHeapPointStore(pointBytes);
+            fail("corrupt point store opened");
+        } catch (IllegalArgumentException expected) {}
+
+        ByteBuffer segmentBytes = copy(segments.asReadOnlyBuffer());
+        segmentBytes.putInt(0, segmentBytes.getInt(0) + 1);
+        try {
+            new OffHeapSegmentStore(segmentBytes, points);
+            fail("corrupt segment store opened");
+        } catch (IllegalArgumentException expected) {}
+
+        // A truncated section
+        try {
+            new OffHeapPointStore(ByteBuffer.allocate(4));
+            fail("truncated point store opened");
+        } catch (IllegalArgumentException expected) {}
+    }
+
+    private static ByteBuffer copy(ByteBuffer bytes) {
+        ByteBuffer copy = ByteBuffer.allocate(bytes.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        copy.put(bytes).flip();
+
+        return copy;
+    }
+}
@@ -0,0 +1,79 @@
+package server;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import utilities.io.FileUtilities;
+
+public class FigureServerTest {
+    @Test
+    public void serviceTest() throws Exception {
+        String figure = FileUtilities.readFileFilterComments("fully_connected_irregular_polygon.json");
+
+        try (FigureService service = new FigureService(2, 64, 20_000, new preprocessor.cache.PreprocessorCache())) {
+            // Concurrent identical requests coalesce into (far) fewer analyses
+            List<CompletableFuture<String>> responses = new ArrayList<CompletableFuture<String>>();
+            for (int i = 0; i < 50; i++) responses.add(service.submit(figure));
+
+            String first = responses.get(0).get();
+            for (CompletableFuture<String> response : responses) assertEquals(first, response.get());
+
+            JSONObject json = (JSONObject) new JSONTokener(first).nextValue();
+            assertEquals(5, json.getJSONArray("ImplicitPoints").length());
+            assertEquals(35, json.getJSONArray("Segments").length());
+
+            assertEquals(50, service.getRequests());
+            assertTrue(service.getAnalyses() < 50);
+            assertTrue(service.getBatches() < 50);
+            assertTrue(service.getLatency().getPercentile(50) <= service.getLatency().getPercentile(99));
+
+            // A bad figure fails only its own request
+            CompletableFuture<String> bad = service.submit("{ \"NotAFigure\" : 1 }");
+            try {
+                bad.get();
+                fail("bad figure analyzed");
+            } catch (java.util.concurrent.ExecutionException expected) {}
+        }
+    }
+
+    @Test
+    public void httpTest() throws Exception {
+        String figure = FileUtilities.readFileFilterComments("single_triangle.json");
+
+        try (FigureServer server = new FigureServer(0, new FigureService(2))) {
+            HttpClient client = HttpClient.newHttpClient();
+            URI base = URI.create("http://localhost:" + server.getPort());
+
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/analyze"))
+                                                                    .POST(HttpRequest.BodyPublishers.ofString(figure)).build(),
+                                                         HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+
+            JSONObject json = (JSONObject) new JSONTokener(response.body()).nextValue();
+            assertEquals(0, json.getJSONArray("ImplicitPoints").length());
+            assertEquals(3, json.getJSONArray("Segments").length());
+
+            HttpResponse<String> bad = client.send(HttpRequest.newBuilder(base.resolve("/analyze"))
+                                                               .POST(HttpRequest.BodyPublishers.ofString("[1, 2]")).build(),
+                                                   HttpResponse.BodyHandlers.ofString());
+            assertEquals(400, bad.statusCode());
+
+            HttpResponse<String> stats = client.send(HttpRequest.newBuilder(base.resolve("/stats")).GET().build(),
+                                                     HttpResponse.BodyHandlers.ofString());
+            JSONObject statistics = (JSONObject) new JSONTokener(stats.body()).nextValue();
+            assertEquals(2, statistics.getDouble("requests"), 0);
+            assertTrue(statistics.keySet().contains("p99Micros"));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package utilities;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class ArrayUtilitiesTest {
+    @Test
+    public void sortByKeyTest() {
+        Random random = new Random(223);
+
+        for (int n : new int[] { 0, 1, 2, 15, 16, 17, 100, 5000 }) {
+            double[] keys = new double[n];
+            int[] values = new int[n];
+            for (int i = 0; i < n; i++) {
+                // plenty of duplicate keys
+                keys[i] = random.nextInt(Math.max(1, n / 4));
+                values[i] = i;
+            }
+            double[] original = keys.clone();
+
+            ArrayUtilities.sortByKey(keys, values, n);
+
+            double[] expected = original.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, keys, 0);
+
+            // the payload follows its key
+            for (int i = 0; i < n; i++) {
+                assertEquals(original[values[i]], keys[i], 0);
+            }
+        }
+    }
+}
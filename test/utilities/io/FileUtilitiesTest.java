@@ -0,0 +1,34 @@
+package utilities.io;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+public class FileUtilitiesTest {
+    @Test
+    public void gzipRoundTripTest() throws IOException {
+        Path dir = Files.createTempDirectory("files");
+        String content = "{ // a comment\n  \"Figure\" : \"\u00e9\" // another\n}\n";
+
+        String plain = dir.resolve("figure.json").toString();
+        String compressed = dir.resolve("figure.json.gz").toString();
+
+        assertTrue(FileUtilities.writeFile(plain, content));
+        assertTrue(FileUtilities.writeFile(compressed, content));
+
+        // the .gz file really is gzip
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(Path.of(compressed)))) {
+            assertEquals(content, new String(in.readAllBytes(), "UTF-8"));
+        }
+
+        assertEquals(content, FileUtilities.readFile(compressed));
+        assertEquals(FileUtilities.readFile(plain), FileUtilities.readFile(compressed));
+        assertEquals(FileUtilities.readFileFilterComments(plain), FileUtilities.readFileFilterComments(compressed));
+        assertEquals("{ \n  \"Figure\" : \"\u00e9\" \n}\n", FileUtilities.readFileFilterComments(compressed));
+    }
+}
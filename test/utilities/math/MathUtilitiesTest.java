@@ -47,4 +47,27 @@ public class MathUtilitiesTest {
         assertFalse(MathUtilities.doubleGreaterThan(dub0, dub5));
         assertTrue(MathUtilities.doubleGreaterThan(dub0, dub6));
     }
+
+    @Test
+    public void removeLessEpsilonTest() {
+        assertEquals(1.14285, MathUtilities.removeLessEpsilon(8.0 / 7), 0);
+        assertEquals(-1.14285, MathUtilities.removeLessEpsilon(-8.0 / 7), 0);
+
+        // truncating an already truncated value changes nothing
+        double once = MathUtilities.removeLessEpsilon(8.0 / 7);
+        assertEquals(once, MathUtilities.removeLessEpsilon(once), 0);
+    }
+
+    @Test
+    public void fixedPointTest() {
+        assertEquals(12345, MathUtilities.toFixedPoint(0.123456789));
+        assertEquals(-12345, MathUtilities.toFixedPoint(-0.123456789));
+
+        // beyond the range of an int in fixed-point units
+        assertEquals(5000050000L, MathUtilities.toFixedPoint(50000.5));
+        assertEquals(50000.5, MathUtilities.removeLessEpsilon(50000.5), 0);
+        assertEquals(-1234567.89, MathUtilities.removeLessEpsilon(-1234567.89), 0);
+
+        assertEquals(1.14285, MathUtilities.fromFixedPoint(MathUtilities.toFixedPoint(1.14285)), 0);
+    }
 }